@@ -0,0 +1,58 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Calcula el factor de trabajo de BCrypt adecuado para el host actual.
+ * Mide el tiempo de hashing con un coste base y extrapola, sabiendo que cada
+ * incremento de coste duplica el trabajo, hasta alcanzar el tiempo objetivo.
+ */
+public class BCryptStrengthCalibrator {
+
+    private static final int BASE_STRENGTH = 8;
+
+    private static final int SAMPLES = 5;
+
+    private static final String SAMPLE_PASSWORD = "calibracion-bcrypt";
+
+    /**
+     * Determina el coste de BCrypt cuyo tiempo de verificación alcanza el objetivo.
+     * @param target tiempo de verificación deseado
+     * @param minStrength coste mínimo permitido
+     * @param maxStrength coste máximo permitido
+     * @return coste calibrado dentro de los límites
+     */
+    public int calibrate(Duration target, int minStrength, int maxStrength) {
+        long baseNanos = measure(BASE_STRENGTH);
+        long targetNanos = target.toNanos();
+
+        int strength = BASE_STRENGTH;
+        long estimatedNanos = baseNanos;
+        while (estimatedNanos < targetNanos && strength < maxStrength) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+
+        return Math.max(minStrength, Math.min(maxStrength, strength));
+    }
+
+    /**
+     * Mide el mejor tiempo de hashing para un coste dado, descartando el calentamiento.
+     * @param strength coste de BCrypt
+     * @return tiempo mínimo observado en nanosegundos
+     */
+    private long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(best, 1L);
+    }
+}
@@ -0,0 +1,42 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Servidor del perfil {@code reactive}.
+ * <p>
+ * Tomcat sigue en el classpath para el API servlet, así que se declara Netty de forma
+ * explícita: atiende todas las conexiones con un hilo de bucle de eventos por CPU.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    /**
+     * Servidor Netty para WebFlux.
+     * @return factoría del servidor web reactivo
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * DataSource JDBC de {@code spring.datasource.*}. Spring Boot no lo crea cuando hay una
+     * ConnectionFactory de R2DBC, pero JPA lo necesita para crear el esquema y las tareas
+     * periódicas (filtro de usuarios, contadores de intentos) para leer y escribir fuera del
+     * bucle de eventos.
+     * @param properties propiedades de {@code spring.datasource}
+     * @return DataSource de la misma base de datos que usa R2DBC
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().build();
+    }
+}
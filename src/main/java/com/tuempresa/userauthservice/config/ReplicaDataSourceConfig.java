@@ -0,0 +1,56 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Réplicas de lectura, activas al definir {@code auth.datasource.replica.urls}.
+ * <p>
+ * La base de datos de {@code spring.datasource.*} sigue siendo la principal y las réplicas
+ * usan su mismo driver, usuario y contraseña. Sin la propiedad se mantiene el DataSource
+ * único de Spring Boot.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("auth.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${auth.datasource.replica.urls}") List<String> replicaUrls,
+            @Value("${auth.datasource.replica.validation-timeout-seconds:1}") int validationTimeoutSeconds) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        List<DataSource> replicas = replicaUrls.stream()
+            .map(String::trim)
+            .<DataSource>map(url -> DataSourceBuilder.create()
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build())
+            .toList();
+
+        return new ReplicaRoutingDataSource(primary, replicas, validationTimeoutSeconds);
+    }
+
+    /**
+     * DataSource de la aplicación: retrasa la conexión real hasta la primera sentencia, cuando
+     * ya se sabe si la transacción es de solo lectura y se puede elegir réplica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,148 @@
+package com.tuempresa.userauthservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas y el resto a la
+ * base de datos principal.
+ * <p>
+ * Las réplicas se eligen por turno rotatorio entre las que están sanas. Una réplica que
+ * falla al dar una conexión se marca como caída y la petición pasa a la siguiente, o a la
+ * principal si no queda ninguna; la comprobación periódica la vuelve a incluir cuando
+ * responde. Debe usarse detrás de un {@code LazyConnectionDataSourceProxy}, para que la
+ * conexión se pida cuando la transacción ya se ha marcado como de solo lectura.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final int validationTimeoutSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, int validationTimeoutSeconds) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * Ejecuta una operación leyendo de la base de datos principal aunque su transacción sea
+     * de solo lectura, para ver escrituras recientes que las réplicas aún no tienen.
+     * @param action operación a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la operación
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (Boolean.TRUE.equals(PRIMARY_FORCED.get())) {
+            return action.get();
+        }
+
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !Boolean.TRUE.equals(PRIMARY_FORCED.get())) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    log.warn("Réplica {} marcada como caída: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Las credenciales se configuran en cada DataSource");
+    }
+
+    /**
+     * Comprueba cada réplica y actualiza su estado.
+     */
+    @Scheduled(fixedDelayString = "${auth.datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(validationTimeoutSeconds);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.info("Réplica {} {}", replica.name, healthy ? "disponible" : "caída");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    /**
+     * Número de réplicas que reciben lecturas en este momento.
+     * @return réplicas sanas
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.datasource.replicas.healthy", this, ReplicaRoutingDataSource::getHealthyReplicaCount)
+            .description("Réplicas de lectura disponibles")
+            .register(registry);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas de mantenimiento (purga de revocaciones, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,34 +1,152 @@
 package com.tuempresa.userauthservice.config;
 
+import com.tuempresa.userauthservice.service.TokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import reactor.core.publisher.Mono;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
-@EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * Encoder delegante cuyo coste de BCrypt se calibra al arrancar según el tiempo
+     * de verificación objetivo. Los hashes sin prefijo {@code {bcrypt}} o con un coste
+     * menor al calibrado se siguen validando y se marcan para rehash tras el login.
+     * @param targetMillis tiempo de verificación objetivo en milisegundos
+     * @param minStrength coste mínimo de BCrypt
+     * @param maxStrength coste máximo de BCrypt
+     * @return encoder de contraseñas
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${auth.password.target-verification-millis:50}") long targetMillis,
+            @Value("${auth.password.min-strength:10}") int minStrength,
+            @Value("${auth.password.max-strength:16}") int maxStrength) {
+        int strength = new BCryptStrengthCalibrator()
+            .calibrate(Duration.ofMillis(targetMillis), minStrength, maxStrength);
+        log.info("Coste de BCrypt calibrado en {} para un objetivo de {} ms", strength, targetMillis);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ID, bcrypt);
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT_ID, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
-    @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http
-            .csrf(csrf -> csrf.disable())
-            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                .anyRequest().authenticated()
-            );
-
-        return http.build();
+    /**
+     * Cadena de filtros del API servlet (Spring MVC). Las rutas se declaran con
+     * {@link org.springframework.security.web.util.matcher.AntPathRequestMatcher}: con la
+     * consola de H2 registrada como segundo servlet, {@code requestMatchers(String...)} no
+     * puede decidir si son rutas de Spring MVC y el arranque falla.
+     * Los endpoints de {@code /api/admin} y las métricas de Actuator requieren el rol
+     * {@code ADMIN}, que solo tienen los usuarios de {@code auth.admin.usernames}; de Actuator
+     * solo {@code /actuator/health} es público.
+     */
+    @Configuration
+    @EnableWebSecurity
+    @Profile("!reactive")
+    static class ServletSecurityConfig {
+
+        @Bean
+        public SecurityFilterChain filterChain(
+                HttpSecurity http,
+                TokenService tokenService,
+                @Value("${auth.admin.usernames:}") List<String> adminUsernames) throws Exception {
+            http
+                .csrf(csrf -> csrf.disable())
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, adminUsernames),
+                    UsernamePasswordAuthenticationFilter.class)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Sin token válido: 401; con token pero sin el rol necesario: 403
+                .exceptionHandling(exceptions -> exceptions
+                    .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeHttpRequests(authz -> authz
+                    .requestMatchers(antMatcher("/api/auth/**")).permitAll()
+                    .requestMatchers(antMatcher("/swagger-ui/**"), antMatcher("/v3/api-docs/**")).permitAll()
+                    .requestMatchers(antMatcher("/actuator/health")).permitAll()
+                    .requestMatchers(antMatcher("/actuator/**"), antMatcher("/api/admin/**"))
+                        .hasRole(TokenAuthenticationFilter.ADMIN_ROLE)
+                    .anyRequest().authenticated()
+                );
+
+            return http.build();
+        }
+    }
+
+    /**
+     * Cadena de filtros del API reactivo (perfil {@code reactive}). Solo expone los
+     * endpoints de {@code /api/auth}, que validan el token o la sesión por sí mismos, y
+     * Actuator: {@code /actuator/health} es público y el resto requiere un token de un usuario
+     * con rol {@code ADMIN}.
+     */
+    @Configuration
+    @EnableWebFluxSecurity
+    @Profile("reactive")
+    static class ReactiveSecurityConfig {
+
+        @Bean
+        public SecurityWebFilterChain securityWebFilterChain(
+                ServerHttpSecurity http,
+                TokenService tokenService,
+                @Value("${auth.admin.usernames:}") List<String> adminUsernames) {
+            TokenAuthenticationFilter tokens = new TokenAuthenticationFilter(tokenService, adminUsernames);
+            AuthenticationWebFilter tokenFilter = new AuthenticationWebFilter((ReactiveAuthenticationManager) Mono::just);
+            tokenFilter.setServerAuthenticationConverter(exchange -> Mono.justOrEmpty(
+                tokens.verify(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
+                    .map(tokens::authenticationOf)));
+
+            return http
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(tokenFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(exceptions -> exceptions
+                    .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeExchange(exchanges -> exchanges
+                    .pathMatchers("/api/auth/**").permitAll()
+                    .pathMatchers("/actuator/health").permitAll()
+                    .pathMatchers("/actuator/**").hasRole(TokenAuthenticationFilter.ADMIN_ROLE)
+                    .anyExchange().authenticated()
+                )
+                .build();
+        }
     }
 }
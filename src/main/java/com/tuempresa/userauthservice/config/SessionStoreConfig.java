@@ -0,0 +1,58 @@
+package com.tuempresa.userauthservice.config;
+
+import com.tuempresa.userauthservice.service.MappedFileSessionStore;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.ShardedSessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Selección del almacén de sesiones según {@code auth.session.store}.
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    /**
+     * Almacén en memoria particionado, usado por defecto.
+     * @param ttlSeconds segundos de inactividad antes de expirar
+     * @param shards número de particiones con bloqueo propio
+     * @param tickMillis resolución de la rueda de expiración
+     * @return almacén de sesiones
+     */
+    @Bean
+    @ConditionalOnProperty(name = "auth.session.store", havingValue = "memory", matchIfMissing = true)
+    public SessionStore inMemorySessionStore(
+            @Value("${auth.session.ttl-seconds:1800}") long ttlSeconds,
+            @Value("${auth.session.shards:64}") int shards,
+            @Value("${auth.session.tick-millis:1000}") long tickMillis) {
+        return new ShardedSessionStore(ttlSeconds, shards, tickMillis);
+    }
+
+    /**
+     * Almacén en memoria respaldado por un registro mapeado en disco, que conserva
+     * las sesiones entre reinicios.
+     * @param ttlSeconds segundos de inactividad antes de expirar
+     * @param shards número de particiones con bloqueo propio
+     * @param tickMillis resolución de la rueda de expiración
+     * @param path ruta del fichero de registro
+     * @param initialSizeMb tamaño inicial del fichero en MB
+     * @param touchGranularityMillis intervalo mínimo entre renovaciones persistidas
+     * @return almacén de sesiones
+     */
+    @Bean
+    @ConditionalOnProperty(name = "auth.session.store", havingValue = "mmap")
+    public SessionStore mappedFileSessionStore(
+            @Value("${auth.session.ttl-seconds:1800}") long ttlSeconds,
+            @Value("${auth.session.shards:64}") int shards,
+            @Value("${auth.session.tick-millis:1000}") long tickMillis,
+            @Value("${auth.session.mmap.path:data/sessions.log}") String path,
+            @Value("${auth.session.mmap.initial-size-mb:16}") int initialSizeMb,
+            @Value("${auth.session.mmap.touch-granularity-ms:60000}") long touchGranularityMillis) {
+        return new MappedFileSessionStore(new ShardedSessionStore(ttlSeconds, shards, tickMillis),
+            Path.of(path), initialSizeMb * 1024 * 1024, touchGranularityMillis);
+    }
+}
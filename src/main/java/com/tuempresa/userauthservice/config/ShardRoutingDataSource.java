@@ -0,0 +1,82 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envía cada conexión a la base de datos del shard fijado en el hilo actual,
+ * o al shard 0 si no hay ninguno.
+ * <p>
+ * El shard se elige al pedir la conexión, por lo que {@link #on(int, Supplier)} debe envolver
+ * la transacción completa: una transacción ya iniciada conserva su conexión aunque el hilo
+ * cambie de shard. El shard 0 guarda además las tablas que no se particionan (intentos de
+ * login, puntos de reanudación de importaciones y asignación de shards).
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Ejecuta una operación con las conexiones dirigidas a un shard.
+     * @param shard índice del shard
+     * @param action operación a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la operación
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    /**
+     * Número de shards configurados.
+     * @return shards, incluido el 0
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * DataSource de un shard, para las lecturas que recorren varios shards a la vez desde
+     * un mismo hilo.
+     * @param shard índice del shard
+     * @return DataSource del shard
+     */
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT_SHARD.get();
+    }
+}
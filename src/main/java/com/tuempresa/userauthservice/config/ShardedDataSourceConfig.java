@@ -0,0 +1,160 @@
+package com.tuempresa.userauthservice.config;
+
+import com.tuempresa.userauthservice.model.UserIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Particionado de la tabla de usuarios, activo al definir {@code auth.sharding.urls}.
+ * <p>
+ * La base de datos de {@code spring.datasource.*} es el shard 0 y cada URL añade un shard
+ * con su mismo driver, usuario y contraseña. Sin la propiedad se mantiene el DataSource
+ * único de Spring Boot. No se combina con las réplicas de lectura.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("auth.sharding.urls")
+public class ShardedDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedDataSourceConfig.class);
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${auth.sharding.urls}") List<String> shardUrls,
+            @Value("${auth.sharding.max-shards:16}") int maxShards,
+            @Value("${auth.datasource.replica.urls:}") String replicaUrls) {
+        if (!replicaUrls.isBlank()) {
+            throw new IllegalStateException("Las réplicas de lectura no se pueden combinar con el particionado de usuarios");
+        }
+        if (shardUrls.size() + 1 > maxShards) {
+            throw new IllegalStateException("Se han configurado más shards que auth.sharding.max-shards");
+        }
+
+        List<DataSource> shards = new ArrayList<>(shardUrls.size() + 1);
+        shards.add(properties.initializeDataSourceBuilder().build());
+        for (String url : shardUrls) {
+            shards.add(DataSourceBuilder.create()
+                .driverClassName(properties.determineDriverClassName())
+                .url(url.trim())
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build());
+        }
+
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * DataSource de la aplicación: retrasa la conexión real hasta la primera sentencia, cuando
+     * el hilo ya ha fijado el shard de la operación.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Prepara los shards H2 en memoria una vez que Hibernate ha creado el esquema en el shard 0:
+     * copia el esquema al resto y escalona la secuencia de ids de cada uno. Las demás bases de
+     * datos se preparan con los scripts de migración (ver README). En todos los casos se
+     * comprueba después el escalonado de la secuencia de cada shard y, si no es el esperado,
+     * el arranque falla: dos shards con ids repetidos romperían la combinación por id del
+     * listado y la exportación.
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean shardSchemaInitializer(
+            ShardRoutingDataSource shardRoutingDataSource,
+            @Value("${auth.users.id.allocation-size:" + UserIdGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize,
+            @Value("${auth.sharding.max-shards:16}") int maxShards) {
+        return () -> {
+            prepareInMemoryShards(shardRoutingDataSource, allocationSize, maxShards);
+            for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+                verifySequence(new JdbcTemplate(shardRoutingDataSource.getShard(shard)), shard, allocationSize, maxShards);
+            }
+        };
+    }
+
+    private static void prepareInMemoryShards(ShardRoutingDataSource shardRoutingDataSource,
+                                              int allocationSize, int maxShards) throws IOException {
+        Path schema = Files.createTempFile("users-schema", ".sql");
+        try {
+            JdbcTemplate first = new JdbcTemplate(shardRoutingDataSource.getShard(0));
+            if (!isInMemoryH2(first)) {
+                return;
+            }
+            first.execute("SCRIPT NODATA TO '" + schema + "'");
+
+            for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource.getShard(shard));
+                if (!isInMemoryH2(jdbcTemplate)) {
+                    continue;
+                }
+                if (shard > 0) {
+                    jdbcTemplate.execute("RUNSCRIPT FROM '" + schema + "'");
+                }
+                // Cada shard reparte bloques de ids disjuntos con los del resto
+                long start = 1 + (long) shard * allocationSize;
+                jdbcTemplate.execute("ALTER SEQUENCE " + UserIdGenerator.SEQUENCE_NAME
+                    + " START WITH " + start + " RESTART WITH " + start
+                    + " INCREMENT BY " + (long) allocationSize * maxShards);
+                log.info("Shard {} preparado con el esquema de usuarios", shard);
+            }
+        } finally {
+            Files.deleteIfExists(schema);
+        }
+    }
+
+    /**
+     * Comprueba que la secuencia de ids de un shard avanza de {@code allocationSize * maxShards}
+     * en {@code allocationSize * maxShards} y empieza en un valor de su clase de ids:
+     * {@code 1 + shard * allocationSize} más un múltiplo del incremento.
+     */
+    static void verifySequence(JdbcTemplate jdbcTemplate, int shard, int allocationSize, int maxShards) {
+        List<long[]> sequences = jdbcTemplate.query(
+            "SELECT START_VALUE, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE UPPER(SEQUENCE_NAME) = UPPER(?) AND UPPER(SEQUENCE_SCHEMA) = UPPER(CURRENT_SCHEMA)",
+            (resultSet, row) -> new long[] {resultSet.getLong(1), resultSet.getLong(2)},
+            UserIdGenerator.SEQUENCE_NAME);
+        if (sequences.isEmpty()) {
+            throw new IllegalStateException("El shard " + shard + " no tiene la secuencia " + UserIdGenerator.SEQUENCE_NAME);
+        }
+
+        long start = sequences.get(0)[0];
+        long increment = sequences.get(0)[1];
+        long expectedIncrement = (long) allocationSize * maxShards;
+        long expectedStart = 1 + (long) shard * allocationSize;
+        if (increment != expectedIncrement || start < expectedStart || (start - expectedStart) % expectedIncrement != 0) {
+            throw new IllegalStateException("La secuencia " + UserIdGenerator.SEQUENCE_NAME + " del shard " + shard
+                + " empieza en " + start + " con incremento " + increment + "; se esperaba empezar en "
+                + expectedStart + " más un múltiplo de " + expectedIncrement + " con incremento " + expectedIncrement);
+        }
+    }
+
+    private static boolean isInMemoryH2(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            connection.getMetaData().getURL().startsWith("jdbc:h2:mem:"));
+    }
+}
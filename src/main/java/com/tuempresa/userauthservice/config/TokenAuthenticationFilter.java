@@ -0,0 +1,104 @@
+package com.tuempresa.userauthservice.config;
+
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.service.AuthToken;
+import com.tuempresa.userauthservice.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Autentica las peticiones que incluyen un token {@code Bearer} válido.
+ * La verificación es solo de firma y expiración, sin base de datos ni sesión.
+ * El token verificado queda en el atributo {@link #AUTH_TOKEN_ATTRIBUTE} de la petición
+ * para que los controladores no tengan que verificarlo de nuevo.
+ * Los usuarios configurados como administradores reciben además el rol {@code ADMIN}.
+ * La cadena reactiva reutiliza la verificación y los roles con {@link #verify} y
+ * {@link #authenticationOf}.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String AUTH_TOKEN_ATTRIBUTE = TokenAuthenticationFilter.class.getName() + ".AUTH_TOKEN";
+
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+        List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE));
+
+    private final TokenService tokenService;
+
+    private final Set<String> adminUsernames;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this(tokenService, Collections.emptySet());
+    }
+
+    /**
+     * @param tokenService servicio de verificación de tokens
+     * @param adminUsernames nombres de usuario con rol {@code ADMIN}, sin distinguir mayúsculas
+     */
+    public TokenAuthenticationFilter(TokenService tokenService, Collection<String> adminUsernames) {
+        this.tokenService = tokenService;
+        this.adminUsernames = adminUsernames.stream()
+            .filter(username -> !username.isBlank())
+            .map(UsernameNormalizer::normalize)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        verify(request.getHeader(HttpHeaders.AUTHORIZATION))
+            .ifPresent(authToken -> {
+                request.setAttribute(AUTH_TOKEN_ATTRIBUTE, authToken);
+                SecurityContextHolder.getContext().setAuthentication(authenticationOf(authToken));
+            });
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Verifica el token de una cabecera {@code Authorization: Bearer}.
+     * @param header valor de la cabecera; puede ser null
+     * @return token verificado, vacío si no hay token o no es válido
+     */
+    Optional<AuthToken> verify(String header) {
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return Optional.empty();
+        }
+        return tokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+    }
+
+    /**
+     * Autenticación de Spring Security para un token verificado, con el rol {@code ADMIN} si
+     * el usuario es administrador.
+     * @param authToken token verificado
+     * @return autenticación del usuario del token
+     */
+    UsernamePasswordAuthenticationToken authenticationOf(AuthToken authToken) {
+        return new UsernamePasswordAuthenticationToken(authToken.username(), null, authoritiesOf(authToken.username()));
+    }
+
+    private List<GrantedAuthority> authoritiesOf(String username) {
+        return adminUsernames.contains(UsernameNormalizer.normalize(username))
+            ? ADMIN_AUTHORITIES
+            : Collections.emptyList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.tuempresa.userauthservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de ejecución con hilos virtuales, activado con {@code auth.threads.virtual=true}.
+ * <p>
+ * Tomcat atiende cada petición en un hilo virtual nuevo en lugar de en su pool de hilos
+ * de plataforma, de modo que las llamadas a {@code UserService} que esperan a la base de
+ * datos no ocupan un hilo del sistema. El hashing de contraseñas sigue en el pool acotado
+ * de {@code PasswordHashingExecutor}: el hilo virtual espera su resultado sin retener el
+ * hilo portador, y el trabajo de CPU no compite con el planificador de hilos virtuales.
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Sustituye el pool de hilos de Tomcat por un hilo virtual por petición.
+     * @return personalización del conector
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tomcat-handler-", 0).factory()));
+    }
+
+    /**
+     * Ejecutor de las peticiones asíncronas de Spring MVC, también con hilos virtuales.
+     * @return ejecutor de tareas de la aplicación
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory()));
+    }
+}
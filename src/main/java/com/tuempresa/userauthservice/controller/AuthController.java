@@ -1,10 +1,22 @@
 package com.tuempresa.userauthservice.controller;
 
+import com.tuempresa.userauthservice.config.TokenAuthenticationFilter;
 import com.tuempresa.userauthservice.dto.ApiResponseDto;
+import com.tuempresa.userauthservice.dto.AuthTokenDto;
 import com.tuempresa.userauthservice.dto.UserLoginDto;
 import com.tuempresa.userauthservice.dto.UserRegistrationDto;
 import com.tuempresa.userauthservice.dto.UserInfoDto;
-import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.service.AuthRateLimiter;
+import com.tuempresa.userauthservice.service.AuthResult;
+import com.tuempresa.userauthservice.service.AuthSession;
+import com.tuempresa.userauthservice.service.AuthToken;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.ClientIpResolver;
+import com.tuempresa.userauthservice.service.HashingCapacityExceededException;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
+import com.tuempresa.userauthservice.service.UserPage;
 import com.tuempresa.userauthservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,16 +26,28 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.WebUtils;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Controlador REST para la autenticación de usuarios.
@@ -31,15 +55,38 @@ import java.util.stream.Collectors;
  */
 @RestController
 @RequestMapping("/api/auth")
+@Profile("!reactive")
 @Tag(name = "Autenticación", description = "Endpoints para gestión de autenticación de usuarios")
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private AuthRateLimiter rateLimiter;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @Value("${auth.session.cookie-name:AUTH_SESSION}")
+    private String sessionCookieName;
+
     /**
      * Endpoint para registrar un nuevo usuario.
      * @param registrationDto datos del usuario a registrar
+     * @param request petición HTTP de la que se toma la IP de origen
      * @return respuesta con el resultado del registro
      */
     @PostMapping("/register")
@@ -61,7 +108,18 @@ public class AuthController {
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "Error en los datos de entrada o usuario ya existe",
+            description = "Error en los datos de entrada",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"El nombre de usuario es obligatorio\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "El nombre de usuario o el email ya existen",
             content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponseDto.class),
@@ -69,33 +127,69 @@ public class AuthController {
                     value = "{\"success\": false, \"message\": \"El nombre de usuario ya está en uso\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Demasiados intentos para el usuario o la IP, reintentar tras Retry-After",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Demasiados intentos, intente más tarde\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Servicio de hashing saturado, reintentar tras Retry-After",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Servicio temporalmente saturado, intente nuevamente\"}"
+                )
+            )
         )
     })
     public ResponseEntity<ApiResponseDto> register(
         @Parameter(description = "Datos del usuario a registrar", required = true)
-        @Valid @RequestBody UserRegistrationDto registrationDto) {
+        @Valid @RequestBody UserRegistrationDto registrationDto,
+        HttpServletRequest request) {
+        long retryAfterMillis = rateLimiter.tryAcquireRegister(registrationDto.getUsername(), clientIp(request));
+        if (retryAfterMillis > 0) {
+            return tooManyRequests(retryAfterMillis);
+        }
+
+        RegistrationResult result;
         try {
-            User user = userService.registerUser(registrationDto);
-            return ResponseEntity.ok(
-                ApiResponseDto.success("Usuario registrado exitosamente", user.getUsername())
-            );
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(
-                ApiResponseDto.error(e.getMessage())
+            result = userService.registerUser(registrationDto);
+        } catch (HashingCapacityExceededException e) {
+            return serviceUnavailable(e);
+        }
+
+        if (result instanceof RegistrationResult.Failure failure) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ApiResponseDto.error(failure.getMessage())
             );
         }
+
+        RegistrationResult.Registered registered = (RegistrationResult.Registered) result;
+        return ResponseEntity.ok(
+            ApiResponseDto.success("Usuario registrado exitosamente", registered.user().getUsername())
+        );
     }
 
     /**
      * Endpoint para iniciar sesión.
      * @param loginDto credenciales del usuario
-     * @param request petición HTTP para manejo de sesión
+     * @param request petición HTTP de la que se toma la IP de origen
+     * @param response respuesta HTTP donde se fija la cookie de sesión
      * @return respuesta con el resultado del login
      */
     @PostMapping("/login")
     @Operation(
         summary = "Iniciar sesión",
-        description = "Autentica a un usuario y crea una sesión HTTP"
+        description = "Autentica a un usuario, crea una sesión y emite un token firmado"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -105,13 +199,13 @@ public class AuthController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponseDto.class),
                 examples = @ExampleObject(
-                    value = "{\"success\": true, \"message\": \"Login exitoso\", \"data\": \"usuario123\"}"
+                    value = "{\"success\": true, \"message\": \"Login exitoso\", \"data\": {\"token\": \"k1.AQAAAAAAAAAB...Q.sig\", \"tokenType\": \"Bearer\", \"username\": \"usuario123\", \"expiresIn\": 3600}}"
                 )
             )
         ),
         @ApiResponse(
             responseCode = "401",
-            description = "Credenciales inválidas",
+            description = "Credenciales inválidas o usuario inactivo",
             content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponseDto.class),
@@ -119,39 +213,101 @@ public class AuthController {
                     value = "{\"success\": false, \"message\": \"Credenciales inválidas\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Usuario no encontrado",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Usuario no encontrado\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "423",
+            description = "Cuenta bloqueada temporalmente por intentos fallidos",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Cuenta bloqueada temporalmente por intentos fallidos\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Demasiados intentos para el usuario o la IP, reintentar tras Retry-After",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Demasiados intentos, intente más tarde\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Servicio de hashing saturado, reintentar tras Retry-After",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Servicio temporalmente saturado, intente nuevamente\"}"
+                )
+            )
         )
     })
     public ResponseEntity<ApiResponseDto> login(
         @Parameter(description = "Credenciales del usuario", required = true)
         @Valid @RequestBody UserLoginDto loginDto,
-        HttpServletRequest request) {
-        try {
-            User user = userService.authenticateUser(loginDto);
+        HttpServletRequest request,
+        HttpServletResponse response) {
+        long retryAfterMillis = rateLimiter.tryAcquireLogin(loginDto.getUsername(), clientIp(request));
+        if (retryAfterMillis > 0) {
+            return tooManyRequests(retryAfterMillis);
+        }
 
-            // Crear sesión
-            HttpSession session = request.getSession(true);
-            session.setAttribute("username", user.getUsername());
-            session.setAttribute("userId", user.getId());
+        AuthResult result;
+        try {
+            result = userService.authenticateUser(loginDto);
+        } catch (HashingCapacityExceededException e) {
+            return serviceUnavailable(e);
+        }
 
-            return ResponseEntity.ok(
-                ApiResponseDto.success("Login exitoso", user.getUsername())
-            );
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
-                ApiResponseDto.error(e.getMessage())
+        if (result instanceof AuthResult.Failure failure) {
+            return ResponseEntity.status(statusOf(failure)).body(
+                ApiResponseDto.error(failure.getMessage())
             );
         }
+
+        AuthenticatedUser user = (AuthenticatedUser) result;
+
+        // Crear sesión
+        AuthSession session = sessionStore.create(user.id(), user.username());
+        response.addHeader(HttpHeaders.SET_COOKIE, sessionCookie(session.getId(), sessionStore.getTtlSeconds()));
+
+        String token = tokenService.issue(user.id(), user.username());
+
+        return ResponseEntity.ok(
+            ApiResponseDto.success("Login exitoso",
+                new AuthTokenDto(token, user.username(), tokenService.getTtlSeconds()))
+        );
     }
 
     /**
      * Endpoint para cerrar sesión.
+     * Acepta el token en la cabecera {@code Authorization: Bearer} o, en su defecto,
+     * la cookie de sesión creada en el login.
      * @param request petición HTTP para manejo de sesión
+     * @param response respuesta HTTP donde se elimina la cookie de sesión
      * @return respuesta con el resultado del logout
      */
     @PostMapping("/logout")
     @Operation(
         summary = "Cerrar sesión",
-        description = "Invalida la sesión actual del usuario"
+        description = "Invalida el token o la sesión actual del usuario"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -167,48 +323,73 @@ public class AuthController {
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "No hay sesión activa",
+            description = "Sin token ni sesión activa",
             content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ApiResponseDto.class),
                 examples = @ExampleObject(
-                    value = "{\"success\": false, \"message\": \"No hay sesión activa\"}"
+                    value = "{\"success\": false, \"message\": \"Token requerido\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Token inválido o expirado",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Token inválido\"}"
                 )
             )
         )
     })
-    public ResponseEntity<ApiResponseDto> logout(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
+    public ResponseEntity<ApiResponseDto> logout(HttpServletRequest request, HttpServletResponse response) {
+        String token = extractBearerToken(request);
 
-        if (session != null) {
-            String username = (String) session.getAttribute("username");
-
-            // Invalidar sesión
-            session.invalidate();
-
-            if (username != null) {
-                // Desactivar usuario (logout lógico)
-                userService.logoutUser(username);
+        if (token != null) {
+            try {
+                userService.logoutUser(token);
                 return ResponseEntity.ok(
                     ApiResponseDto.success("Logout exitoso")
                 );
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    ApiResponseDto.error(e.getMessage())
+                );
             }
         }
 
+        // Invalidar sesión
+        Optional<AuthSession> session = sessionStore.invalidate(extractSessionId(request));
+
+        if (session.isPresent()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, sessionCookie("", 0));
+
+            // Desactivar usuario (logout lógico)
+            userService.logoutUserByUsername(session.get().getUsername());
+            return ResponseEntity.ok(
+                ApiResponseDto.success("Logout exitoso")
+            );
+        }
+
         return ResponseEntity.badRequest().body(
-            ApiResponseDto.error("No hay sesión activa")
+            ApiResponseDto.error("Token requerido")
         );
     }
 
     /**
      * Endpoint para verificar el estado de la sesión.
+     * Es el endpoint más consultado, por lo que responde solo con el token o la sesión
+     * en memoria y escribe el cuerpo directamente, sin serializar un {@link ApiResponseDto}.
      * @param request petición HTTP para verificar sesión
-     * @return respuesta con el estado de la sesión
+     * @param response respuesta HTTP donde se escribe el estado de la sesión
+     * @throws IOException si falla la escritura de la respuesta
      */
     @GetMapping("/status")
     @Operation(
         summary = "Verificar estado de sesión",
-        description = "Verifica si existe una sesión activa para el usuario"
+        description = "Verifica si existe un token válido o una sesión activa para el usuario"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -234,29 +415,43 @@ public class AuthController {
             )
         )
     })
-    public ResponseEntity<ApiResponseDto> getSessionStatus(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
+    public void getSessionStatus(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // El filtro de seguridad ya verificó el token si venía en la cabecera
+        AuthToken authToken = (AuthToken) request.getAttribute(TokenAuthenticationFilter.AUTH_TOKEN_ATTRIBUTE);
+        if (authToken == null) {
+            authToken = tokenService.verify(extractBearerToken(request)).orElse(null);
+        }
 
-        if (session != null && session.getAttribute("username") != null) {
-            String username = (String) session.getAttribute("username");
-            return ResponseEntity.ok(
-                ApiResponseDto.success("Sesión activa", username)
-            );
+        if (authToken != null) {
+            SessionStatusWriter.writeActive(response, authToken.username());
+            return;
         }
 
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
-            ApiResponseDto.error("No hay sesión activa")
-        );
+        Optional<AuthSession> session = sessionStore.find(extractSessionId(request));
+
+        if (session.isPresent()) {
+            SessionStatusWriter.writeActive(response, session.get().getUsername());
+            return;
+        }
+
+        SessionStatusWriter.writeInactive(response);
     }
 
     /**
-     * Endpoint para listar todos los usuarios.
-     * @return lista de usuarios registrados en el sistema
+     * Endpoint para listar los usuarios con paginación por clave.
+     * El cursor de la página siguiente se devuelve en la cabecera {@value #NEXT_CURSOR_HEADER}.
+     * @param active filtro por estado del usuario
+     * @param createdFrom inicio inclusivo del rango de fecha de creación
+     * @param createdTo fin exclusivo del rango de fecha de creación
+     * @param cursor cursor de la página anterior
+     * @param size tamaño de página
+     * @return página de usuarios registrados en el sistema
      */
     @GetMapping("/users")
     @Operation(
         summary = "Listar usuarios",
-        description = "Obtiene una lista de todos los usuarios registrados en el sistema"
+        description = "Obtiene una página de usuarios registrados en el sistema. Si hay más resultados, "
+            + "la cabecera " + NEXT_CURSOR_HEADER + " contiene el cursor de la página siguiente"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -276,28 +471,152 @@ public class AuthController {
                     )
                 }
             )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Cursor inválido o no corresponde a los filtros",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": false, \"message\": \"Cursor inválido\"}"
+                )
+            )
         )
     })
-    public ResponseEntity<ApiResponseDto> listUsers() {
-        List<User> users = userService.getAllUsers();
-        List<UserInfoDto> userDtos = users.stream()
-            .map(user -> new UserInfoDto(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getCreatedAt(),
-                user.getIsActive()
-            ))
-            .collect(Collectors.toList());
+    public ResponseEntity<ApiResponseDto> listUsers(
+        @Parameter(description = "Filtrar por usuarios activos o inactivos")
+        @RequestParam(required = false) Boolean active,
+        @Parameter(description = "Fecha de creación mínima (inclusiva)", example = "2025-09-01T00:00:00")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @Parameter(description = "Fecha de creación máxima (exclusiva)", example = "2025-10-01T00:00:00")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @Parameter(description = "Cursor opaco devuelto en la página anterior")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Tamaño de página (máximo " + UserService.MAX_PAGE_SIZE + ")")
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        UserPage page;
+        try {
+            page = userService.getUsersPage(active, createdFrom, createdTo, cursor, size);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(
+                ApiResponseDto.error(e.getMessage())
+            );
+        }
+
+        List<UserInfoDto> userDtos = page.users();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
 
         if (userDtos.isEmpty()) {
-            return ResponseEntity.ok(
+            return response.body(
                 ApiResponseDto.success("No hay usuarios registrados en el sistema", userDtos)
             );
         }
 
-        return ResponseEntity.ok(
+        return response.body(
             ApiResponseDto.success("Usuarios obtenidos exitosamente", userDtos)
         );
     }
+
+    /**
+     * Código HTTP de cada motivo de rechazo del login.
+     * @param failure motivo de rechazo
+     * @return estado de la respuesta
+     */
+    private static HttpStatus statusOf(AuthResult.Failure failure) {
+        return switch (failure) {
+            case USER_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case INVALID_CREDENTIALS, INACTIVE_USER -> HttpStatus.UNAUTHORIZED;
+            case LOCKED -> HttpStatus.LOCKED;
+        };
+    }
+
+    /**
+     * IP de origen de la petición, resuelta tras los proxies de confianza.
+     * @param request petición HTTP
+     * @return dirección IP del cliente
+     */
+    private String clientIp(HttpServletRequest request) {
+        return clientIpResolver.resolve(request.getRemoteAddr(),
+            Collections.list(request.getHeaders(ClientIpResolver.FORWARDED_FOR_HEADER)));
+    }
+
+    /**
+     * Responde 400 con el formato de {@link ApiResponseDto} cuando falla la validación del cuerpo.
+     * @param e excepción con los errores de validación
+     * @return respuesta con el primer error encontrado
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiResponseDto> handleValidationError(MethodArgumentNotValidException e) {
+        FieldError fieldError = e.getBindingResult().getFieldError();
+        String message = fieldError != null ? fieldError.getDefaultMessage() : "Datos inválidos";
+        return ResponseEntity.badRequest().body(ApiResponseDto.error(message));
+    }
+
+    /**
+     * Construye la respuesta 429 cuando se supera el límite de tasa.
+     * @param retryAfterMillis tiempo hasta el siguiente intento permitido
+     * @return respuesta con la cabecera Retry-After
+     */
+    private ResponseEntity<ApiResponseDto> tooManyRequests(long retryAfterMillis) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+            .body(ApiResponseDto.error("Demasiados intentos, intente más tarde"));
+    }
+
+    /**
+     * Construye la respuesta 503 cuando el pool de hashing rechaza la petición.
+     * @param e excepción con el tiempo de reintento sugerido
+     * @return respuesta con la cabecera Retry-After
+     */
+    private ResponseEntity<ApiResponseDto> serviceUnavailable(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(ApiResponseDto.error(e.getMessage()));
+    }
+
+    /**
+     * Obtiene el token de la cabecera {@code Authorization: Bearer}.
+     * @param request petición HTTP
+     * @return token o null si la cabecera no está presente
+     */
+    private String extractBearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    /**
+     * Obtiene el id de sesión de la cookie de sesión.
+     * @param request petición HTTP
+     * @return id de sesión o null si no hay cookie
+     */
+    private String extractSessionId(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, sessionCookieName);
+        return cookie != null ? cookie.getValue() : null;
+    }
+
+    /**
+     * Construye la cabecera Set-Cookie de la sesión.
+     * @param sessionId id de sesión, vacío para eliminar la cookie
+     * @param maxAgeSeconds duración de la cookie
+     * @return valor de la cabecera
+     */
+    private String sessionCookie(String sessionId, long maxAgeSeconds) {
+        return ResponseCookie.from(sessionCookieName, sessionId)
+            .httpOnly(true)
+            .path("/")
+            .sameSite("Lax")
+            .maxAge(maxAgeSeconds)
+            .build()
+            .toString();
+    }
 }
@@ -0,0 +1,322 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.tuempresa.userauthservice.dto.ApiResponseDto;
+import com.tuempresa.userauthservice.dto.AuthTokenDto;
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.service.AuthRateLimiter;
+import com.tuempresa.userauthservice.service.AuthResult;
+import com.tuempresa.userauthservice.service.AuthSession;
+import com.tuempresa.userauthservice.service.AuthToken;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.ClientIpResolver;
+import com.tuempresa.userauthservice.service.HashingCapacityExceededException;
+import com.tuempresa.userauthservice.service.ReactiveUserService;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controlador REST reactivo para la autenticación de usuarios (perfil {@code reactive}).
+ * Expone los mismos endpoints, cuerpos y códigos de estado que {@link AuthController}
+ * sin bloquear los hilos del bucle de eventos.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@Profile("reactive")
+public class ReactiveAuthController {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private AuthRateLimiter rateLimiter;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    @Value("${auth.session.cookie-name:AUTH_SESSION}")
+    private String sessionCookieName;
+
+    /**
+     * Endpoint para registrar un nuevo usuario.
+     * @param registrationDto datos del usuario a registrar
+     * @param request petición HTTP de la que se toma la IP de origen
+     * @return respuesta con el resultado del registro
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<ApiResponseDto>> register(
+        @Valid @RequestBody UserRegistrationDto registrationDto,
+        ServerHttpRequest request) {
+        long retryAfterMillis = rateLimiter.tryAcquireRegister(registrationDto.getUsername(), clientIp(request));
+        if (retryAfterMillis > 0) {
+            return Mono.just(tooManyRequests(retryAfterMillis));
+        }
+
+        return userService.registerUser(registrationDto)
+            .map(result -> {
+                if (result instanceof RegistrationResult.Failure failure) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                        ApiResponseDto.error(failure.getMessage())
+                    );
+                }
+
+                RegistrationResult.Registered registered = (RegistrationResult.Registered) result;
+                return ResponseEntity.ok(
+                    ApiResponseDto.success("Usuario registrado exitosamente", registered.user().getUsername())
+                );
+            })
+            .onErrorResume(HashingCapacityExceededException.class, e -> Mono.just(serviceUnavailable(e)));
+    }
+
+    /**
+     * Endpoint para iniciar sesión.
+     * @param loginDto credenciales del usuario
+     * @param request petición HTTP de la que se toma la IP de origen
+     * @return respuesta con el resultado del login y la cookie de sesión
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<ApiResponseDto>> login(
+        @Valid @RequestBody UserLoginDto loginDto,
+        ServerHttpRequest request) {
+        long retryAfterMillis = rateLimiter.tryAcquireLogin(loginDto.getUsername(), clientIp(request));
+        if (retryAfterMillis > 0) {
+            return Mono.just(tooManyRequests(retryAfterMillis));
+        }
+
+        return userService.authenticateUser(loginDto)
+            .map(result -> {
+                if (result instanceof AuthResult.Failure failure) {
+                    return ResponseEntity.status(statusOf(failure)).body(
+                        ApiResponseDto.error(failure.getMessage())
+                    );
+                }
+
+                AuthenticatedUser user = (AuthenticatedUser) result;
+                AuthSession session = sessionStore.create(user.id(), user.username());
+                String token = tokenService.issue(user.id(), user.username());
+
+                return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, sessionCookie(session.getId(), sessionStore.getTtlSeconds()))
+                    .body(ApiResponseDto.success("Login exitoso",
+                        new AuthTokenDto(token, user.username(), tokenService.getTtlSeconds())));
+            })
+            .onErrorResume(HashingCapacityExceededException.class, e -> Mono.just(serviceUnavailable(e)));
+    }
+
+    /**
+     * Endpoint para cerrar sesión con el token de la cabecera {@code Authorization: Bearer}
+     * o, en su defecto, con la cookie de sesión.
+     * @param request petición HTTP con el token o la cookie
+     * @return respuesta con el resultado del logout
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<ApiResponseDto>> logout(ServerHttpRequest request) {
+        String token = extractBearerToken(request);
+
+        if (token != null) {
+            return userService.logoutUser(token)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ApiResponseDto.success("Logout exitoso"))))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponseDto.error(e.getMessage()))
+                ));
+        }
+
+        Optional<AuthSession> session = sessionStore.invalidate(extractSessionId(request));
+
+        if (session.isPresent()) {
+            // Desactivar usuario (logout lógico)
+            return userService.logoutUserByUsername(session.get().getUsername())
+                .map(deactivated -> ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, sessionCookie("", 0))
+                    .body(ApiResponseDto.success("Logout exitoso")));
+        }
+
+        return Mono.just(ResponseEntity.badRequest().body(
+            ApiResponseDto.error("Token requerido")
+        ));
+    }
+
+    /**
+     * Endpoint para verificar el estado de la sesión, respondido solo con el token o la
+     * sesión en memoria.
+     * @param request petición HTTP con el token o la cookie
+     * @return respuesta con el nombre de usuario de la sesión activa
+     */
+    @GetMapping("/status")
+    public Mono<ResponseEntity<ApiResponseDto>> getSessionStatus(ServerHttpRequest request) {
+        Optional<String> username = tokenService.verify(extractBearerToken(request))
+            .map(AuthToken::username)
+            .or(() -> sessionStore.find(extractSessionId(request)).map(AuthSession::getUsername));
+
+        return Mono.just(username
+            .map(name -> ResponseEntity.ok(ApiResponseDto.success("Sesión activa", name)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                ApiResponseDto.error("No hay sesión activa")
+            )));
+    }
+
+    /**
+     * Endpoint para listar los usuarios con paginación por clave.
+     * El cursor de la página siguiente se devuelve en la cabecera {@value #NEXT_CURSOR_HEADER}.
+     * @param active filtro por estado del usuario
+     * @param createdFrom inicio inclusivo del rango de fecha de creación
+     * @param createdTo fin exclusivo del rango de fecha de creación
+     * @param cursor cursor de la página anterior
+     * @param size tamaño de página
+     * @return página de usuarios registrados en el sistema
+     */
+    @GetMapping("/users")
+    public Mono<ResponseEntity<ApiResponseDto>> listUsers(
+        @RequestParam(required = false) Boolean active,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return userService.getUsersPage(active, createdFrom, createdTo, cursor, size)
+            .map(page -> {
+                List<UserInfoDto> userDtos = page.users();
+
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.nextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                }
+
+                if (userDtos.isEmpty()) {
+                    return response.body(
+                        ApiResponseDto.success("No hay usuarios registrados en el sistema", userDtos)
+                    );
+                }
+
+                return response.body(
+                    ApiResponseDto.success("Usuarios obtenidos exitosamente", userDtos)
+                );
+            })
+            .onErrorResume(RuntimeException.class, e -> Mono.just(
+                ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()))
+            ));
+    }
+
+    /**
+     * Código HTTP de cada motivo de rechazo del login.
+     * @param failure motivo de rechazo
+     * @return estado de la respuesta
+     */
+    private static HttpStatus statusOf(AuthResult.Failure failure) {
+        return switch (failure) {
+            case USER_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case INVALID_CREDENTIALS, INACTIVE_USER -> HttpStatus.UNAUTHORIZED;
+            case LOCKED -> HttpStatus.LOCKED;
+        };
+    }
+
+    /**
+     * Construye la respuesta 429 cuando se supera el límite de tasa.
+     * @param retryAfterMillis tiempo hasta el siguiente intento permitido
+     * @return respuesta con la cabecera Retry-After
+     */
+    private ResponseEntity<ApiResponseDto> tooManyRequests(long retryAfterMillis) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+            .body(ApiResponseDto.error("Demasiados intentos, intente más tarde"));
+    }
+
+    /**
+     * Construye la respuesta 503 cuando el pool de hashing rechaza la petición.
+     * @param e excepción con el tiempo de reintento sugerido
+     * @return respuesta con la cabecera Retry-After
+     */
+    private ResponseEntity<ApiResponseDto> serviceUnavailable(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(ApiResponseDto.error(e.getMessage()));
+    }
+
+    /**
+     * IP de origen de la petición, resuelta tras los proxies de confianza.
+     * @param request petición HTTP
+     * @return dirección IP, o cadena vacía si no se conoce
+     */
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "";
+        }
+        String remoteAddr = address.getAddress() != null
+            ? address.getAddress().getHostAddress()
+            : address.getHostString();
+        return clientIpResolver.resolve(remoteAddr, request.getHeaders().get(ClientIpResolver.FORWARDED_FOR_HEADER));
+    }
+
+    /**
+     * Obtiene el token de la cabecera {@code Authorization: Bearer}.
+     * @param request petición HTTP
+     * @return token o null si la cabecera no está presente
+     */
+    private String extractBearerToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    /**
+     * Obtiene el id de sesión de la cookie de sesión.
+     * @param request petición HTTP
+     * @return id de sesión o null si no hay cookie
+     */
+    private String extractSessionId(ServerHttpRequest request) {
+        HttpCookie cookie = request.getCookies().getFirst(sessionCookieName);
+        return cookie != null ? cookie.getValue() : null;
+    }
+
+    /**
+     * Construye la cabecera Set-Cookie de la sesión.
+     * @param sessionId id de sesión, vacío para eliminar la cookie
+     * @param maxAgeSeconds duración de la cookie
+     * @return valor de la cabecera
+     */
+    private String sessionCookie(String sessionId, long maxAgeSeconds) {
+        return ResponseCookie.from(sessionCookieName, sessionId)
+            .httpOnly(true)
+            .path("/")
+            .sameSite("Lax")
+            .maxAge(maxAgeSeconds)
+            .build()
+            .toString();
+    }
+}
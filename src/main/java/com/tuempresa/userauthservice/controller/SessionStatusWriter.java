@@ -0,0 +1,99 @@
+package com.tuempresa.userauthservice.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritura directa de las respuestas de {@code /api/auth/status}, sin pasar por Jackson.
+ * <p>
+ * Los cuerpos tienen el mismo formato JSON que {@link com.tuempresa.userauthservice.dto.ApiResponseDto}:
+ * el de sesión inactiva se serializa una sola vez y el de sesión activa se compone de un
+ * prefijo y un sufijo fijos con el nombre de usuario escrito entre ambos.
+ */
+final class SessionStatusWriter {
+
+    private static final byte[] INACTIVE_BODY =
+        "{\"success\":false,\"message\":\"No hay sesión activa\",\"data\":null}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ACTIVE_PREFIX =
+        "{\"success\":true,\"message\":\"Sesión activa\",\"data\":\"".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ACTIVE_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SessionStatusWriter() {
+    }
+
+    /**
+     * Escribe la respuesta 200 de sesión activa.
+     * @param response respuesta HTTP
+     * @param username nombre de usuario de la sesión
+     * @throws IOException si falla la escritura
+     */
+    static void writeActive(HttpServletResponse response, String username) throws IOException {
+        byte[] name = jsonEscape(username).getBytes(StandardCharsets.UTF_8);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(ACTIVE_PREFIX.length + name.length + ACTIVE_SUFFIX.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(ACTIVE_PREFIX);
+        out.write(name);
+        out.write(ACTIVE_SUFFIX);
+    }
+
+    /**
+     * Escribe la respuesta 401 precalculada de sesión inactiva.
+     * @param response respuesta HTTP
+     * @throws IOException si falla la escritura
+     */
+    static void writeInactive(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(INACTIVE_BODY.length);
+        response.getOutputStream().write(INACTIVE_BODY);
+    }
+
+    /**
+     * Escapa un valor para incluirlo en una cadena JSON. Los nombres de usuario
+     * habituales no requieren escape y se devuelven sin copiar.
+     */
+    static String jsonEscape(String value) {
+        int i = 0;
+        while (i < value.length() && !needsEscape(value.charAt(i))) {
+            i++;
+        }
+        if (i == value.length()) {
+            return value;
+        }
+
+        StringBuilder escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\';
+    }
+}
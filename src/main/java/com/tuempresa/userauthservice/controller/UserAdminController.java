@@ -0,0 +1,352 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.tuempresa.userauthservice.dto.ApiResponseDto;
+import com.tuempresa.userauthservice.dto.BulkRegistrationDto;
+import com.tuempresa.userauthservice.dto.BulkRegistrationItemDto;
+import com.tuempresa.userauthservice.dto.ForceLogoutDto;
+import com.tuempresa.userauthservice.dto.UserImportProgressDto;
+import com.tuempresa.userauthservice.dto.UserShardDto;
+import com.tuempresa.userauthservice.service.BloomFilter;
+import com.tuempresa.userauthservice.service.BulkRegistrationService;
+import com.tuempresa.userauthservice.service.HashingCapacityExceededException;
+import com.tuempresa.userauthservice.service.UserExportService;
+import com.tuempresa.userauthservice.service.UserImportService;
+import com.tuempresa.userauthservice.service.UserService;
+import com.tuempresa.userauthservice.service.UserShardRebalancer;
+import com.tuempresa.userauthservice.service.UsernameFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controlador REST para operaciones administrativas sobre usuarios.
+ * Requiere una petición autenticada.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@Profile("!reactive")
+@Tag(name = "Administración de usuarios", description = "Operaciones masivas sobre usuarios")
+public class UserAdminController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private BulkRegistrationService bulkRegistrationService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private UserShardRebalancer userShardRebalancer;
+
+    /**
+     * Endpoint para cerrar de forma forzada la sesión de varios usuarios.
+     * @param forceLogoutDto usuarios a desactivar
+     * @return respuesta con el número de usuarios desactivados
+     */
+    @PostMapping("/force-logout")
+    @Operation(
+        summary = "Logout forzado",
+        description = "Desactiva en bloque a los usuarios indicados con sentencias UPDATE por lotes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Usuarios desactivados",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": true, \"message\": \"Usuarios desactivados\", \"data\": 2}"
+                )
+            )
+        )
+    })
+    public ResponseEntity<ApiResponseDto> forceLogout(
+        @Parameter(description = "Usuarios a desactivar", required = true)
+        @Valid @RequestBody ForceLogoutDto forceLogoutDto) {
+        int deactivated = userService.forceLogout(forceLogoutDto.getUsernames());
+
+        return ResponseEntity.ok(
+            ApiResponseDto.success("Usuarios desactivados", deactivated)
+        );
+    }
+
+    /**
+     * Endpoint para registrar varios usuarios en una sola petición.
+     * Los rechazos por duplicado no hacen fallar el lote: se informan en el resultado de
+     * cada usuario.
+     * @param bulkRegistrationDto usuarios a registrar
+     * @return respuesta con el resultado de cada usuario, en el orden de la petición
+     */
+    @PostMapping("/bulk-register")
+    @Operation(
+        summary = "Registro masivo",
+        description = "Registra varios usuarios con comprobación de duplicados por lotes, hashing en paralelo e inserciones JDBC por lotes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lote procesado",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": true, \"message\": \"1 de 2 usuarios registrados\", \"data\": ["
+                        + "{\"index\": 0, \"username\": \"usuario1\", \"status\": \"REGISTERED\", \"message\": \"Usuario registrado exitosamente\"}, "
+                        + "{\"index\": 1, \"username\": \"usuario2\", \"status\": \"EMAIL_TAKEN\", \"message\": \"El email ya está registrado\"}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Pool de hashing saturado, reintentar tras Retry-After"
+        )
+    })
+    public ResponseEntity<ApiResponseDto> bulkRegister(
+        @Parameter(description = "Usuarios a registrar", required = true)
+        @Valid @RequestBody BulkRegistrationDto bulkRegistrationDto) {
+        List<BulkRegistrationItemDto> results;
+        try {
+            results = bulkRegistrationService.registerUsers(bulkRegistrationDto.getUsers());
+        } catch (HashingCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponseDto.error(e.getMessage()));
+        }
+
+        long registered = results.stream()
+            .filter(result -> BulkRegistrationItemDto.REGISTERED.equals(result.getStatus()))
+            .count();
+
+        return ResponseEntity.ok(
+            ApiResponseDto.success(registered + " de " + results.size() + " usuarios registrados", results)
+        );
+    }
+
+    /**
+     * Endpoint para importar, o reanudar, un archivo de usuarios del IdP heredado con sus
+     * hashes BCrypt. La petición termina cuando se ha procesado el archivo completo; el
+     * progreso se puede consultar mientras tanto con {@code GET /import}.
+     * @param file nombre del archivo en el directorio de importación
+     * @return respuesta con el progreso final de la importación
+     * @throws IOException si falla la lectura del archivo
+     */
+    @PostMapping("/import")
+    @Operation(
+        summary = "Importar usuarios",
+        description = "Importa un archivo CSV o NDJSON del directorio de importación conservando los hashes BCrypt, por bloques confirmados y reanudables"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Importación completada",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": true, \"message\": \"Importación completada\", \"data\": {\"source\": \"legacy-users.csv\", "
+                        + "\"lines\": 250000, \"imported\": 248500, \"skipped\": 1450, \"rejected\": 50, \"completed\": true, "
+                        + "\"updatedAt\": \"2025-09-30T10:30:00\"}}"
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "400", description = "Archivo inexistente o con formato no válido"),
+        @ApiResponse(responseCode = "409", description = "El archivo ya se está importando")
+    })
+    public ResponseEntity<ApiResponseDto> importUsers(
+        @Parameter(description = "Nombre del archivo (.csv, .ndjson o .jsonl)", example = "legacy-users.csv")
+        @RequestParam String file) throws IOException {
+        UserImportProgressDto progress;
+        try {
+            progress = userImportService.importUsers(file);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponseDto.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        }
+
+        return ResponseEntity.ok(ApiResponseDto.success("Importación completada", progress));
+    }
+
+    /**
+     * Endpoint para consultar el progreso confirmado de la importación de un archivo.
+     * @param file nombre del archivo en el directorio de importación
+     * @return respuesta con el progreso, o 404 si el archivo no se ha empezado a importar
+     */
+    @GetMapping("/import")
+    @Operation(
+        summary = "Progreso de importación",
+        description = "Devuelve las líneas confirmadas y los usuarios importados, omitidos y descartados de un archivo"
+    )
+    public ResponseEntity<ApiResponseDto> getImportProgress(
+        @Parameter(description = "Nombre del archivo", example = "legacy-users.csv")
+        @RequestParam String file) {
+        return userImportService.getProgress(file)
+            .map(progress -> ResponseEntity.ok(ApiResponseDto.success(
+                progress.isCompleted() ? "Importación completada" : "Importación incompleta", progress)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponseDto.error("Importación no encontrada")));
+    }
+
+    /**
+     * Endpoint para exportar todos los usuarios en formato NDJSON.
+     * Se escribe directamente en la respuesta mientras se leen las filas, sin acumular
+     * la lista en memoria ni depender del tiempo máximo de las peticiones asíncronas.
+     * @param response respuesta HTTP donde se escriben los usuarios
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Exportar usuarios",
+        description = "Devuelve todos los usuarios, uno por línea en formato JSON, leídos con un cursor de solo avance"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Usuarios exportados",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                examples = @ExampleObject(
+                    value = "{\"id\":1,\"username\":\"usuario1\",\"email\":\"usuario1@ejemplo.com\",\"createdAt\":\"2025-09-30T10:30:00\",\"isActive\":true}\n"
+                )
+            )
+        )
+    })
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        userExportService.exportUsers(response.getOutputStream());
+    }
+
+    /**
+     * Endpoint para reconstruir el filtro de nombres de usuario.
+     * Lo redimensiona según el número de usuarios actual para devolver la tasa de falsos
+     * positivos a su objetivo cuando la tabla ha crecido.
+     * @return respuesta con el número de usuarios incluidos en el filtro
+     */
+    @PostMapping("/username-filter/rebuild")
+    @Operation(
+        summary = "Reconstruir filtro de usuarios",
+        description = "Vuelve a construir el filtro de Bloom de nombres de usuario a partir de la tabla de usuarios"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Filtro reconstruido",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": true, \"message\": \"Filtro reconstruido\", \"data\": 1500}"
+                )
+            )
+        )
+    })
+    public ResponseEntity<ApiResponseDto> rebuildUsernameFilter() {
+        BloomFilter filter = usernameFilter.rebuild();
+
+        return ResponseEntity.ok(
+            ApiResponseDto.success("Filtro reconstruido", filter.getInsertions())
+        );
+    }
+
+    /**
+     * Endpoint para consultar el reparto de usuarios entre shards.
+     * @return respuesta con los grupos y usuarios de cada shard
+     */
+    @GetMapping("/shards")
+    @Operation(
+        summary = "Reparto de shards",
+        description = "Devuelve los grupos de usuarios asignados y los usuarios guardados en cada shard"
+    )
+    public ResponseEntity<ApiResponseDto> getShards() {
+        List<UserShardDto> shards = userShardRebalancer.getShards();
+
+        return ResponseEntity.ok(ApiResponseDto.success(shards.size() + " shards", shards));
+    }
+
+    /**
+     * Endpoint para repartir los grupos de usuarios de forma equilibrada entre los shards
+     * configurados, por ejemplo tras añadir uno. Las escrituras de usuarios de este nodo
+     * esperan mientras dura el movimiento.
+     * @return respuesta con el reparto resultante
+     */
+    @PostMapping("/shards/rebalance")
+    @Operation(
+        summary = "Reequilibrar shards",
+        description = "Mueve a su shard según el anillo de hash consistente los grupos de usuarios que están en otro"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Shards reequilibrados",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ApiResponseDto.class),
+                examples = @ExampleObject(
+                    value = "{\"success\": true, \"message\": \"256 grupos movidos, 312000 usuarios\", \"data\": ["
+                        + "{\"shard\": 0, \"buckets\": 512, \"users\": 624000}, {\"shard\": 1, \"buckets\": 512, \"users\": 626000}]}"
+                )
+            )
+        )
+    })
+    public ResponseEntity<ApiResponseDto> rebalanceShards() {
+        UserShardRebalancer.Result result = userShardRebalancer.rebalance();
+
+        return ResponseEntity.ok(ApiResponseDto.success(
+            result.movedBuckets() + " grupos movidos, " + result.movedUsers() + " usuarios",
+            userShardRebalancer.getShards()));
+    }
+
+    /**
+     * Endpoint para mover un grupo de usuarios a otro shard.
+     * @param bucket grupo a mover
+     * @param target shard de destino
+     * @return respuesta con el reparto resultante, o 400 si el grupo o el shard no existen
+     */
+    @PostMapping("/shards/buckets/{bucket}/move")
+    @Operation(
+        summary = "Mover grupo de usuarios",
+        description = "Copia los usuarios de un grupo al shard indicado, cambia su asignación y los borra del origen"
+    )
+    public ResponseEntity<ApiResponseDto> moveBucket(
+        @Parameter(description = "Grupo de usuarios", example = "17") @PathVariable int bucket,
+        @Parameter(description = "Shard de destino", example = "1") @RequestParam int target) {
+        UserShardRebalancer.Result result;
+        try {
+            result = userShardRebalancer.moveBucket(bucket, target);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        }
+
+        return ResponseEntity.ok(ApiResponseDto.success(
+            result.movedBuckets() + " grupos movidos, " + result.movedUsers() + " usuarios",
+            userShardRebalancer.getShards()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con el token de autenticación emitido en el login.
+ */
+@Schema(description = "Token de autenticación emitido tras un login exitoso")
+public class AuthTokenDto {
+
+    @Schema(description = "Token firmado para la cabecera Authorization", example = "k1.AQAAAAAAAAAB...Q.sig")
+    private String token;
+
+    @Schema(description = "Tipo de token", example = "Bearer")
+    private String tokenType = "Bearer";
+
+    @Schema(description = "Nombre de usuario autenticado", example = "usuario123")
+    private String username;
+
+    @Schema(description = "Segundos hasta la expiración del token", example = "3600")
+    private long expiresIn;
+
+    public AuthTokenDto() {}
+
+    public AuthTokenDto(String token, String username, long expiresIn) {
+        this.token = token;
+        this.username = username;
+        this.expiresIn = expiresIn;
+    }
+
+    // Getters y Setters
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para el registro masivo de usuarios.
+ */
+@Schema(description = "Usuarios a registrar en una sola petición")
+public class BulkRegistrationDto {
+
+    /** Número máximo de usuarios por petición. */
+    public static final int MAX_USERS = 10000;
+
+    @NotEmpty(message = "La lista de usuarios es obligatoria")
+    @Size(max = MAX_USERS, message = "No se pueden registrar más de " + MAX_USERS + " usuarios por petición")
+    @Schema(description = "Datos de cada usuario, con las mismas validaciones que el registro individual")
+    private List<@Valid UserRegistrationDto> users;
+
+    public BulkRegistrationDto() {}
+
+    public BulkRegistrationDto(List<UserRegistrationDto> users) {
+        this.users = users;
+    }
+
+    // Getters y Setters
+    public List<UserRegistrationDto> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserRegistrationDto> users) {
+        this.users = users;
+    }
+}
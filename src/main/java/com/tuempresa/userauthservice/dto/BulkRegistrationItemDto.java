@@ -0,0 +1,77 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con el resultado del registro de un usuario dentro de un registro masivo.
+ */
+@Schema(description = "Resultado del registro de un usuario del lote")
+public class BulkRegistrationItemDto {
+
+    /** Usuario registrado. */
+    public static final String REGISTERED = "REGISTERED";
+
+    /** Nombre de usuario ya existente. */
+    public static final String USERNAME_TAKEN = "USERNAME_TAKEN";
+
+    /** Email ya registrado. */
+    public static final String EMAIL_TAKEN = "EMAIL_TAKEN";
+
+    /** Nombre de usuario o email repetido en la misma petición. */
+    public static final String DUPLICATE_IN_REQUEST = "DUPLICATE_IN_REQUEST";
+
+    @Schema(description = "Posición del usuario en la petición", example = "0")
+    private int index;
+
+    @Schema(description = "Nombre de usuario", example = "usuario123")
+    private String username;
+
+    @Schema(description = "Resultado del registro",
+        allowableValues = {REGISTERED, USERNAME_TAKEN, EMAIL_TAKEN, DUPLICATE_IN_REQUEST}, example = REGISTERED)
+    private String status;
+
+    @Schema(description = "Mensaje descriptivo", example = "Usuario registrado exitosamente")
+    private String message;
+
+    public BulkRegistrationItemDto() {}
+
+    public BulkRegistrationItemDto(int index, String username, String status, String message) {
+        this.index = index;
+        this.username = username;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters y Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
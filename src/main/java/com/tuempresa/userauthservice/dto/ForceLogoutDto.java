@@ -0,0 +1,38 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para el logout forzado de varios usuarios.
+ */
+@Schema(description = "Usuarios cuya sesión se cierra de forma forzada")
+public class ForceLogoutDto {
+
+    /** Número máximo de usuarios por petición. */
+    public static final int MAX_USERS = 10000;
+
+    @NotEmpty(message = "La lista de usuarios es obligatoria")
+    @Size(max = MAX_USERS, message = "No se pueden desactivar más de " + MAX_USERS + " usuarios por petición")
+    @Schema(description = "Nombres de usuario a desactivar", example = "[\"usuario1\", \"usuario2\"]")
+    private List<@NotBlank(message = "El nombre de usuario es obligatorio") String> usernames;
+
+    public ForceLogoutDto() {}
+
+    public ForceLogoutDto(List<String> usernames) {
+        this.usernames = usernames;
+    }
+
+    // Getters y Setters
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
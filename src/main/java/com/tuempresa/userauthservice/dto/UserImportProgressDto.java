@@ -0,0 +1,102 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el progreso de la importación de un archivo de usuarios.
+ */
+@Schema(description = "Progreso de una importación de usuarios")
+public class UserImportProgressDto {
+
+    @Schema(description = "Archivo importado", example = "legacy-users.csv")
+    private String source;
+
+    @Schema(description = "Líneas de datos procesadas y confirmadas", example = "250000")
+    private long lines;
+
+    @Schema(description = "Usuarios insertados", example = "248500")
+    private long imported;
+
+    @Schema(description = "Usuarios omitidos por existir ya o estar repetidos en el archivo", example = "1450")
+    private long skipped;
+
+    @Schema(description = "Líneas descartadas por datos incompletos o hash no admitido", example = "50")
+    private long rejected;
+
+    @Schema(description = "Si se ha procesado el archivo completo", example = "false")
+    private boolean completed;
+
+    @Schema(description = "Fecha del último bloque confirmado", example = "2025-09-30T10:30:00")
+    private LocalDateTime updatedAt;
+
+    public UserImportProgressDto() {}
+
+    public UserImportProgressDto(String source, long lines, long imported, long skipped, long rejected,
+                                 boolean completed, LocalDateTime updatedAt) {
+        this.source = source;
+        this.lines = lines;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.rejected = rejected;
+        this.completed = completed;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters y Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
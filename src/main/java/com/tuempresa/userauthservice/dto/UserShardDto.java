@@ -0,0 +1,52 @@
+package com.tuempresa.userauthservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con el reparto de usuarios de un shard.
+ */
+@Schema(description = "Grupos y usuarios de un shard")
+public class UserShardDto {
+
+    @Schema(description = "Índice del shard", example = "1")
+    private int shard;
+
+    @Schema(description = "Grupos de usuarios asignados al shard", example = "341")
+    private int buckets;
+
+    @Schema(description = "Usuarios guardados en el shard", example = "1250000")
+    private long users;
+
+    public UserShardDto() {}
+
+    public UserShardDto(int shard, int buckets, long users) {
+        this.shard = shard;
+        this.buckets = buckets;
+        this.users = users;
+    }
+
+    // Getters y Setters
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public void setUsers(long users) {
+        this.users = users;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tuempresa.userauthservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Contador compartido de intentos de login fallidos por nombre de usuario normalizado.
+ * Cada nodo acumula sus intentos en memoria y los suma a esta tabla por lotes.
+ */
+@Entity
+@Table(
+    name = "login_attempts",
+    indexes = {
+        // Lectura periódica de los contadores dentro de la ventana de bloqueo
+        @Index(name = "idx_login_attempts_last_failure_at", columnList = "last_failure_at")
+    }
+)
+public class LoginAttempt {
+
+    @Id
+    private String username;
+
+    @Column(nullable = false)
+    private int failures;
+
+    @Column(name = "last_failure_at", nullable = false)
+    private LocalDateTime lastFailureAt;
+
+    public LoginAttempt() {
+    }
+
+    public LoginAttempt(String username, int failures, LocalDateTime lastFailureAt) {
+        this.username = username;
+        this.failures = failures;
+        this.lastFailureAt = lastFailureAt;
+    }
+
+    // Getters y Setters
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public void setFailures(int failures) {
+        this.failures = failures;
+    }
+
+    public LocalDateTime getLastFailureAt() {
+        return lastFailureAt;
+    }
+
+    public void setLastFailureAt(LocalDateTime lastFailureAt) {
+        this.lastFailureAt = lastFailureAt;
+    }
+}
@@ -1,28 +1,59 @@
 package com.tuempresa.userauthservice.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+
 import java.time.LocalDateTime;
 
 /**
  * Entidad que representa un usuario en el sistema.
+ * <p>
+ * El nombre de usuario y el email se guardan tal como se registraron y, además, en la forma de
+ * {@link UsernameNormalizer}, que se calcula al asignarlos. Las búsquedas y las restricciones
+ * únicas usan las columnas normalizadas, de modo que "Bob" y "bob" son el mismo usuario y la
+ * búsqueda sin distinguir mayúsculas sigue usando el índice.
  */
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = {
+        @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username_normalized"),
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email_normalized")
+    },
+    indexes = {
+        // Paginación por clave del listado de usuarios filtrado por estado o fecha de creación
+        @Index(name = "idx_users_active_id", columnList = "is_active, id"),
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id")
+    }
+)
 public class User {
 
+    /** Nombre de la restricción única sobre el nombre de usuario normalizado. */
+    public static final String UK_USERNAME = "uk_users_username";
+
+    /** Nombre de la restricción única sobre el email normalizado. */
+    public static final String UK_EMAIL = "uk_users_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = UserIdGenerator.SEQUENCE_NAME)
+    @GenericGenerator(name = UserIdGenerator.SEQUENCE_NAME, type = UserIdGenerator.class)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
+    @Column(name = "username_normalized", nullable = false)
+    private String usernameNormalized;
+
     @Column(nullable = false)
     private String password;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
+    @Column(name = "email_normalized", nullable = false)
+    private String emailNormalized;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -36,9 +67,9 @@ public class User {
 
     public User(String username, String password, String email) {
         this();
-        this.username = username;
+        setUsername(username);
         this.password = password;
-        this.email = email;
+        setEmail(email);
     }
 
     // Getters y Setters
@@ -56,6 +87,11 @@ public class User {
 
     public void setUsername(String username) {
         this.username = username;
+        this.usernameNormalized = username != null ? UsernameNormalizer.normalize(username) : null;
+    }
+
+    public String getUsernameNormalized() {
+        return usernameNormalized;
     }
 
     public String getPassword() {
@@ -72,6 +108,11 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalized = email != null ? UsernameNormalizer.normalizeEmail(email) : null;
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -0,0 +1,40 @@
+package com.tuempresa.userauthservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de un email normalizado para un usuario con la tabla de usuarios particionada.
+ * Esta tabla, en el shard 0, garantiza con su clave primaria que un email no se repite
+ * entre shards; cada shard solo lo garantiza entre sus propios usuarios.
+ */
+@Entity
+@Table(name = "user_email_claims")
+public class UserEmailClaim {
+
+    @Id
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    @Column(name = "username_normalized", nullable = false)
+    private String usernameNormalized;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public UserEmailClaim() {
+    }
+
+    // Getters
+    public String getEmailNormalized() {
+        return emailNormalized;
+    }
+
+    public String getUsernameNormalized() {
+        return usernameNormalized;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tuempresa.userauthservice.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generador de ids de {@link User} sobre la secuencia {@value #SEQUENCE_NAME} con el
+ * optimizador pooled-lo.
+ * <p>
+ * Cada valor de la secuencia reserva un bloque de ids consecutivos que empieza en ese
+ * valor, de modo que solo se consulta la secuencia una vez por bloque y Hibernate puede
+ * agrupar los INSERT por lotes. El tamaño del bloque se lee de la propiedad
+ * {@value #ALLOCATION_SIZE_SETTING} y debe coincidir con el incremento de la secuencia.
+ */
+public class UserIdGenerator extends SequenceStyleGenerator {
+
+    /** Nombre de la secuencia de ids de usuario. */
+    public static final String SEQUENCE_NAME = "users_seq";
+
+    /** Propiedad de Hibernate con el número de ids reservados por valor de la secuencia. */
+    public static final String ALLOCATION_SIZE_SETTING = "auth.users.id.allocation-size";
+
+    /** Tamaño de bloque por defecto. */
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+            serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+
+        parameters.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
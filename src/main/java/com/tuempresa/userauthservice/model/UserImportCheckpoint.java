@@ -0,0 +1,124 @@
+package com.tuempresa.userauthservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Punto de reanudación de la importación de un archivo de usuarios.
+ * Se guarda en la misma transacción que cada bloque de usuarios insertado, de modo que
+ * una importación interrumpida continúa en la primera línea no confirmada. Guarda también el
+ * tamaño y la fecha de modificación del archivo, para no reanudar sobre un contenido distinto.
+ */
+@Entity
+@Table(name = "user_import_checkpoints")
+public class UserImportCheckpoint {
+
+    @Id
+    private String source;
+
+    /** Líneas de datos del archivo ya procesadas (sin contar la cabecera CSV). */
+    @Column(nullable = false)
+    private long lines;
+
+    @Column(nullable = false)
+    private long imported;
+
+    /** Usuarios omitidos por existir ya o por estar repetidos en el archivo. */
+    @Column(nullable = false)
+    private long skipped;
+
+    /** Líneas descartadas por campos ausentes o hash no admitido. */
+    @Column(nullable = false)
+    private long rejected;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** Tamaño en bytes del archivo importado. */
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    /** Fecha de modificación del archivo importado, en milisegundos desde epoch. */
+    @Column(name = "file_modified_millis")
+    private Long fileModifiedMillis;
+
+    public UserImportCheckpoint() {
+    }
+
+    public UserImportCheckpoint(String source, long fileSize, long fileModifiedMillis) {
+        this.source = source;
+        this.fileSize = fileSize;
+        this.fileModifiedMillis = fileModifiedMillis;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Indica si el punto de reanudación corresponde al archivo en su estado actual.
+     * @param fileSize tamaño actual del archivo en bytes
+     * @param fileModifiedMillis fecha de modificación actual, en milisegundos desde epoch
+     * @return true si el tamaño y la fecha coinciden con los del archivo importado
+     */
+    public boolean isSameFile(long fileSize, long fileModifiedMillis) {
+        return this.fileSize != null && this.fileSize == fileSize
+            && this.fileModifiedMillis != null && this.fileModifiedMillis == fileModifiedMillis;
+    }
+
+    /**
+     * Crea el punto de reanudación tras confirmar un bloque más.
+     * @param lines líneas de datos procesadas en total
+     * @param imported usuarios insertados en el bloque
+     * @param skipped usuarios omitidos en el bloque
+     * @param rejected líneas descartadas en el bloque
+     * @param completed true si el bloque es el último del archivo
+     * @return nuevo punto de reanudación
+     */
+    public UserImportCheckpoint advance(long lines, long imported, long skipped, long rejected, boolean completed) {
+        UserImportCheckpoint next = new UserImportCheckpoint(source, fileSize, fileModifiedMillis);
+        next.lines = lines;
+        next.imported = this.imported + imported;
+        next.skipped = this.skipped + skipped;
+        next.rejected = this.rejected + rejected;
+        next.completed = completed;
+        return next;
+    }
+
+    // Getters
+    public String getSource() {
+        return source;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public Long getFileModifiedMillis() {
+        return fileModifiedMillis;
+    }
+}
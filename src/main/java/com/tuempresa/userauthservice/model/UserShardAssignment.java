@@ -0,0 +1,45 @@
+package com.tuempresa.userauthservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Shard en el que están los usuarios de un grupo.
+ * Los nombres de usuario se reparten en un número fijo de grupos por hash; esta tabla, en el
+ * shard 0, indica qué base de datos guarda cada grupo y solo cambia al terminar de moverlo.
+ */
+@Entity
+@Table(name = "user_shard_assignments")
+public class UserShardAssignment {
+
+    @Id
+    private Integer bucket;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public UserShardAssignment() {
+    }
+
+    public UserShardAssignment(int bucket, int shard) {
+        this.bucket = bucket;
+        this.shard = shard;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Integer getBucket() {
+        return bucket;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
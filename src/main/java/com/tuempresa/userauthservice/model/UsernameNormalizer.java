@@ -0,0 +1,34 @@
+package com.tuempresa.userauthservice.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Forma canónica de los nombres de usuario y emails para claves de caché y búsquedas.
+ * Elimina espacios en los extremos, aplica la normalización Unicode NFKC y pasa a minúsculas.
+ * Es también el valor de las columnas {@code username_normalized} y {@code email_normalized},
+ * así que cambiarla exige recalcular esas columnas.
+ */
+public final class UsernameNormalizer {
+
+    private UsernameNormalizer() {
+    }
+
+    /**
+     * Normaliza un nombre de usuario.
+     * @param username nombre de usuario tal como se recibió
+     * @return nombre de usuario normalizado
+     */
+    public static String normalize(String username) {
+        return Normalizer.normalize(username.strip(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza un email.
+     * @param email email tal como se recibió
+     * @return email normalizado
+     */
+    public static String normalizeEmail(String email) {
+        return normalize(email);
+    }
+}
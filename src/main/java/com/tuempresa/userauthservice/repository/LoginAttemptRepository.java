@@ -0,0 +1,39 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.model.LoginAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de los contadores compartidos de intentos de login fallidos.
+ * Los incrementos y reinicios se aplican por lotes con JDBC desde {@code LoginAttemptCounter}.
+ */
+@Repository
+public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, String> {
+
+    /**
+     * Obtiene los contadores con fallos dentro de la ventana de bloqueo.
+     * @param since inicio de la ventana
+     * @return contadores vigentes
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM LoginAttempt a WHERE a.lastFailureAt >= :since")
+    List<LoginAttempt> findActiveSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Elimina los contadores cuya ventana de bloqueo ha vencido.
+     * @param before fin de la ventana
+     * @return filas borradas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LoginAttempt a WHERE a.lastFailureAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
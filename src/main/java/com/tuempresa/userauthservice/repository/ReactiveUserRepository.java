@@ -0,0 +1,195 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UserIdGenerator;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acceso reactivo a la tabla de usuarios con R2DBC, para el perfil {@code reactive}.
+ * <p>
+ * Reproduce en SQL las consultas de {@link UserRepository} que usa el API: las mismas
+ * proyecciones, las escrituras de una sola sentencia y la paginación por clave con solo
+ * las condiciones de los filtros presentes. Como allí, las búsquedas reciben el nombre de
+ * usuario ya normalizado. El esquema lo sigue creando JPA.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository {
+
+    private static final String USER_COLUMNS = "id, username, password, email, created_at, is_active";
+
+    private static final String INSERT_COLUMNS = USER_COLUMNS + ", username_normalized, email_normalized";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Inserta un usuario con un único INSERT, tomando el id de la secuencia de
+     * {@link UserIdGenerator}. Cada inserción consume un bloque pooled-lo completo, por lo
+     * que los ids no se solapan con los asignados por Hibernate o {@link UserIdAllocator}.
+     * @param user usuario sin id
+     * @return usuario con el id asignado; error con
+     *         {@link org.springframework.dao.DataIntegrityViolationException} si viola una restricción única
+     */
+    public Mono<User> insert(User user) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR " + UserIdGenerator.SEQUENCE_NAME)
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one()
+            .flatMap(id -> databaseClient.sql("INSERT INTO users (" + INSERT_COLUMNS + ") "
+                    + "VALUES (:id, :username, :password, :email, :createdAt, :isActive, :usernameNormalized, :emailNormalized)")
+                .bind("id", id)
+                .bind("username", user.getUsername())
+                .bind("password", user.getPassword())
+                .bind("email", user.getEmail())
+                .bind("createdAt", user.getCreatedAt())
+                .bind("isActive", user.getIsActive())
+                .bind("usernameNormalized", user.getUsernameNormalized())
+                .bind("emailNormalized", user.getEmailNormalized())
+                .fetch()
+                .rowsUpdated()
+                .map(inserted -> {
+                    user.setId(id);
+                    return user;
+                }));
+    }
+
+    /**
+     * Busca un usuario por nombre de usuario.
+     * @param username nombre de usuario normalizado
+     * @return usuario si existe
+     */
+    public Mono<User> findByUsername(String username) {
+        return databaseClient.sql("SELECT " + USER_COLUMNS + " FROM users WHERE username_normalized = :username")
+            .bind("username", username)
+            .map((row, metadata) -> toUser(row))
+            .one();
+    }
+
+    /**
+     * Obtiene las credenciales de un usuario sin leer el resto de columnas.
+     * @param username nombre de usuario normalizado
+     * @return id, hash de contraseña y estado si existe
+     */
+    public Mono<UserCredentials> findCredentialsByUsername(String username) {
+        return databaseClient.sql("SELECT id, password, is_active FROM users WHERE username_normalized = :username")
+            .bind("username", username)
+            .map((row, metadata) -> new UserCredentials(
+                row.get("id", Long.class), row.get("password", String.class), row.get("is_active", Boolean.class)))
+            .one();
+    }
+
+    /**
+     * Desactiva un usuario con un único UPDATE.
+     * @param username nombre de usuario normalizado
+     * @return filas modificadas (0 si no existe o ya estaba inactivo)
+     */
+    public Mono<Long> deactivateByUsername(String username) {
+        return databaseClient.sql("UPDATE users SET is_active = FALSE WHERE username_normalized = :username AND is_active = TRUE")
+            .bind("username", username)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Desactiva varios usuarios con un único UPDATE.
+     * @param usernames nombres de usuario normalizados
+     * @return filas modificadas (solo usuarios que estaban activos)
+     */
+    public Mono<Long> deactivateByUsernameIn(Collection<String> usernames) {
+        return databaseClient.sql("UPDATE users SET is_active = FALSE WHERE username_normalized IN (:usernames) AND is_active = TRUE")
+            .bind("usernames", usernames)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Sustituye el hash de la contraseña con un único UPDATE.
+     * @param id id del usuario
+     * @param password nuevo hash de la contraseña
+     * @return filas modificadas
+     */
+    public Mono<Long> updatePassword(Long id, String password) {
+        return databaseClient.sql("UPDATE users SET password = :password WHERE id = :id")
+            .bind("password", password)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Página de usuarios con paginación por clave; equivale a {@link UserRepositoryCustom#findPage}.
+     * @param active filtro de estado, null para no filtrar
+     * @param createdFrom inicio inclusivo del rango de creación, null para no filtrar
+     * @param createdTo fin exclusivo del rango de creación, null para no filtrar
+     * @param afterCreatedAt fecha de creación del último usuario de la página anterior
+     * @param afterId id del último usuario de la página anterior, null para la primera
+     * @param limit número máximo de usuarios
+     * @return usuarios ordenados por fecha de creación e id, o solo por id
+     */
+    public Flux<UserInfoDto> findPage(Boolean active, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                      LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        boolean byCreatedAt = createdFrom != null || createdTo != null;
+        StringBuilder sql = new StringBuilder("SELECT id, username, email, created_at, is_active FROM users WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (active != null) {
+            sql.append(" AND is_active = :active");
+            parameters.put("active", active);
+        }
+        if (createdFrom != null) {
+            sql.append(" AND created_at >= :createdFrom");
+            parameters.put("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            sql.append(" AND created_at < :createdTo");
+            parameters.put("createdTo", createdTo);
+        }
+        if (afterId != null) {
+            sql.append(byCreatedAt
+                ? " AND (created_at > :afterCreatedAt OR (created_at = :afterCreatedAt AND id > :afterId))"
+                : " AND id > :afterId");
+            parameters.put("afterId", afterId);
+            if (byCreatedAt) {
+                parameters.put("afterCreatedAt", afterCreatedAt);
+            }
+        }
+        sql.append(byCreatedAt ? " ORDER BY created_at, id" : " ORDER BY id");
+        sql.append(" LIMIT :limit");
+        parameters.put("limit", limit);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+
+        return spec
+            .map((row, metadata) -> new UserInfoDto(
+                row.get("id", Long.class),
+                row.get("username", String.class),
+                row.get("email", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("is_active", Boolean.class)))
+            .all();
+    }
+
+    private static User toUser(Row row) {
+        User user = new User(row.get("username", String.class), row.get("password", String.class),
+            row.get("email", String.class));
+        user.setId(row.get("id", Long.class));
+        user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        user.setIsActive(row.get("is_active", Boolean.class));
+        return user;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tuempresa.userauthservice.repository;
+
+/**
+ * Proyección mínima de un usuario para el login: solo lo necesario para verificar la
+ * contraseña, sin cargar la entidad en el contexto de persistencia.
+ * @param id id del usuario
+ * @param password hash de la contraseña
+ * @param isActive estado del usuario
+ */
+public record UserCredentials(Long id, String password, Boolean isActive) {
+}
@@ -0,0 +1,52 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.model.UserIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva ids de usuario para las inserciones JDBC por lotes (registro masivo e importación).
+ * <p>
+ * Usa la misma secuencia y el mismo esquema pooled-lo que {@link UserIdGenerator}: cada
+ * valor de la secuencia es el primero de un bloque de {@code auth.users.id.allocation-size}
+ * ids, de modo que los ids reservados aquí nunca coinciden con los que asigna Hibernate.
+ * Todos los bloques de un lote se obtienen en un único viaje a la base de datos.
+ */
+@Component
+public class UserIdAllocator {
+
+    private static final String NEXT_BLOCKS_SQL =
+        "SELECT NEXT VALUE FOR " + UserIdGenerator.SEQUENCE_NAME + " FROM SYSTEM_RANGE(1, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.users.id.allocation-size:" + UserIdGenerator.DEFAULT_ALLOCATION_SIZE + "}")
+    private int allocationSize;
+
+    /**
+     * Reserva ids para un lote de usuarios.
+     * @param count número de ids
+     * @return ids distintos, en orden creciente dentro de cada bloque
+     */
+    public List<Long> allocate(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        if (count == 0) {
+            return ids;
+        }
+
+        int blocks = (count + allocationSize - 1) / allocationSize;
+        for (Long first : jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, blocks)) {
+            for (int i = 0; i < allocationSize && ids.size() < count; i++) {
+                ids.add(first + i);
+            }
+        }
+
+        return ids;
+    }
+}
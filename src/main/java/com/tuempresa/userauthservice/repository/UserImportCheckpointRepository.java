@@ -0,0 +1,12 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.model.UserImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de los puntos de reanudación de las importaciones de usuarios.
+ */
+@Repository
+public interface UserImportCheckpointRepository extends JpaRepository<UserImportCheckpoint, String> {
+}
@@ -1,42 +1,119 @@
 package com.tuempresa.userauthservice.repository;
 
 import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repositorio para el acceso a datos de usuarios.
+ * <p>
+ * Las consultas por nombre de usuario o email comparan las columnas normalizadas, que tienen
+ * índice único: los parámetros deben llegar ya normalizados con {@link UsernameNormalizer}.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     /**
      * Busca un usuario por nombre de usuario.
-     * @param username nombre de usuario
+     * @param username nombre de usuario normalizado
      * @return Optional con el usuario si existe
      */
-    Optional<User> findByUsername(String username);
+    @Transactional(readOnly = true)
+    @Query("SELECT u FROM User u WHERE u.usernameNormalized = :username")
+    Optional<User> findByUsername(@Param("username") String username);
+
+    /**
+     * Obtiene las credenciales de un usuario sin cargar la entidad.
+     * @param username nombre de usuario normalizado
+     * @return Optional con id, hash de contraseña y estado si existe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.tuempresa.userauthservice.repository.UserCredentials(u.id, u.password, u.isActive) "
+        + "FROM User u WHERE u.usernameNormalized = :username")
+    Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
 
     /**
      * Busca un usuario por email.
-     * @param email email del usuario
+     * @param email email del usuario normalizado
      * @return Optional con el usuario si existe
      */
-    Optional<User> findByEmail(String email);
+    @Transactional(readOnly = true)
+    @Query("SELECT u FROM User u WHERE u.emailNormalized = :email")
+    Optional<User> findByEmail(@Param("email") String email);
 
     /**
      * Verifica si existe un usuario con el nombre de usuario dado.
-     * @param username nombre de usuario
+     * @param username nombre de usuario normalizado
      * @return true si existe, false en caso contrario
      */
-    boolean existsByUsername(String username);
+    @Transactional(readOnly = true)
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.usernameNormalized = :username")
+    boolean existsByUsername(@Param("username") String username);
 
     /**
      * Verifica si existe un usuario con el email dado.
-     * @param email email del usuario
+     * @param email email del usuario normalizado
      * @return true si existe, false en caso contrario
      */
-    boolean existsByEmail(String email);
+    @Transactional(readOnly = true)
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.emailNormalized = :email")
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * Obtiene cuáles de los nombres de usuario dados ya existen, con una única consulta.
+     * @param usernames nombres de usuario normalizados a comprobar
+     * @return nombres de usuario normalizados existentes
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.usernameNormalized FROM User u WHERE u.usernameNormalized IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Obtiene cuáles de los emails dados ya están registrados, con una única consulta.
+     * @param emails emails normalizados a comprobar
+     * @return emails normalizados existentes
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.emailNormalized FROM User u WHERE u.emailNormalized IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Desactiva un usuario con un único UPDATE, sin cargar la entidad.
+     * @param username nombre de usuario normalizado
+     * @return filas modificadas (0 si no existe o ya estaba inactivo)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.isActive = false WHERE u.usernameNormalized = :username AND u.isActive = true")
+    int deactivateByUsername(@Param("username") String username);
+
+    /**
+     * Desactiva varios usuarios con un único UPDATE, sin cargar las entidades.
+     * @param usernames nombres de usuario normalizados
+     * @return filas modificadas (solo usuarios que estaban activos)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.isActive = false WHERE u.usernameNormalized IN :usernames AND u.isActive = true")
+    int deactivateByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Sustituye el hash de la contraseña con un único UPDATE, sin cargar la entidad.
+     * @param id id del usuario
+     * @param password nuevo hash de la contraseña
+     * @return filas modificadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
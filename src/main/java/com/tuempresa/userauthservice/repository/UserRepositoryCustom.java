@@ -0,0 +1,28 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas de usuarios que requieren construir el JPQL según los filtros recibidos.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Obtiene una página de usuarios con paginación por clave (keyset), proyectada
+     * directamente a {@link UserInfoDto} sin cargar entidades.
+     * Sin filtro de fecha se ordena por {@code id}; con filtro de fecha se ordena por
+     * {@code (createdAt, id)}, de modo que cada página es un rango de índice.
+     * @param active filtro de estado, null para no filtrar
+     * @param createdFrom inicio inclusivo del rango de creación, null para no filtrar
+     * @param createdTo fin exclusivo del rango de creación, null para no filtrar
+     * @param afterCreatedAt fecha de creación del último usuario de la página anterior
+     * @param afterId id del último usuario de la página anterior, null en la primera página
+     * @param limit número máximo de usuarios
+     * @return usuarios de la página
+     */
+    List<UserInfoDto> findPage(Boolean active, LocalDateTime createdFrom, LocalDateTime createdTo,
+                        LocalDateTime afterCreatedAt, Long afterId, int limit);
+}
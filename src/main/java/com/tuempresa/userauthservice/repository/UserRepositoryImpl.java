@@ -0,0 +1,67 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de {@link UserRepositoryCustom}.
+ * Solo se añaden al JPQL las condiciones de los filtros presentes, para que la base de
+ * datos pueda elegir el índice adecuado en lugar de evaluar condiciones {@code :param IS NULL}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserInfoDto> findPage(Boolean active, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                      LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        boolean byCreatedAt = createdFrom != null || createdTo != null;
+        StringBuilder jpql = new StringBuilder("SELECT new com.tuempresa.userauthservice.dto.UserInfoDto("
+            + "u.id, u.username, u.email, u.createdAt, u.isActive) FROM User u WHERE 1 = 1");
+
+        if (active != null) {
+            jpql.append(" AND u.isActive = :active");
+        }
+        if (createdFrom != null) {
+            jpql.append(" AND u.createdAt >= :createdFrom");
+        }
+        if (createdTo != null) {
+            jpql.append(" AND u.createdAt < :createdTo");
+        }
+        if (afterId != null) {
+            jpql.append(byCreatedAt
+                ? " AND (u.createdAt > :afterCreatedAt OR (u.createdAt = :afterCreatedAt AND u.id > :afterId))"
+                : " AND u.id > :afterId");
+        }
+        jpql.append(byCreatedAt ? " ORDER BY u.createdAt, u.id" : " ORDER BY u.id");
+
+        TypedQuery<UserInfoDto> query = entityManager.createQuery(jpql.toString(), UserInfoDto.class)
+            .setMaxResults(limit);
+
+        if (active != null) {
+            query.setParameter("active", active);
+        }
+        if (createdFrom != null) {
+            query.setParameter("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            query.setParameter("createdTo", createdTo);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (byCreatedAt) {
+                query.setParameter("afterCreatedAt", afterCreatedAt);
+            }
+        }
+
+        return query.getResultList();
+    }
+}
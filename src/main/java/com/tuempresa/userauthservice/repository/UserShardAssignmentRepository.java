@@ -0,0 +1,12 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.model.UserShardAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de la asignación de grupos de usuarios a shards.
+ */
+@Repository
+public interface UserShardAssignmentRepository extends JpaRepository<UserShardAssignment, Integer> {
+}
@@ -0,0 +1,109 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Límites de tasa de login y registro, por nombre de usuario y por IP de origen.
+ * <p>
+ * Se comprueban antes de cualquier hash de contraseña o acceso a base de datos. Cada
+ * combinación de endpoint y clave tiene su propio {@link TokenBucketLimiter}, configurable
+ * en {@code auth.rate-limit.<endpoint>.<clave>.*}. Se consulta primero el límite por IP,
+ * para que un cliente ya limitado no consuma los tokens de los usuarios que prueba.
+ */
+@Component
+public class AuthRateLimiter implements MeterBinder {
+
+    private final TokenBucketLimiter loginByIp;
+
+    private final TokenBucketLimiter loginByUsername;
+
+    private final TokenBucketLimiter registerByIp;
+
+    private final TokenBucketLimiter registerByUsername;
+
+    public AuthRateLimiter(
+        @Value("${auth.rate-limit.login.ip.capacity:20}") int loginIpCapacity,
+        @Value("${auth.rate-limit.login.ip.refill-period-seconds:60}") long loginIpPeriod,
+        @Value("${auth.rate-limit.login.username.capacity:5}") int loginUsernameCapacity,
+        @Value("${auth.rate-limit.login.username.refill-period-seconds:60}") long loginUsernamePeriod,
+        @Value("${auth.rate-limit.register.ip.capacity:5}") int registerIpCapacity,
+        @Value("${auth.rate-limit.register.ip.refill-period-seconds:600}") long registerIpPeriod,
+        @Value("${auth.rate-limit.register.username.capacity:3}") int registerUsernameCapacity,
+        @Value("${auth.rate-limit.register.username.refill-period-seconds:60}") long registerUsernamePeriod,
+        @Value("${auth.rate-limit.stripes:64}") int stripes,
+        @Value("${auth.rate-limit.max-keys:65536}") int maxKeys) {
+        this.loginByIp = new TokenBucketLimiter(loginIpCapacity, loginIpPeriod * 1000, stripes, maxKeys);
+        this.loginByUsername = new TokenBucketLimiter(loginUsernameCapacity, loginUsernamePeriod * 1000, stripes, maxKeys);
+        this.registerByIp = new TokenBucketLimiter(registerIpCapacity, registerIpPeriod * 1000, stripes, maxKeys);
+        this.registerByUsername = new TokenBucketLimiter(registerUsernameCapacity, registerUsernamePeriod * 1000, stripes, maxKeys);
+    }
+
+    /**
+     * Consume un intento de login.
+     * @param username nombre de usuario recibido
+     * @param clientIp IP de origen
+     * @return 0 si se admite; si no, milisegundos hasta el siguiente intento permitido
+     */
+    public long tryAcquireLogin(String username, String clientIp) {
+        return tryAcquire(loginByIp, loginByUsername, username, clientIp);
+    }
+
+    /**
+     * Consume un intento de registro.
+     * @param username nombre de usuario recibido
+     * @param clientIp IP de origen
+     * @return 0 si se admite; si no, milisegundos hasta el siguiente intento permitido
+     */
+    public long tryAcquireRegister(String username, String clientIp) {
+        return tryAcquire(registerByIp, registerByUsername, username, clientIp);
+    }
+
+    /**
+     * Desaloja los cubos de las claves sin actividad reciente.
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        limiters().values().forEach(TokenBucketLimiter::evictIdle);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limiters().forEach((name, limiter) -> {
+            FunctionCounter.builder("auth.ratelimit.rejected", limiter, TokenBucketLimiter::getRejectedCount)
+                .description("Peticiones rechazadas por límite de tasa")
+                .tag("limit", name)
+                .register(registry);
+            Gauge.builder("auth.ratelimit.keys", limiter, TokenBucketLimiter::size)
+                .description("Claves con cubo de tokens en memoria")
+                .tag("limit", name)
+                .register(registry);
+        });
+    }
+
+    private static long tryAcquire(TokenBucketLimiter byIp, TokenBucketLimiter byUsername,
+                                   String username, String clientIp) {
+        long wait = byIp.tryAcquire(clientIp);
+        if (wait > 0) {
+            return wait;
+        }
+        return byUsername.tryAcquire(UsernameNormalizer.normalize(username));
+    }
+
+    private Map<String, TokenBucketLimiter> limiters() {
+        return Map.of(
+            "login.ip", loginByIp,
+            "login.username", loginByUsername,
+            "register.ip", registerByIp,
+            "register.username", registerByUsername
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.tuempresa.userauthservice.service;
+
+/**
+ * Resultado de un intento de autenticación: el usuario autenticado o el motivo del rechazo.
+ * <p>
+ * Los rechazos son resultados habituales, no errores, y se devuelven como constantes sin
+ * lanzar excepciones; estas quedan para los fallos reales, como la saturación del pool de hashing.
+ */
+public sealed interface AuthResult permits AuthenticatedUser, AuthResult.Failure {
+
+    /**
+     * Motivos de rechazo de un login.
+     */
+    enum Failure implements AuthResult {
+
+        USER_NOT_FOUND("Usuario no encontrado"),
+
+        INVALID_CREDENTIALS("Credenciales inválidas"),
+
+        INACTIVE_USER("Usuario inactivo"),
+
+        LOCKED("Cuenta bloqueada temporalmente por intentos fallidos");
+
+        private final String message;
+
+        Failure(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Mensaje para el cliente.
+         * @return mensaje de error
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tuempresa.userauthservice.service;
+
+/**
+ * Sesión de autenticación almacenada en un {@link SessionStore}.
+ * Solo el instante del último acceso es mutable, para renovar la expiración sin bloqueos.
+ */
+public final class AuthSession {
+
+    private final String id;
+
+    private final Long userId;
+
+    private final String username;
+
+    private final long createdAtMillis;
+
+    private volatile long lastAccessMillis;
+
+    public AuthSession(String id, Long userId, String username, long createdAtMillis, long lastAccessMillis) {
+        this.id = id;
+        this.userId = userId;
+        this.username = username;
+        this.createdAtMillis = createdAtMillis;
+        this.lastAccessMillis = lastAccessMillis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Registra un acceso a la sesión.
+     * @param nowMillis instante del acceso
+     */
+    void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+}
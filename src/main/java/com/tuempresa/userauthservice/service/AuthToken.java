@@ -0,0 +1,14 @@
+package com.tuempresa.userauthservice.service;
+
+import java.time.Instant;
+
+/**
+ * Datos contenidos en un token de autenticación ya verificado.
+ * @param tokenId identificador único del token
+ * @param userId id del usuario autenticado
+ * @param username nombre del usuario autenticado
+ * @param issuedAt instante de emisión
+ * @param expiresAt instante de expiración
+ */
+public record AuthToken(long tokenId, Long userId, String username, Instant issuedAt, Instant expiresAt) {
+}
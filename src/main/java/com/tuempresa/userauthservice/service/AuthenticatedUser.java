@@ -0,0 +1,9 @@
+package com.tuempresa.userauthservice.service;
+
+/**
+ * Usuario autenticado tras un login correcto.
+ * @param id id del usuario
+ * @param username nombre de usuario
+ */
+public record AuthenticatedUser(Long id, String username) implements AuthResult {
+}
@@ -0,0 +1,252 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.BulkRegistrationItemDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.UserIdAllocator;
+import com.tuempresa.userauthservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Registro masivo de usuarios para altas de clientes completos.
+ * <p>
+ * En lugar de repetir por usuario el registro individual, los duplicados se detectan con
+ * consultas {@code IN} por lotes, las contraseñas se cifran en paralelo en el pool de
+ * {@link PasswordHashingExecutor} y las filas se insertan con sentencias JDBC por lotes,
+ * cada lote en su propia transacción. Si otro registro concurrente ocupa un nombre o email
+ * entre la comprobación y la inserción, ese lote se reintenta fila a fila para asignar el
+ * rechazo al usuario afectado. Con la tabla particionada, los nombres se comprueban e
+ * insertan en el shard de cada usuario, los emails se comprueban en todos y, antes de cada
+ * lote, se reservan en {@link UserEmailClaims}.
+ */
+@Service
+@Profile("!reactive")
+public class BulkRegistrationService {
+
+    static final String INSERT_SQL =
+        "INSERT INTO users (id, username, password, email, created_at, is_active, username_normalized, email_normalized) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private UserEmailClaims emailClaims;
+
+    @Value("${auth.bulk-registration.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Registra varios usuarios y devuelve el resultado de cada uno.
+     * @param registrations datos de los usuarios a registrar
+     * @return un resultado por usuario, en el mismo orden que la petición
+     * @throws HashingCapacityExceededException si el pool de hashing está saturado
+     */
+    public List<BulkRegistrationItemDto> registerUsers(List<UserRegistrationDto> registrations) {
+        BulkRegistrationItemDto[] results = new BulkRegistrationItemDto[registrations.size()];
+        List<Integer> candidates = new ArrayList<>(registrations.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+
+        // Solo la primera aparición de cada nombre de usuario o email normalizado opta al registro
+        for (int i = 0; i < registrations.size(); i++) {
+            UserRegistrationDto registration = registrations.get(i);
+            String username = UsernameNormalizer.normalize(registration.getUsername());
+            String email = UsernameNormalizer.normalizeEmail(registration.getEmail());
+            if (usernames.contains(username) || emails.contains(email)) {
+                results[i] = new BulkRegistrationItemDto(i, registration.getUsername(),
+                    BulkRegistrationItemDto.DUPLICATE_IN_REQUEST, "Nombre de usuario o email repetido en la petición");
+                continue;
+            }
+            usernames.add(username);
+            emails.add(email);
+            candidates.add(i);
+        }
+
+        Set<String> existingUsernames = new HashSet<>();
+        shards.groupByShard(usernames, Function.identity()).forEach((shard, values) -> existingUsernames.addAll(
+            shards.onShard(shard, () -> findExisting(values, userRepository::findExistingUsernames))));
+        Set<String> existingEmails = new HashSet<>();
+        shards.scatter(shard -> findExisting(emails, userRepository::findExistingEmails)).forEach(existingEmails::addAll);
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+
+        for (int i : candidates) {
+            UserRegistrationDto registration = registrations.get(i);
+            if (existingUsernames.contains(UsernameNormalizer.normalize(registration.getUsername()))) {
+                results[i] = rejected(i, registration.getUsername(), RegistrationResult.Failure.USERNAME_TAKEN);
+            } else if (existingEmails.contains(UsernameNormalizer.normalizeEmail(registration.getEmail()))) {
+                results[i] = rejected(i, registration.getUsername(), RegistrationResult.Failure.EMAIL_TAKEN);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        List<Supplier<String>> hashing = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            String rawPassword = registrations.get(i).getPassword();
+            hashing.add(() -> passwordEncoder.encode(rawPassword));
+        }
+        List<String> hashes = hashingExecutor.executeAll(hashing);
+        List<Long> ids = userIdAllocator.allocate(accepted.size());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            UserRegistrationDto registration = registrations.get(accepted.get(j));
+            User user = new User(registration.getUsername(), hashes.get(j), registration.getEmail());
+            user.setId(ids.get(j));
+            users.add(user);
+        }
+
+        // Cada lote se inserta en el shard de sus usuarios
+        shards.writeBatch(() -> {
+            Map<Integer, List<Integer>> byShard = shards.groupByShard(
+                IntStream.range(0, accepted.size()).boxed().toList(), j -> users.get(j).getUsername());
+            for (Map.Entry<Integer, List<Integer>> group : byShard.entrySet()) {
+                List<Integer> positions = group.getValue();
+                for (int from = 0; from < positions.size(); from += batchSize) {
+                    List<Integer> batch = positions.subList(from, Math.min(from + batchSize, positions.size()));
+                    List<Integer> indexes = batch.stream().map(accepted::get).toList();
+                    List<User> batchUsers = batch.stream().map(users::get).toList();
+                    shards.onShard(group.getKey(), () -> {
+                        insertBatch(indexes, batchUsers, results);
+                        return null;
+                    });
+                }
+            }
+            return null;
+        });
+
+        return List.of(results);
+    }
+
+    /**
+     * Reserva los emails del lote, lo inserta en una única transacción y, si alguna fila viola
+     * una restricción única, lo reintenta fila a fila liberando la reserva de las rechazadas.
+     */
+    private void insertBatch(List<Integer> batchIndexes, List<User> batchUsers, BulkRegistrationItemDto[] results) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<User> users = emailClaims.claimAll(batchUsers);
+        List<Integer> indexes = new ArrayList<>(users.size());
+        for (int j = 0, claimed = 0; j < batchUsers.size(); j++) {
+            if (claimed < users.size() && users.get(claimed) == batchUsers.get(j)) {
+                indexes.add(batchIndexes.get(j));
+                claimed++;
+            } else {
+                results[batchIndexes.get(j)] = rejected(batchIndexes.get(j), batchUsers.get(j).getUsername(),
+                    RegistrationResult.Failure.EMAIL_TAKEN);
+            }
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaction.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), BulkRegistrationService::bind));
+            for (int j = 0; j < users.size(); j++) {
+                results[indexes.get(j)] = registered(indexes.get(j), users.get(j));
+            }
+        } catch (DataIntegrityViolationException e) {
+            for (int j = 0; j < users.size(); j++) {
+                User user = users.get(j);
+                try {
+                    jdbcTemplate.update(INSERT_SQL, statement -> bind(statement, user));
+                    results[indexes.get(j)] = registered(indexes.get(j), user);
+                } catch (DataIntegrityViolationException rowException) {
+                    emailClaims.release(user);
+                    results[indexes.get(j)] = rejected(indexes.get(j), user.getUsername(),
+                        RegistrationResult.Failure.of(rowException));
+                }
+            }
+        }
+    }
+
+    private BulkRegistrationItemDto registered(int index, User user) {
+        userCache.invalidate(user.getUsername());
+        usernameFilter.add(user.getUsername());
+        readYourWrites.recordWrite(user.getUsername());
+        return new BulkRegistrationItemDto(index, user.getUsername(),
+            BulkRegistrationItemDto.REGISTERED, "Usuario registrado exitosamente");
+    }
+
+    private static BulkRegistrationItemDto rejected(int index, String username, RegistrationResult.Failure failure) {
+        return new BulkRegistrationItemDto(index, username, failure.name(), failure.getMessage());
+    }
+
+    /**
+     * Consulta por lotes qué valores ya existen, para no superar el límite de parámetros
+     * de la cláusula IN.
+     */
+    private static Set<String> findExisting(Collection<String> values, Function<List<String>, List<String>> query) {
+        List<String> distinct = List.copyOf(values);
+        Set<String> existing = new HashSet<>();
+
+        for (int from = 0; from < distinct.size(); from += LOOKUP_BATCH_SIZE) {
+            existing.addAll(query.apply(distinct.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, distinct.size()))));
+        }
+
+        return existing;
+    }
+
+    static void bind(PreparedStatement statement, User user) throws SQLException {
+        statement.setLong(1, user.getId());
+        statement.setString(2, user.getUsername());
+        statement.setString(3, user.getPassword());
+        statement.setString(4, user.getEmail());
+        statement.setTimestamp(5, Timestamp.valueOf(user.getCreatedAt()));
+        statement.setBoolean(6, user.getIsActive());
+        statement.setString(7, user.getUsernameNormalized());
+        statement.setString(8, user.getEmailNormalized());
+    }
+}
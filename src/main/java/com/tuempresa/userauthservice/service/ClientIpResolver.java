@@ -0,0 +1,141 @@
+package com.tuempresa.userauthservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * IP de origen del cliente para los límites de tasa por IP.
+ * <p>
+ * La cabecera {@code X-Forwarded-For} solo se tiene en cuenta si la conexión llega de un proxy
+ * de {@code auth.rate-limit.trusted-proxies}. En ese caso se recorre de derecha a izquierda,
+ * saltando los proxies de confianza, y la IP de origen es la primera que no lo es: las entradas
+ * anteriores las escribe el propio cliente y no se usan. Sin proxies configurados la IP es
+ * siempre la de la conexión, y un cliente no puede repartir sus intentos entre IPs inventadas.
+ */
+@Component
+public class ClientIpResolver {
+
+    public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final List<Subnet> trustedProxies = new ArrayList<>();
+
+    /**
+     * @param trustedProxies IPs o rangos CIDR (por ejemplo {@code 10.0.0.0/8}) de los proxies
+     *                       inversos de confianza
+     */
+    public ClientIpResolver(@Value("${auth.rate-limit.trusted-proxies:}") List<String> trustedProxies) {
+        for (String proxy : trustedProxies) {
+            if (!proxy.isBlank()) {
+                this.trustedProxies.add(Subnet.parse(proxy.strip()));
+            }
+        }
+    }
+
+    /**
+     * Obtiene la IP de origen del cliente.
+     * @param remoteAddr IP de la conexión
+     * @param forwardedFor valores de la cabecera {@code X-Forwarded-For}, en orden; puede ser null
+     * @return IP de origen del cliente
+     */
+    public String resolve(String remoteAddr, List<String> forwardedFor) {
+        if (forwardedFor == null || forwardedFor.isEmpty() || !isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        List<String> hops = new ArrayList<>();
+        for (String value : forwardedFor) {
+            for (String hop : value.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(hop.strip());
+                }
+            }
+        }
+
+        String client = remoteAddr;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            client = hops.get(i);
+            if (!isTrusted(client)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (trustedProxies.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = parseLiteral(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (Subnet subnet : trustedProxies) {
+            if (subnet.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convierte una IP literal a bytes sin resolver nombres por DNS.
+     * @param address IP en texto
+     * @return bytes de la IP, o null si no es una IP literal
+     */
+    private static byte[] parseLiteral(String address) {
+        if (address == null || !(IPV4.matcher(address).matches() || address.indexOf(':') >= 0)) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Rango de IPs de un proxy de confianza.
+     */
+    private record Subnet(byte[] network, int prefixLength) {
+
+        static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            String address = slash >= 0 ? cidr.substring(0, slash) : cidr;
+            byte[] network = parseLiteral(address);
+            if (network == null) {
+                throw new IllegalArgumentException("Proxy de confianza inválido: " + cidr);
+            }
+            int prefixLength = slash >= 0 ? Integer.parseInt(cidr.substring(slash + 1)) : network.length * 8;
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Proxy de confianza inválido: " + cidr);
+            }
+            return new Subnet(network, prefixLength);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.tuempresa.userauthservice.service;
+
+/**
+ * Se lanza cuando el pool de hashing de contraseñas no admite más trabajo.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public HashingCapacityExceededException(int retryAfterSeconds) {
+        super("Servicio temporalmente saturado, intente nuevamente");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Segundos sugeridos al cliente antes de reintentar.
+     * @return valor para la cabecera Retry-After
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
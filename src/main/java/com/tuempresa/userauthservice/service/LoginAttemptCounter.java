@@ -0,0 +1,233 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.LoginAttempt;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.LoginAttemptRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de intentos de login fallidos compartidos entre los nodos del clúster.
+ * <p>
+ * Cada nodo acumula en memoria los fallos y los logins correctos de cada usuario y, cada
+ * {@code auth.login-attempts.flush-interval-ms}, los aplica por lotes a la tabla
+ * {@code login_attempts}: una sentencia MERGE que suma los fallos y un DELETE para los
+ * reinicios. Tras escribir, relee los contadores vigentes de todos los nodos. La decisión
+ * de bloqueo usa esa lectura más los cambios locales aún no escritos, de modo que un
+ * ataque repartido entre nodos se detecta con un retraso de un intervalo, sin escribir en
+ * base de datos en cada fallo.
+ * <p>
+ * Un usuario queda bloqueado al acumular {@code auth.login-attempts.max-failures} fallos
+ * sin que pase {@code auth.login-attempts.window-seconds} desde el último; pasado ese
+ * tiempo el contador vuelve a empezar.
+ */
+@Component
+public class LoginAttemptCounter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptCounter.class);
+
+    private static final String MERGE_SQL =
+        "MERGE INTO login_attempts t "
+            + "USING (SELECT CAST(? AS VARCHAR(255)) AS username, CAST(? AS INTEGER) AS failures, "
+            + "CAST(? AS TIMESTAMP) AS last_failure_at) s "
+            + "ON t.username = s.username "
+            + "WHEN MATCHED THEN UPDATE SET "
+            + "failures = CASE WHEN t.last_failure_at < ? THEN s.failures ELSE t.failures + s.failures END, "
+            + "last_failure_at = GREATEST(t.last_failure_at, s.last_failure_at) "
+            + "WHEN NOT MATCHED THEN INSERT (username, failures, last_failure_at) "
+            + "VALUES (s.username, s.failures, s.last_failure_at)";
+
+    private static final String RESET_SQL =
+        "DELETE FROM login_attempts WHERE username = ? AND last_failure_at <= ?";
+
+    @Autowired
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${auth.login-attempts.max-failures:5}")
+    private int maxFailures;
+
+    @Value("${auth.login-attempts.window-seconds:900}")
+    private long windowSeconds;
+
+    private Clock clock = Clock.systemUTC();
+
+    /** Cambios locales aún no escritos. */
+    private final ConcurrentHashMap<String, Delta> pending = new ConcurrentHashMap<>();
+
+    /** Última lectura de la tabla y cambios que se están escribiendo. */
+    private volatile View view = new View(Map.of(), Map.of());
+
+    private final AtomicLong flushedDeltas = new AtomicLong();
+
+    /**
+     * Indica si el usuario está bloqueado según la vista combinada del clúster.
+     * @param username nombre de usuario recibido
+     * @return true si se alcanzó el máximo de fallos dentro de la ventana
+     */
+    public boolean isLocked(String username) {
+        String key = UsernameNormalizer.normalize(username);
+        View current = view;
+        Delta merged = Delta.then(Delta.then(current.shared().get(key), current.inFlight().get(key)), pending.get(key));
+
+        return merged != null
+            && merged.failures() >= maxFailures
+            && merged.lastFailureAt() >= clock.millis() - windowSeconds * 1000;
+    }
+
+    /**
+     * Registra un login fallido por contraseña incorrecta.
+     * @param username nombre de usuario recibido
+     */
+    public void recordFailure(String username) {
+        pending.merge(UsernameNormalizer.normalize(username), new Delta(1, clock.millis(), -1), Delta::then);
+    }
+
+    /**
+     * Registra un login correcto, que reinicia el contador del usuario.
+     * @param username nombre de usuario recibido
+     */
+    public void recordSuccess(String username) {
+        String key = UsernameNormalizer.normalize(username);
+        // Sin fallos conocidos no hay nada que reiniciar ni que escribir
+        if (view.shared().containsKey(key) || view.inFlight().containsKey(key) || pending.containsKey(key)) {
+            pending.merge(key, new Delta(0, Long.MIN_VALUE, clock.millis()), Delta::then);
+        }
+    }
+
+    /**
+     * Escribe los cambios locales por lotes y relee los contadores de todos los nodos.
+     */
+    @Scheduled(fixedDelayString = "${auth.login-attempts.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<String, Delta> drained = new HashMap<>();
+        for (String key : pending.keySet()) {
+            Delta delta = pending.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+        view = new View(view.shared(), drained);
+
+        long now = clock.millis();
+        Timestamp windowStart = Timestamp.valueOf(toDateTime(now - windowSeconds * 1000));
+        try {
+            write(drained, windowStart);
+            loginAttemptRepository.deleteExpired(windowStart.toLocalDateTime());
+            view = new View(readShared(windowStart.toLocalDateTime()), Map.of());
+            flushedDeltas.addAndGet(drained.size());
+        } catch (DataAccessException e) {
+            // Se conservan para el siguiente intento, delante de los registrados mientras tanto
+            drained.forEach((key, delta) -> pending.merge(key, delta, (later, earlier) -> Delta.then(earlier, later)));
+            view = new View(view.shared(), Map.of());
+            log.warn("No se pudieron escribir los intentos de login; se reintentará en el siguiente ciclo", e);
+        }
+    }
+
+    /**
+     * Cambios escritos en la tabla compartida desde el arranque.
+     * @return número de contadores escritos
+     */
+    public long getFlushedDeltas() {
+        return flushedDeltas.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.login-attempts.pending", pending, Map::size)
+            .description("Usuarios con intentos de login pendientes de escribir")
+            .register(registry);
+        FunctionCounter.builder("auth.login-attempts.flushed", this, LoginAttemptCounter::getFlushedDeltas)
+            .description("Contadores de intentos de login escritos en la tabla compartida")
+            .register(registry);
+    }
+
+    private void write(Map<String, Delta> drained, Timestamp windowStart) {
+        List<Object[]> resets = new ArrayList<>();
+        List<Object[]> increments = new ArrayList<>();
+        drained.forEach((key, delta) -> {
+            if (delta.resetAt() >= 0) {
+                resets.add(new Object[] {key, Timestamp.valueOf(toDateTime(delta.resetAt()))});
+            }
+            if (delta.failures() > 0) {
+                increments.add(new Object[] {
+                    key, delta.failures(), Timestamp.valueOf(toDateTime(delta.lastFailureAt())), windowStart
+                });
+            }
+        });
+
+        if (!resets.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESET_SQL, resets);
+        }
+        if (!increments.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE_SQL, increments);
+        }
+    }
+
+    private Map<String, Delta> readShared(LocalDateTime since) {
+        Map<String, Delta> shared = new HashMap<>();
+        for (LoginAttempt attempt : loginAttemptRepository.findActiveSince(since)) {
+            long lastFailureAt = attempt.getLastFailureAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+            shared.put(attempt.getUsername(), new Delta(attempt.getFailures(), lastFailureAt, -1));
+        }
+        return shared;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    /**
+     * Cambios en el contador de un usuario.
+     * @param failures fallos posteriores al último reinicio
+     * @param lastFailureAt instante del último fallo
+     * @param resetAt instante del último login correcto, -1 si no hubo
+     */
+    private record Delta(int failures, long lastFailureAt, long resetAt) {
+
+        /**
+         * Combina dos cambios consecutivos: un reinicio posterior descarta los fallos anteriores.
+         */
+        static Delta then(Delta earlier, Delta later) {
+            if (earlier == null) {
+                return later;
+            }
+            if (later == null) {
+                return earlier;
+            }
+            if (later.resetAt() >= 0 && earlier.lastFailureAt() <= later.resetAt()) {
+                return new Delta(later.failures(), later.lastFailureAt(), later.resetAt());
+            }
+            return new Delta(earlier.failures() + later.failures(),
+                Math.max(earlier.lastFailureAt(), later.lastFailureAt()),
+                Math.max(earlier.resetAt(), later.resetAt()));
+        }
+    }
+
+    private record View(Map<String, Delta> shared, Map<String, Delta> inFlight) {
+    }
+}
@@ -0,0 +1,424 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén de sesiones que sobrevive a reinicios persistiendo los cambios en un
+ * registro de solo anexado sobre un fichero mapeado en memoria.
+ * <p>
+ * Las lecturas se sirven desde un {@link ShardedSessionStore}; el fichero solo se
+ * escribe al crear o invalidar una sesión y, como mucho una vez por
+ * {@code touchGranularityMillis}, al renovar su último acceso. Al arrancar se
+ * reproduce el registro, se descartan las sesiones expiradas y se reescribe
+ * compactado. La compactación periódica sustituye el fichero de forma atómica por
+ * otro con solo las sesiones vigentes.
+ * <p>
+ * Cada registro lleva longitud y CRC32, de modo que un registro a medio escribir
+ * tras una caída se detecta y se ignora junto con lo que le sigue.
+ */
+public class MappedFileSessionStore implements SessionStore, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedFileSessionStore.class);
+
+    private static final int MAGIC = 0x53455353;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int FILE_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte CREATE = 1;
+
+    private static final byte TOUCH = 2;
+
+    private static final byte INVALIDATE = 3;
+
+    private static final long NO_USER_ID = -1L;
+
+    private final ShardedSessionStore delegate;
+
+    private final Path path;
+
+    private final int initialBytes;
+
+    private final long touchGranularityMillis;
+
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private int compactedBytes;
+
+    private volatile int writtenBytes;
+
+    private volatile long compactions;
+
+    private boolean closed;
+
+    public MappedFileSessionStore(ShardedSessionStore delegate, Path path, int initialBytes, long touchGranularityMillis) {
+        this(delegate, path, initialBytes, touchGranularityMillis, Clock.systemUTC());
+    }
+
+    MappedFileSessionStore(ShardedSessionStore delegate, Path path, int initialBytes,
+                           long touchGranularityMillis, Clock clock) {
+        this.delegate = delegate;
+        this.path = path.toAbsolutePath();
+        this.initialBytes = Math.max(initialBytes, 4096);
+        this.touchGranularityMillis = Math.max(1, touchGranularityMillis);
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(this.path.getParent());
+            List<AuthSession> restored = replay();
+            restored.forEach(delegate::restore);
+            lock.lock();
+            try {
+                rewrite(restored, 0);
+            } finally {
+                lock.unlock();
+            }
+            log.info("Restauradas {} sesiones desde {}", restored.size(), this.path);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el registro de sesiones: " + this.path, e);
+        }
+    }
+
+    @Override
+    public AuthSession create(Long userId, String username) {
+        AuthSession session = delegate.create(userId, username);
+        append(encodeCreate(session));
+        return session;
+    }
+
+    @Override
+    public Optional<AuthSession> find(String sessionId) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        AuthSession current = delegate.peek(sessionId);
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        long previousAccess = current.getLastAccessMillis();
+        Optional<AuthSession> found = delegate.find(sessionId);
+        // Solo se persiste el acceso al cruzar una franja de la granularidad configurada
+        if (found.isPresent() && Math.floorDiv(found.get().getLastAccessMillis(), touchGranularityMillis)
+                != Math.floorDiv(previousAccess, touchGranularityMillis)) {
+            append(encodeTouch(found.get()));
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<AuthSession> invalidate(String sessionId) {
+        Optional<AuthSession> invalidated = delegate.invalidate(sessionId);
+        invalidated.ifPresent(session -> append(encodeInvalidate(session.getId())));
+        return invalidated;
+    }
+
+    @Override
+    public int invalidateUser(String username) {
+        String normalized = UsernameNormalizer.normalize(username);
+        List<String> sessionIds = new ArrayList<>();
+        delegate.forEach(session -> {
+            if (normalized.equals(UsernameNormalizer.normalize(session.getUsername()))) {
+                sessionIds.add(session.getId());
+            }
+        });
+
+        int invalidated = 0;
+        for (String sessionId : sessionIds) {
+            if (invalidate(sessionId).isPresent()) {
+                invalidated++;
+            }
+        }
+        return invalidated;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long getTtlSeconds() {
+        return delegate.getTtlSeconds();
+    }
+
+    /**
+     * Avanza la expiración de las sesiones en memoria. Las sesiones expiradas no se
+     * anotan en el registro: se descartan al reproducirlo o al compactar.
+     */
+    @Scheduled(fixedRateString = "${auth.session.tick-millis:1000}")
+    public void expireSessions() {
+        delegate.expireSessions();
+    }
+
+    /**
+     * Compacta el registro si ha crecido más del doble desde la última compactación.
+     */
+    @Scheduled(fixedDelayString = "${auth.session.mmap.compact-interval-ms:60000}")
+    public void compactIfNeeded() {
+        lock.lock();
+        try {
+            if (!closed && buffer.position() > Math.max(2L * compactedBytes, buffer.capacity() / 4)) {
+                compact(0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tamaño actual del registro en bytes.
+     * @return bytes escritos en el fichero
+     */
+    public int getLogBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Número de compactaciones realizadas desde el arranque.
+     * @return compactaciones
+     */
+    public long getCompactionCount() {
+        return compactions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        delegate.bindTo(registry);
+        Gauge.builder("auth.sessions.log.bytes", this, MappedFileSessionStore::getLogBytes)
+            .description("Bytes escritos en el registro de sesiones")
+            .register(registry);
+        FunctionCounter.builder("auth.sessions.log.compactions", this, MappedFileSessionStore::getCompactionCount)
+            .description("Compactaciones del registro de sesiones")
+            .register(registry);
+    }
+
+    /**
+     * Vuelca el registro a disco y libera el fichero.
+     */
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error al cerrar el registro de sesiones {}", path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(byte[] payload) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (buffer.remaining() < RECORD_HEADER_BYTES + payload.length) {
+                compact(RECORD_HEADER_BYTES + payload.length);
+            }
+            writeRecord(buffer, payload);
+            writtenBytes = buffer.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void compact(int reserveBytes) {
+        List<AuthSession> live = new ArrayList<>(delegate.size());
+        delegate.forEach(live::add);
+        try {
+            rewrite(live, reserveBytes);
+            compactions++;
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo compactar el registro de sesiones: " + path, e);
+        }
+    }
+
+    /**
+     * Escribe un registro nuevo con las sesiones indicadas y lo sustituye de forma
+     * atómica al actual. Debe invocarse con el bloqueo tomado.
+     */
+    private void rewrite(List<AuthSession> sessions, int reserveBytes) throws IOException {
+        List<byte[]> records = new ArrayList<>(sessions.size());
+        long needed = FILE_HEADER_BYTES + reserveBytes;
+        for (AuthSession session : sessions) {
+            byte[] record = encodeCreate(session);
+            records.add(record);
+            needed += RECORD_HEADER_BYTES + record.length;
+        }
+
+        long capacity = initialBytes;
+        while (capacity < 2 * needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El registro de sesiones supera el tamaño máximo mapeable");
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel newChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        newBuffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        for (byte[] record : records) {
+            writeRecord(newBuffer, record);
+        }
+        newBuffer.force();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = newChannel;
+        buffer = newBuffer;
+        compactedBytes = newBuffer.position();
+        writtenBytes = compactedBytes;
+    }
+
+    private List<AuthSession> replay() throws IOException {
+        if (!Files.exists(path) || Files.size(path) < FILE_HEADER_BYTES) {
+            return List.of();
+        }
+
+        Map<String, AuthSession> sessions = new LinkedHashMap<>();
+        try (FileChannel existing = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer view = existing.map(FileChannel.MapMode.READ_ONLY, 0, existing.size());
+            if (view.getInt() != MAGIC || view.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Formato de registro de sesiones no reconocido: " + path);
+            }
+
+            CRC32 crc = new CRC32();
+            while (view.remaining() >= RECORD_HEADER_BYTES) {
+                int length = view.getInt();
+                int checksum = view.getInt();
+                if (length <= 0 || length > view.remaining()) {
+                    break;
+                }
+                ByteBuffer record = view.slice(view.position(), length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Registro de sesiones truncado en el byte {}; se ignora el resto", view.position());
+                    break;
+                }
+                apply(record, sessions);
+                view.position(view.position() + length);
+            }
+        }
+
+        long now = clock.millis();
+        long ttlMillis = delegate.getTtlSeconds() * 1000;
+        List<AuthSession> live = new ArrayList<>(sessions.size());
+        for (AuthSession session : sessions.values()) {
+            if (session.getLastAccessMillis() + ttlMillis > now) {
+                live.add(session);
+            }
+        }
+        return live;
+    }
+
+    private static void apply(ByteBuffer record, Map<String, AuthSession> sessions) {
+        byte type = record.get();
+        String id = readString(record);
+        switch (type) {
+            case CREATE -> {
+                long userId = record.getLong();
+                long createdAt = record.getLong();
+                long lastAccess = record.getLong();
+                String username = readString(record);
+                sessions.put(id, new AuthSession(id, userId != NO_USER_ID ? userId : null, username, createdAt, lastAccess));
+            }
+            case TOUCH -> {
+                AuthSession session = sessions.get(id);
+                if (session != null) {
+                    session.touch(record.getLong());
+                }
+            }
+            case INVALIDATE -> sessions.remove(id);
+            default -> throw new IllegalStateException("Tipo de registro de sesión desconocido: " + type);
+        }
+    }
+
+    private static void writeRecord(ByteBuffer target, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        target.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    }
+
+    private static byte[] encodeCreate(AuthSession session) {
+        byte[] id = session.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] username = session.getUsername().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + 2 * Short.BYTES + id.length + 3 * Long.BYTES + username.length)
+            .put(CREATE)
+            .putShort((short) id.length).put(id)
+            .putLong(session.getUserId() != null ? session.getUserId() : NO_USER_ID)
+            .putLong(session.getCreatedAtMillis())
+            .putLong(session.getLastAccessMillis())
+            .putShort((short) username.length).put(username)
+            .array();
+    }
+
+    private static byte[] encodeTouch(AuthSession session) {
+        byte[] id = session.getId().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + Short.BYTES + id.length + Long.BYTES)
+            .put(TOUCH)
+            .putShort((short) id.length).put(id)
+            .putLong(session.getLastAccessMillis())
+            .array();
+    }
+
+    private static byte[] encodeInvalidate(String sessionId) {
+        byte[] id = sessionId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(1 + Short.BYTES + id.length)
+            .put(INVALIDATE)
+            .putShort((short) id.length).put(id)
+            .array();
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] value = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,198 @@
+package com.tuempresa.userauthservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor acotado para las operaciones de hashing de contraseñas.
+ * Aísla el coste de BCrypt de los hilos de Tomcat: el número de hilos y la cola
+ * tienen un límite fijo y, cuando ambos están llenos, la tarea se rechaza de inmediato
+ * con {@link HashingCapacityExceededException} en lugar de encolarse sin límite.
+ */
+@Component
+public class PasswordHashingExecutor implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingExecutor(
+            @Value("${auth.hashing.pool-size:0}") int poolSize,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.hashing.retry-after-seconds:1}") int retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new HashingThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Ejecuta una operación de hashing en el pool dedicado y espera su resultado.
+     * @param task operación a ejecutar (encode o matches)
+     * @param <T> tipo del resultado
+     * @return resultado de la operación
+     * @throws HashingCapacityExceededException si el pool y la cola están llenos
+     */
+    public <T> T execute(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+
+        return await(future);
+    }
+
+    /**
+     * Ejecuta varias operaciones de hashing en paralelo y espera todos los resultados.
+     * Nunca hay en el pool más tareas de la misma llamada que hilos, de modo que un lote
+     * grande no ocupa la cola y las peticiones interactivas siguen entrando.
+     * @param tasks operaciones a ejecutar (encode o matches)
+     * @param <T> tipo del resultado
+     * @return resultados en el mismo orden que las tareas
+     * @throws HashingCapacityExceededException si el pool y la cola están llenos
+     */
+    public <T> List<T> executeAll(List<? extends Supplier<T>> tasks) {
+        Semaphore inFlight = new Semaphore(executor.getCorePoolSize());
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+        try {
+            for (Supplier<T> task : tasks) {
+                inFlight.acquire();
+                futures.add(submit(task).whenComplete((result, error) -> inFlight.release()));
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Operación de hashing interrumpida", e);
+        } catch (HashingCapacityExceededException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Encola una operación de hashing en el pool dedicado sin esperar su resultado, para
+     * los llamadores que no deben bloquear su hilo (el API reactivo).
+     * @param task operación a ejecutar (encode o matches)
+     * @param <T> tipo del resultado
+     * @return futuro que se completa en un hilo del pool
+     * @throws HashingCapacityExceededException si el pool y la cola están llenos
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Operación de hashing interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Error en la operación de hashing", cause);
+        }
+    }
+
+    /**
+     * Número de tareas de hashing esperando en la cola.
+     * @return profundidad actual de la cola
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Número de tareas rechazadas por falta de capacidad desde el arranque.
+     * @return total de rechazos
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Número de hilos ejecutando hashing en este momento.
+     * @return hilos activos
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.hashing.queue.depth", this, PasswordHashingExecutor::getQueueDepth)
+            .description("Tareas de hashing en espera")
+            .register(registry);
+        Gauge.builder("auth.hashing.active", this, PasswordHashingExecutor::getActiveCount)
+            .description("Hilos de hashing ocupados")
+            .register(registry);
+        FunctionCounter.builder("auth.hashing.rejected", this, PasswordHashingExecutor::getRejectedCount)
+            .description("Tareas de hashing rechazadas por falta de capacidad")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
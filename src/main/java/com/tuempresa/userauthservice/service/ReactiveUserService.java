@@ -0,0 +1,245 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.ReactiveUserRepository;
+import com.tuempresa.userauthservice.repository.UserCredentials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Versión sin bloqueo de {@link UserService} para el perfil {@code reactive}.
+ * <p>
+ * Aplica las mismas reglas y devuelve los mismos resultados, pero ningún paso bloquea el
+ * hilo que atiende la petición: la base de datos se consulta con R2DBC y el hashing se
+ * encola en el pool acotado de {@link PasswordHashingExecutor}, cuya saturación se
+ * señala como error {@link HashingCapacityExceededException}. Los filtros en memoria
+ * ({@link UsernameFilter}, {@link LoginAttemptCounter}, {@link UserCache}) se comparten
+ * con el API servlet.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private static final int DEACTIVATION_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private LoginAttemptCounter loginAttemptCounter;
+
+    /**
+     * Registra un nuevo usuario con un único INSERT, delegando la detección de duplicados
+     * en las restricciones únicas.
+     * @param registrationDto datos del usuario a registrar
+     * @return usuario registrado o motivo del rechazo si el usuario o email ya existen
+     */
+    public Mono<RegistrationResult> registerUser(UserRegistrationDto registrationDto) {
+        return hash(() -> passwordEncoder.encode(registrationDto.getPassword()))
+            .flatMap(password -> userRepository.insert(
+                new User(registrationDto.getUsername(), password, registrationDto.getEmail())))
+            .<RegistrationResult>map(saved -> {
+                userCache.invalidate(saved.getUsername());
+                usernameFilter.add(saved.getUsername());
+                return new RegistrationResult.Registered(saved);
+            })
+            .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(RegistrationResult.Failure.of(e)));
+    }
+
+    /**
+     * Autentica un usuario con sus credenciales, con los mismos pasos y resultados que
+     * {@link UserService#authenticateUser}.
+     * @param loginDto credenciales del usuario
+     * @return usuario autenticado o motivo del rechazo
+     */
+    public Mono<AuthResult> authenticateUser(UserLoginDto loginDto) {
+        String username = loginDto.getUsername();
+
+        if (!usernameFilter.mightExist(username)) {
+            return Mono.just(AuthResult.Failure.USER_NOT_FOUND);
+        }
+
+        if (loginAttemptCounter.isLocked(username)) {
+            return Mono.just(AuthResult.Failure.LOCKED);
+        }
+
+        return Mono.fromFuture(() -> userCache.getCredentialsAsync(username,
+                name -> userRepository.findCredentialsByUsername(UsernameNormalizer.normalize(name)).map(Optional::of)
+                    .defaultIfEmpty(Optional.empty()).toFuture()))
+            .flatMap(credentialsOpt -> credentialsOpt
+                .map(credentials -> verify(loginDto, credentials))
+                .orElseGet(() -> Mono.just(AuthResult.Failure.USER_NOT_FOUND)));
+    }
+
+    /**
+     * Verifica la contraseña y el estado de un usuario existente.
+     */
+    private Mono<AuthResult> verify(UserLoginDto loginDto, UserCredentials credentials) {
+        String username = loginDto.getUsername();
+
+        return hash(() -> passwordEncoder.matches(loginDto.getPassword(), credentials.password()))
+            .flatMap(matches -> {
+                if (!matches) {
+                    loginAttemptCounter.recordFailure(username);
+                    return Mono.just(AuthResult.Failure.INVALID_CREDENTIALS);
+                }
+
+                if (!Boolean.TRUE.equals(credentials.isActive())) {
+                    return Mono.just(AuthResult.Failure.INACTIVE_USER);
+                }
+
+                Mono<Void> rehash = passwordEncoder.upgradeEncoding(credentials.password())
+                    ? rehashPassword(credentials.id(), username, loginDto.getPassword())
+                    : Mono.empty();
+
+                return rehash.then(Mono.fromSupplier(() -> {
+                    loginAttemptCounter.recordSuccess(username);
+                    return new AuthenticatedUser(credentials.id(), username);
+                }));
+            });
+    }
+
+    /**
+     * Vuelve a generar el hash de la contraseña con el coste calibrado actual.
+     * Si el pool de hashing está saturado se pospone al siguiente login sin afectar a este.
+     */
+    private Mono<Void> rehashPassword(Long userId, String username, String rawPassword) {
+        return hash(() -> passwordEncoder.encode(rawPassword))
+            .flatMap(password -> userRepository.updatePassword(userId, password))
+            .doOnSuccess(updated -> userCache.invalidate(username))
+            .onErrorResume(HashingCapacityExceededException.class, e -> {
+                log.debug("Rehash de contraseña pospuesto para {}: pool de hashing saturado", username);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Busca un usuario por nombre de usuario.
+     * @param username nombre de usuario
+     * @return usuario si existe
+     */
+    public Mono<User> findByUsername(String username) {
+        return userRepository.findByUsername(UsernameNormalizer.normalize(username));
+    }
+
+    /**
+     * Obtiene una página de usuarios con paginación por clave.
+     * @param active filtro de estado, null para no filtrar
+     * @param createdFrom inicio inclusivo del rango de creación, null para no filtrar
+     * @param createdTo fin exclusivo del rango de creación, null para no filtrar
+     * @param cursor cursor devuelto por la página anterior, null para la primera
+     * @param size tamaño de página solicitado, limitado a {@value UserService#MAX_PAGE_SIZE}
+     * @return página de usuarios con el cursor de la siguiente, o error si el cursor no es válido
+     */
+    public Mono<UserPage> getUsersPage(Boolean active, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                       String cursor, int size) {
+        boolean byCreatedAt = createdFrom != null || createdTo != null;
+
+        return Mono.fromCallable(() -> UserPageCursor.decode(cursor, byCreatedAt))
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(after -> {
+                int limit = UserPage.limit(size);
+                // Se pide un usuario de más para saber si existe una página siguiente
+                return userRepository.findPage(active, createdFrom, createdTo,
+                        after.map(UserPageCursor::createdAt).orElse(null),
+                        after.map(UserPageCursor::id).orElse(null), limit + 1)
+                    .collectList()
+                    .map(users -> UserPage.of(users, limit, byCreatedAt));
+            });
+    }
+
+    /**
+     * Cierra la sesión asociada a un token revocándolo en memoria.
+     * @param token token de autenticación
+     * @return vacío al completar, o error si el token es inválido
+     */
+    public Mono<Void> logoutUser(String token) {
+        return Mono.fromRunnable(() -> {
+            AuthToken authToken = tokenService.verify(token)
+                .orElseThrow(() -> new RuntimeException("Token inválido"));
+            tokenService.revoke(authToken);
+        });
+    }
+
+    /**
+     * Desactiva un usuario (logout lógico) por nombre de usuario con un único UPDATE.
+     * @param username nombre de usuario
+     * @return true si el usuario estaba activo y se desactivó
+     */
+    public Mono<Boolean> logoutUserByUsername(String username) {
+        return userRepository.deactivateByUsername(UsernameNormalizer.normalize(username))
+            .map(deactivated -> {
+                userCache.invalidate(username);
+                return deactivated > 0;
+            });
+    }
+
+    /**
+     * Desactiva varios usuarios (logout forzado) en sentencias UPDATE por lotes y revoca sus
+     * tokens y sesiones vigentes.
+     * @param usernames nombres de usuario
+     * @return número de usuarios desactivados
+     */
+    public Mono<Long> forceLogout(Collection<String> usernames) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(usernames));
+
+        return Flux.range(0, (distinct.size() + DEACTIVATION_BATCH_SIZE - 1) / DEACTIVATION_BATCH_SIZE)
+            .map(batch -> distinct.subList(batch * DEACTIVATION_BATCH_SIZE,
+                Math.min((batch + 1) * DEACTIVATION_BATCH_SIZE, distinct.size())))
+            .concatMap(batch -> userRepository.deactivateByUsernameIn(batch.stream().map(UsernameNormalizer::normalize).toList())
+                .doOnSuccess(deactivated -> {
+                    userCache.invalidateAll(batch);
+                    batch.forEach(username -> {
+                        tokenService.revokeUser(username);
+                        sessionStore.invalidateUser(username);
+                    });
+                }))
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Ejecuta una operación de hashing en el pool acotado sin bloquear al suscriptor.
+     */
+    private <T> Mono<T> hash(Supplier<T> task) {
+        return Mono.fromFuture(() -> hashingExecutor.submit(task));
+    }
+}
@@ -0,0 +1,65 @@
+package com.tuempresa.userauthservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tuempresa.userauthservice.config.ReplicaRoutingDataSource;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Recuerda los usuarios escritos recientemente en este nodo para que sus lecturas vayan a
+ * la base de datos principal mientras las réplicas pueden no tenerlos todavía.
+ * <p>
+ * Sin réplicas configuradas todas las lecturas van ya a la principal y el registro no tiene
+ * efecto sobre el enrutado.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final long MAXIMUM_SIZE = 100_000;
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${auth.datasource.replica.read-your-writes-ms:5000}") long windowMillis) {
+        this.recentWrites = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(Duration.ofMillis(windowMillis))
+            .build();
+    }
+
+    /**
+     * Registra una escritura del usuario.
+     * @param username nombre de usuario escrito
+     */
+    public void recordWrite(String username) {
+        recentWrites.put(UsernameNormalizer.normalize(username), Boolean.TRUE);
+    }
+
+    /**
+     * Indica si el usuario se escribió en este nodo dentro de la ventana configurada.
+     * @param username nombre de usuario
+     * @return true si se escribió hace poco
+     */
+    public boolean isRecentlyWritten(String username) {
+        return recentWrites.getIfPresent(UsernameNormalizer.normalize(username)) != null;
+    }
+
+    /**
+     * Ejecuta una lectura del usuario en la principal si se escribió hace poco y, si no, donde
+     * corresponda según su transacción.
+     * @param username nombre de usuario leído
+     * @param query lectura a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la lectura
+     */
+    public <T> T read(String username, Supplier<T> query) {
+        if (isRecentlyWritten(username)) {
+            return ReplicaRoutingDataSource.onPrimary(query);
+        }
+        return query.get();
+    }
+}
@@ -0,0 +1,60 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.User;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Resultado de un registro: el usuario creado o el motivo del rechazo.
+ * <p>
+ * Los duplicados se devuelven como constantes sin lanzar excepciones.
+ */
+public sealed interface RegistrationResult permits RegistrationResult.Registered, RegistrationResult.Failure {
+
+    /**
+     * Registro completado.
+     * @param user usuario registrado
+     */
+    record Registered(User user) implements RegistrationResult {
+    }
+
+    /**
+     * Motivos de rechazo de un registro.
+     */
+    enum Failure implements RegistrationResult {
+
+        USERNAME_TAKEN("El nombre de usuario ya está en uso"),
+
+        EMAIL_TAKEN("El email ya está registrado");
+
+        private final String message;
+
+        Failure(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Mensaje para el cliente.
+         * @return mensaje de error
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Traduce la violación de una restricción única al motivo de rechazo correspondiente.
+         * @param e excepción lanzada por la base de datos
+         * @return rechazo para el campo duplicado
+         */
+        static Failure of(DataIntegrityViolationException e) {
+            String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase(Locale.ROOT);
+
+            if (detail.contains(User.UK_EMAIL.toUpperCase(Locale.ROOT))) {
+                return EMAIL_TAKEN;
+            }
+
+            return USERNAME_TAKEN;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.tuempresa.userauthservice.service;
+
+import java.util.Optional;
+
+/**
+ * Almacén de sesiones de autenticación gestionado por la aplicación,
+ * independiente del {@code HttpSession} del contenedor.
+ */
+public interface SessionStore {
+
+    /**
+     * Crea una sesión para un usuario autenticado.
+     * @param userId id del usuario
+     * @param username nombre de usuario
+     * @return sesión creada
+     */
+    AuthSession create(Long userId, String username);
+
+    /**
+     * Busca una sesión vigente y renueva su expiración.
+     * @param sessionId id de la sesión
+     * @return sesión si existe y no ha expirado
+     */
+    Optional<AuthSession> find(String sessionId);
+
+    /**
+     * Invalida una sesión.
+     * @param sessionId id de la sesión
+     * @return sesión invalidada si existía
+     */
+    Optional<AuthSession> invalidate(String sessionId);
+
+    /**
+     * Invalida todas las sesiones de un usuario.
+     * @param username nombre de usuario, sin distinguir mayúsculas
+     * @return número de sesiones invalidadas
+     */
+    int invalidateUser(String username);
+
+    /**
+     * Número de sesiones vigentes.
+     * @return sesiones en el almacén
+     */
+    int size();
+
+    /**
+     * Tiempo de inactividad tras el que expira una sesión.
+     * @return segundos de vida sin actividad
+     */
+    long getTtlSeconds();
+}
@@ -0,0 +1,239 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Almacén de sesiones en memoria dividido en particiones con bloqueo propio.
+ * <p>
+ * Cada sesión pertenece a una partición según el hash de su id, de modo que las
+ * operaciones concurrentes solo compiten dentro de la misma partición. La expiración
+ * se delega en una {@link TimingWheel}: cada sesión se programa una vez y, al vencer,
+ * se vuelve a programar si hubo accesos desde entonces, en lugar de barrer todas las
+ * sesiones periódicamente.
+ */
+public class ShardedSessionStore implements SessionStore, MeterBinder {
+
+    private static final int SESSION_ID_BYTES = 18;
+
+    private static final Base64.Encoder ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Shard[] shards;
+
+    private final int shardMask;
+
+    private final long ttlMillis;
+
+    private final TimingWheel<String> expirations;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Clock clock;
+
+    public ShardedSessionStore(long ttlSeconds, int shardCount, long tickMillis) {
+        this(ttlSeconds, shardCount, tickMillis, Clock.systemUTC());
+    }
+
+    ShardedSessionStore(long ttlSeconds, int shardCount, long tickMillis, Clock clock) {
+        int count = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = count - 1;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+        this.expirations = new TimingWheel<>(tickMillis, clock.millis());
+    }
+
+    @Override
+    public AuthSession create(Long userId, String username) {
+        byte[] idBytes = new byte[SESSION_ID_BYTES];
+        random.nextBytes(idBytes);
+        long now = clock.millis();
+        AuthSession session = new AuthSession(ID_ENCODER.encodeToString(idBytes), userId, username, now, now);
+        restore(session);
+        return session;
+    }
+
+    /**
+     * Incorpora una sesión conservando sus instantes de creación y último acceso.
+     * @param session sesión a incorporar
+     */
+    public void restore(AuthSession session) {
+        Shard shard = shardFor(session.getId());
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.sessions.put(session.getId(), session) == null) {
+                size.incrementAndGet();
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        expirations.schedule(session.getId(), session.getLastAccessMillis() + ttlMillis);
+    }
+
+    @Override
+    public Optional<AuthSession> find(String sessionId) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+
+        Shard shard = shardFor(sessionId);
+        AuthSession session;
+        shard.lock.readLock().lock();
+        try {
+            session = shard.sessions.get(sessionId);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+
+        long now = clock.millis();
+        if (session == null || isExpired(session, now)) {
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session);
+    }
+
+    @Override
+    public Optional<AuthSession> invalidate(String sessionId) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        // La entrada de la rueda se descarta al vencer, al no encontrar la sesión
+        return Optional.ofNullable(remove(sessionId));
+    }
+
+    @Override
+    public int invalidateUser(String username) {
+        String normalized = UsernameNormalizer.normalize(username);
+        List<String> sessionIds = new ArrayList<>();
+        forEach(session -> {
+            if (normalized.equals(UsernameNormalizer.normalize(session.getUsername()))) {
+                sessionIds.add(session.getId());
+            }
+        });
+
+        int invalidated = 0;
+        for (String sessionId : sessionIds) {
+            if (remove(sessionId) != null) {
+                invalidated++;
+            }
+        }
+        return invalidated;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public long getTtlSeconds() {
+        return ttlMillis / 1000;
+    }
+
+    /**
+     * Avanza la rueda de expiración y elimina las sesiones sin actividad.
+     */
+    @Scheduled(fixedRateString = "${auth.session.tick-millis:1000}")
+    public void expireSessions() {
+        long now = clock.millis();
+        expirations.advance(now, sessionId -> {
+            AuthSession session = peek(sessionId);
+            if (session == null) {
+                return;
+            }
+            if (isExpired(session, now)) {
+                remove(sessionId);
+            } else {
+                expirations.schedule(sessionId, session.getLastAccessMillis() + ttlMillis);
+            }
+        });
+    }
+
+    /**
+     * Recorre las sesiones en memoria, partición a partición.
+     * @param action acción a aplicar a cada sesión
+     */
+    public void forEach(Consumer<AuthSession> action) {
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                shard.sessions.values().forEach(action);
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.sessions.active", this, ShardedSessionStore::size)
+            .description("Sesiones vigentes en memoria")
+            .register(registry);
+    }
+
+    /**
+     * Obtiene una sesión sin renovar su expiración.
+     * @param sessionId id de la sesión
+     * @return sesión o null si no existe
+     */
+    AuthSession peek(String sessionId) {
+        Shard shard = shardFor(sessionId);
+        shard.lock.readLock().lock();
+        try {
+            return shard.sessions.get(sessionId);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private AuthSession remove(String sessionId) {
+        Shard shard = shardFor(sessionId);
+        shard.lock.writeLock().lock();
+        try {
+            AuthSession removed = shard.sessions.remove(sessionId);
+            if (removed != null) {
+                size.decrementAndGet();
+            }
+            return removed;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isExpired(AuthSession session, long nowMillis) {
+        return session.getLastAccessMillis() + ttlMillis <= nowMillis;
+    }
+
+    private Shard shardFor(String sessionId) {
+        int hash = sessionId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    private static final class Shard {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<String, AuthSession> sessions = new HashMap<>();
+    }
+}
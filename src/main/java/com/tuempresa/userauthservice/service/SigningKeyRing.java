@@ -0,0 +1,186 @@
+package com.tuempresa.userauthservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Anillo de claves HMAC para firmar y verificar tokens de autenticación.
+ * Los tokens se firman siempre con la clave activa y se verifican con la clave
+ * indicada en su cabecera, de modo que rotar consiste en añadir una clave nueva,
+ * activarla y retirar la anterior cuando hayan expirado sus tokens.
+ */
+@Component
+public class SigningKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    static final String ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final String LOCAL_KEY_ID = "local";
+
+    private volatile Map<String, SigningKey> keys;
+
+    private volatile String activeKeyId;
+
+    public SigningKeyRing(
+            @Value("${auth.token.keys:}") String configuredKeys,
+            @Value("${auth.token.active-key-id:}") String activeKeyId) {
+        Map<String, SigningKey> parsed = parseKeys(configuredKeys);
+
+        if (parsed.isEmpty()) {
+            log.warn("No hay claves configuradas en auth.token.keys; se genera una clave local. "
+                + "Los tokens no serán válidos en otros nodos ni tras un reinicio.");
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            parsed.put(LOCAL_KEY_ID, new SigningKey(LOCAL_KEY_ID, secret));
+            activeKeyId = LOCAL_KEY_ID;
+        } else if (activeKeyId == null || activeKeyId.isBlank()) {
+            activeKeyId = parsed.keySet().iterator().next();
+        }
+
+        if (!parsed.containsKey(activeKeyId)) {
+            throw new IllegalStateException("La clave activa '" + activeKeyId + "' no está en auth.token.keys");
+        }
+
+        this.keys = Collections.unmodifiableMap(parsed);
+        this.activeKeyId = activeKeyId;
+    }
+
+    /**
+     * Añade una clave al anillo en caliente y opcionalmente la activa para firmar.
+     * @param keyId identificador de la clave
+     * @param secret secreto HMAC (mínimo 32 bytes)
+     * @param activate true para firmar los nuevos tokens con esta clave
+     */
+    public synchronized void addKey(String keyId, byte[] secret, boolean activate) {
+        Map<String, SigningKey> updated = new LinkedHashMap<>(keys);
+        updated.put(keyId, new SigningKey(keyId, secret));
+        keys = Collections.unmodifiableMap(updated);
+        if (activate) {
+            activeKeyId = keyId;
+        }
+    }
+
+    /**
+     * Retira una clave del anillo; los tokens firmados con ella dejan de ser válidos.
+     * @param keyId identificador de la clave
+     */
+    public synchronized void removeKey(String keyId) {
+        if (keyId.equals(activeKeyId)) {
+            throw new IllegalStateException("No se puede retirar la clave activa");
+        }
+        Map<String, SigningKey> updated = new LinkedHashMap<>(keys);
+        updated.remove(keyId);
+        keys = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Identificador de la clave con la que se firman los nuevos tokens.
+     * @return id de la clave activa
+     */
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Obtiene un {@link Mac} inicializado para la clave indicada, de uso exclusivo del llamante.
+     * @param keyId identificador de la clave
+     * @return Mac listo para usar, o null si la clave no existe
+     */
+    public Mac mac(String keyId) {
+        SigningKey key = keys.get(keyId);
+        return key != null ? key.mac() : null;
+    }
+
+    private static Map<String, SigningKey> parseKeys(String configuredKeys) {
+        Map<String, SigningKey> parsed = new LinkedHashMap<>();
+        if (configuredKeys == null || configuredKeys.isBlank()) {
+            return parsed;
+        }
+
+        for (String entry : configuredKeys.split(",")) {
+            String trimmed = entry.trim();
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Formato inválido en auth.token.keys, se espera id:secretoBase64");
+            }
+            String keyId = trimmed.substring(0, separator);
+            byte[] secret = Base64.getDecoder().decode(trimmed.substring(separator + 1));
+            parsed.put(keyId, new SigningKey(keyId, secret));
+        }
+        return parsed;
+    }
+
+    /**
+     * Clave HMAC con un {@link Mac} prototipo ya inicializado. Cada llamada obtiene un clon,
+     * que copia el estado tras {@code init} sin buscar el proveedor ni volver a derivar la clave.
+     * A diferencia de un {@code ThreadLocal}, no depende de que los hilos se reutilicen: con
+     * hilos virtuales cada petición tiene un hilo nuevo y el {@code Mac} por hilo no se
+     * aprovecharía nunca.
+     */
+    private static final class SigningKey {
+
+        private final SecretKeySpec spec;
+
+        private final Mac prototype;
+
+        private final boolean cloneable;
+
+        SigningKey(String keyId, byte[] secret) {
+            if (keyId.indexOf('.') >= 0) {
+                throw new IllegalStateException("El id de clave no puede contener '.'");
+            }
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("La clave '" + keyId + "' debe tener al menos " + MIN_KEY_BYTES + " bytes");
+            }
+            this.spec = new SecretKeySpec(secret, ALGORITHM);
+            this.prototype = newMac();
+            this.cloneable = isCloneable(prototype);
+        }
+
+        Mac mac() {
+            if (!cloneable) {
+                return newMac();
+            }
+            try {
+                // El prototipo no se usa nunca para calcular, así que clonarlo en paralelo es seguro
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return newMac();
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(spec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo inicializar " + ALGORITHM, e);
+            }
+        }
+
+        private static boolean isCloneable(Mac mac) {
+            try {
+                mac.clone();
+                return true;
+            } catch (CloneNotSupportedException e) {
+                log.warn("El proveedor de {} no admite clonar Mac; se creará uno por firma", ALGORITHM);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.tuempresa.userauthservice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporización jerárquica para expirar elementos sin recorrerlos todos.
+ * <p>
+ * Cuatro niveles de 64 ranuras: el nivel 0 tiene la resolución de un tick y cada nivel
+ * superior agrupa 64 ranuras del anterior. Programar y avanzar un tick cuestan O(1)
+ * amortizado; al cruzar el límite de un nivel superior, su ranura se redistribuye
+ * en los niveles inferiores.
+ * @param <T> tipo de los elementos programados
+ */
+public class TimingWheel<T> {
+
+    private static final int BITS = 6;
+
+    private static final int SLOTS = 1 << BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+
+    private final ArrayDeque<Entry<T>>[][] wheels;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Programa un elemento para que expire en el instante indicado.
+     * @param item elemento a programar
+     * @param deadlineMillis instante de expiración
+     */
+    public void schedule(T item, long deadlineMillis) {
+        lock.lock();
+        try {
+            long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+            place(new Entry<>(item, deadlineTick));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y entrega los elementos vencidos.
+     * El consumidor se invoca fuera del bloqueo de la rueda.
+     * @param nowMillis instante actual
+     * @param onExpire consumidor de elementos vencidos
+     */
+    public void advance(long nowMillis, Consumer<T> onExpire) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+
+        lock.lock();
+        try {
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                drain(wheels[0][(int) (currentTick & MASK)], expired);
+            }
+            size -= expired.size();
+        } finally {
+            lock.unlock();
+        }
+
+        expired.forEach(onExpire);
+    }
+
+    /**
+     * Número de elementos programados pendientes de vencer.
+     * @return elementos en la rueda
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            ArrayDeque<Entry<T>> slot = wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)];
+            int pending = slot.size();
+            for (int i = 0; i < pending; i++) {
+                place(slot.poll());
+            }
+        }
+    }
+
+    private void drain(ArrayDeque<Entry<T>> slot, List<T> expired) {
+        int pending = slot.size();
+        for (int i = 0; i < pending; i++) {
+            Entry<T> entry = slot.poll();
+            if (entry.deadlineTick() <= currentTick) {
+                expired.add(entry.item());
+            } else {
+                // Elementos más allá del horizonte de la rueda: se vuelven a colocar
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((entry.deadlineTick() >>> (BITS * level)) & MASK);
+        wheels[level][slot].add(entry);
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.tuempresa.userauthservice.service;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de tasa por clave con cubos de tokens, dividido en particiones con bloqueo propio.
+ * <p>
+ * Cada partición guarda sus cubos en una tabla hash de direccionamiento abierto sobre arrays
+ * primitivos (hash de la clave, tokens y último relleno), sin un objeto por clave. Las claves
+ * se identifican por un hash de 64 bits, cuya probabilidad de colisión es despreciable para
+ * este uso. Un cubo que ha vuelto a llenarse equivale a uno inexistente, por lo que se
+ * desaloja sin perder información; si una partición está llena de cubos activos, las claves
+ * nuevas comparten un cubo de desbordamiento en lugar de quedar sin límite.
+ */
+public class TokenBucketLimiter {
+
+    private static final double LOAD_FACTOR = 0.75;
+
+    /** Intervalo mínimo entre barridos forzados por una partición llena. */
+    private static final long MIN_EVICTION_INTERVAL_MILLIS = 1000;
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    private final double capacity;
+
+    private final double tokensPerMilli;
+
+    private final Clock clock;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param capacity tokens del cubo, es decir, peticiones admitidas en ráfaga
+     * @param refillPeriodMillis tiempo en rellenar el cubo vacío
+     * @param stripeCount número de particiones, redondeado a potencia de dos
+     * @param maxKeys claves activas que se pueden seguir en total
+     */
+    public TokenBucketLimiter(int capacity, long refillPeriodMillis, int stripeCount, int maxKeys) {
+        this(capacity, refillPeriodMillis, stripeCount, maxKeys, Clock.systemUTC());
+    }
+
+    TokenBucketLimiter(int capacity, long refillPeriodMillis, int stripeCount, int maxKeys, Clock clock) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        int keysPerStripe = Math.max(1, (maxKeys + count - 1) / count);
+        int slots = Integer.highestOneBit((int) Math.ceil(keysPerStripe / LOAD_FACTOR) - 1) << 1;
+
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(2, slots), keysPerStripe, clock.millis());
+        }
+        this.stripeMask = count - 1;
+        this.capacity = capacity;
+        this.tokensPerMilli = (double) capacity / refillPeriodMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Consume un token del cubo de la clave.
+     * @param key clave limitada (nombre de usuario, IP...)
+     * @return 0 si se admite la petición; si no, milisegundos hasta que haya un token
+     */
+    public long tryAcquire(String key) {
+        long hash = BloomFilter.hash64(key);
+        // El 0 marca las posiciones libres de la tabla
+        if (hash == 0) {
+            hash = 1;
+        }
+
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        long now = clock.millis();
+        long waitMillis;
+        stripe.lock.lock();
+        try {
+            waitMillis = stripe.acquire(hash, now);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (waitMillis > 0) {
+            rejected.increment();
+        }
+        return waitMillis;
+    }
+
+    /**
+     * Desaloja los cubos que han vuelto a llenarse.
+     */
+    public void evictIdle() {
+        long now = clock.millis();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.evictIdle(now);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Claves con cubo propio en este momento.
+     * @return número de claves seguidas
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Peticiones rechazadas desde el arranque.
+     * @return número de rechazos
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final int mask;
+
+        private final int maxSize;
+
+        private long[] keys;
+
+        private double[] tokens;
+
+        private long[] updatedAt;
+
+        private int size;
+
+        private double overflowTokens;
+
+        private long overflowUpdatedAt;
+
+        private long evictedAt;
+
+        private Stripe(int slots, int maxSize, long now) {
+            this.mask = slots - 1;
+            // Siempre queda alguna posición libre para que el sondeo termine
+            this.maxSize = Math.min(maxSize, slots - 1);
+            this.keys = new long[slots];
+            this.tokens = new double[slots];
+            this.updatedAt = new long[slots];
+            this.overflowTokens = capacity;
+            this.overflowUpdatedAt = now;
+            this.evictedAt = now;
+        }
+
+        private long acquire(long hash, long now) {
+            int slot = find(hash);
+            if (keys[slot] == 0) {
+                // Una avalancha de claves nuevas no debe reconstruir la tabla en cada petición
+                if (size >= maxSize && now - evictedAt >= MIN_EVICTION_INTERVAL_MILLIS) {
+                    evictIdle(now);
+                    slot = find(hash);
+                }
+                if (size >= maxSize) {
+                    double available = refill(overflowTokens, overflowUpdatedAt, now);
+                    overflowUpdatedAt = now;
+                    overflowTokens = available >= 1 ? available - 1 : available;
+                    return available >= 1 ? 0 : waitMillis(available);
+                }
+                keys[slot] = hash;
+                tokens[slot] = capacity;
+                updatedAt[slot] = now;
+                size++;
+            }
+
+            double available = refill(tokens[slot], updatedAt[slot], now);
+            updatedAt[slot] = now;
+            if (available >= 1) {
+                tokens[slot] = available - 1;
+                return 0;
+            }
+            tokens[slot] = available;
+            return waitMillis(available);
+        }
+
+        /**
+         * Reconstruye la tabla conservando solo los cubos que no se han llenado.
+         */
+        private void evictIdle(long now) {
+            long[] oldKeys = keys;
+            double[] oldTokens = tokens;
+            long[] oldUpdatedAt = updatedAt;
+            keys = new long[oldKeys.length];
+            tokens = new double[oldKeys.length];
+            updatedAt = new long[oldKeys.length];
+            size = 0;
+            evictedAt = now;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0 && refill(oldTokens[i], oldUpdatedAt[i], now) < capacity) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    tokens[slot] = oldTokens[i];
+                    updatedAt[slot] = oldUpdatedAt[i];
+                    size++;
+                }
+            }
+        }
+
+        /**
+         * Posición de la clave o, si no está, la primera libre de su secuencia de sondeo.
+         */
+        private int find(long hash) {
+            int slot = (int) hash & mask;
+            while (keys[slot] != 0 && keys[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    private double refill(double current, long updatedAtMillis, long now) {
+        return Math.min(capacity, current + Math.max(0, now - updatedAtMillis) * tokensPerMilli);
+    }
+
+    private long waitMillis(double available) {
+        return Math.max(1, (long) Math.ceil((1 - available) / tokensPerMilli));
+    }
+}
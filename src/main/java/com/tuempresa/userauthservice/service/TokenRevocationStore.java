@@ -0,0 +1,274 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Conjunto en memoria de tokens revocados, agrupados por franja de expiración.
+ * <p>
+ * Cada franja guarda los ids de token como {@code long} primitivos en una tabla de
+ * direccionamiento abierto, sin un objeto por entrada. Un token solo puede estar en la
+ * franja de su expiración, así que la consulta toca una única tabla, y cuando una franja
+ * vence se descarta entera: la memoria es proporcional a los tokens revocados aún vigentes.
+ * <p>
+ * Para cortar el acceso de un usuario se guarda además, por nombre de usuario normalizado,
+ * el instante antes del cual sus tokens dejan de ser válidos, hasta que caduca el último
+ * token que pudo emitirse antes de ese instante.
+ */
+@Component
+public class TokenRevocationStore implements MeterBinder {
+
+    private final ConcurrentHashMap<Long, LongHashSet> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, UserRevocation> users = new ConcurrentHashMap<>();
+
+    private final long bucketSeconds;
+
+    private final Clock clock;
+
+    @Autowired
+    public TokenRevocationStore(@Value("${auth.revocation.bucket-seconds:300}") long bucketSeconds) {
+        this(bucketSeconds, Clock.systemUTC());
+    }
+
+    TokenRevocationStore(long bucketSeconds, Clock clock) {
+        this.bucketSeconds = bucketSeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * Marca un token como revocado hasta su expiración.
+     * @param tokenId id del token
+     * @param expiresAt expiración del token
+     */
+    public void revoke(long tokenId, Instant expiresAt) {
+        long expiresEpoch = expiresAt.getEpochSecond();
+        if (expiresEpoch <= clock.instant().getEpochSecond()) {
+            return;
+        }
+        buckets.computeIfAbsent(bucketOf(expiresEpoch), bucket -> new LongHashSet()).add(tokenId);
+    }
+
+    /**
+     * Indica si un token ha sido revocado.
+     * @param tokenId id del token
+     * @param expiresAt expiración del token
+     * @return true si está revocado
+     */
+    public boolean isRevoked(long tokenId, Instant expiresAt) {
+        LongHashSet bucket = buckets.get(bucketOf(expiresAt.getEpochSecond()));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    /**
+     * Invalida todos los tokens de un usuario emitidos hasta ahora.
+     * @param username nombre de usuario
+     * @param until expiración del último token que pudo emitirse hasta ahora
+     */
+    public void revokeUser(String username, Instant until) {
+        long nowEpoch = clock.instant().getEpochSecond();
+        UserRevocation revocation = new UserRevocation(nowEpoch, until.getEpochSecond());
+        users.merge(UsernameNormalizer.normalize(username), revocation, (current, added) ->
+            new UserRevocation(Math.max(current.notBefore(), added.notBefore()), Math.max(current.until(), added.until())));
+    }
+
+    /**
+     * Indica si los tokens de un usuario emitidos en un instante han sido invalidados con
+     * {@link #revokeUser}. Los emitidos en el mismo segundo de la revocación también lo están.
+     * @param username nombre de usuario
+     * @param issuedAt emisión del token
+     * @return true si está revocado
+     */
+    public boolean isUserRevoked(String username, Instant issuedAt) {
+        if (users.isEmpty()) {
+            return false;
+        }
+        UserRevocation revocation = users.get(UsernameNormalizer.normalize(username));
+        return revocation != null && issuedAt.getEpochSecond() <= revocation.notBefore();
+    }
+
+    /**
+     * Descarta las franjas cuyos tokens ya han expirado en su totalidad y las revocaciones de
+     * usuario cuyos tokens afectados han expirado.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long nowEpoch = clock.instant().getEpochSecond();
+        long currentBucket = bucketOf(nowEpoch);
+        buckets.keySet().removeIf(bucket -> bucket < currentBucket);
+        users.values().removeIf(revocation -> revocation.until() <= nowEpoch);
+    }
+
+    /**
+     * Número total de tokens revocados en memoria.
+     * @return entradas vigentes
+     */
+    public long size() {
+        long total = 0;
+        for (LongHashSet bucket : buckets.values()) {
+            total += bucket.size();
+        }
+        return total;
+    }
+
+    /**
+     * Número de franjas de expiración en memoria.
+     * @return franjas activas
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.revocation.entries", this, TokenRevocationStore::size)
+            .description("Tokens revocados aún vigentes")
+            .register(registry);
+        Gauge.builder("auth.revocation.buckets", this, TokenRevocationStore::bucketCount)
+            .description("Franjas de expiración en memoria")
+            .register(registry);
+        Gauge.builder("auth.revocation.users", this, TokenRevocationStore::userCount)
+            .description("Usuarios con todos sus tokens revocados")
+            .register(registry);
+    }
+
+    /**
+     * Revocación de los tokens de un usuario, en segundos desde epoch.
+     * @param notBefore los tokens emitidos hasta este segundo, incluido, están revocados
+     * @param until expiración del último token afectado
+     */
+    private record UserRevocation(long notBefore, long until) {
+    }
+
+    /**
+     * Usuarios con tokens revocados en memoria.
+     * @return revocaciones de usuario vigentes
+     */
+    public int userCount() {
+        return users.size();
+    }
+
+    private long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, bucketSeconds);
+    }
+
+    /**
+     * Conjunto de {@code long} con direccionamiento abierto y sondeo lineal.
+     * Las lecturas son optimistas y solo toman el bloqueo si coinciden con una escritura.
+     */
+    static final class LongHashSet {
+
+        private static final long EMPTY = 0L;
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final StampedLock lock = new StampedLock();
+
+        private long[] table = new long[INITIAL_CAPACITY];
+
+        private int size;
+
+        private boolean containsEmptyKey;
+
+        void add(long key) {
+            long stamp = lock.writeLock();
+            try {
+                if (key == EMPTY) {
+                    if (!containsEmptyKey) {
+                        containsEmptyKey = true;
+                        size++;
+                    }
+                    return;
+                }
+                if ((size + 1) * 2 > table.length) {
+                    resize();
+                }
+                if (insert(table, key)) {
+                    size++;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean contains(long key) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found = lookup(key);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    found = lookup(key);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return found;
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private boolean lookup(long key) {
+            if (key == EMPTY) {
+                return containsEmptyKey;
+            }
+            long[] current = table;
+            int mask = current.length - 1;
+            for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+                long slot = current[index];
+                if (slot == key) {
+                    return true;
+                }
+                if (slot == EMPTY) {
+                    return false;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] resized = new long[table.length * 2];
+            for (long key : table) {
+                if (key != EMPTY) {
+                    insert(resized, key);
+                }
+            }
+            table = resized;
+        }
+
+        private static boolean insert(long[] target, long key) {
+            int mask = target.length - 1;
+            for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+                long slot = target[index];
+                if (slot == key) {
+                    return false;
+                }
+                if (slot == EMPTY) {
+                    target[index] = key;
+                    return true;
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.tuempresa.userauthservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Emisión y verificación de tokens de autenticación autocontenidos firmados con HMAC.
+ * <p>
+ * Formato: {@code <idClave>.<payload>.<firma>}, con payload y firma en Base64 URL.
+ * El payload binario contiene versión, id de token, id de usuario, emisión, expiración
+ * y nombre de usuario, por lo que la verificación no requiere base de datos ni sesión;
+ * la revocación tras el logout o el logout forzado se consulta en
+ * {@link TokenRevocationStore}, en memoria.
+ */
+@Service
+public class TokenService {
+
+    private static final byte VERSION = 1;
+
+    private static final long NO_USER_ID = -1L;
+
+    private static final int HEADER_BYTES = 1 + 4 * Long.BYTES;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SigningKeyRing keyRing;
+
+    private final TokenRevocationStore revocationStore;
+
+    private final long ttlSeconds;
+
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(SigningKeyRing keyRing, TokenRevocationStore revocationStore,
+                        @Value("${auth.token.ttl-seconds:3600}") long ttlSeconds) {
+        this(keyRing, revocationStore, ttlSeconds, Clock.systemUTC());
+    }
+
+    TokenService(SigningKeyRing keyRing, TokenRevocationStore revocationStore, long ttlSeconds, Clock clock) {
+        this.keyRing = keyRing;
+        this.revocationStore = revocationStore;
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * Emite un token firmado con la clave activa del anillo.
+     * @param userId id del usuario
+     * @param username nombre de usuario
+     * @return token serializado
+     */
+    public String issue(Long userId, String username) {
+        long issuedAt = clock.instant().getEpochSecond();
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer payload = ByteBuffer.allocate(HEADER_BYTES + name.length)
+            .put(VERSION)
+            .putLong(nextTokenId())
+            .putLong(userId != null ? userId : NO_USER_ID)
+            .putLong(issuedAt)
+            .putLong(issuedAt + ttlSeconds)
+            .put(name);
+
+        String keyId = keyRing.getActiveKeyId();
+        String signingInput = keyId + "." + ENCODER.encodeToString(payload.array());
+        byte[] signature = keyRing.mac(keyId).doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Verifica firma, expiración y revocación de un token.
+     * @param token token serializado
+     * @return datos del token si es válido, vacío en caso contrario
+     */
+    public Optional<AuthToken> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+
+        int first = token.indexOf('.');
+        int second = first > 0 ? token.indexOf('.', first + 1) : -1;
+        if (second < 0 || token.indexOf('.', second + 1) >= 0) {
+            return Optional.empty();
+        }
+
+        Mac mac = keyRing.mac(token.substring(0, first));
+        if (mac == null) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] expected = mac.doFinal(token.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return Optional.empty();
+            }
+
+            ByteBuffer payload = ByteBuffer.wrap(DECODER.decode(token.substring(first + 1, second)));
+            if (payload.get() != VERSION) {
+                return Optional.empty();
+            }
+            long tokenId = payload.getLong();
+            long userId = payload.getLong();
+            long issuedAt = payload.getLong();
+            long expiresAt = payload.getLong();
+            if (expiresAt <= clock.instant().getEpochSecond()
+                    || revocationStore.isRevoked(tokenId, Instant.ofEpochSecond(expiresAt))) {
+                return Optional.empty();
+            }
+            String username = new String(payload.array(), payload.position(), payload.remaining(), StandardCharsets.UTF_8);
+            if (revocationStore.isUserRevoked(username, Instant.ofEpochSecond(issuedAt))) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new AuthToken(
+                tokenId,
+                userId != NO_USER_ID ? userId : null,
+                username,
+                Instant.ofEpochSecond(issuedAt),
+                Instant.ofEpochSecond(expiresAt)
+            ));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Revoca un token ya verificado hasta su expiración.
+     * @param authToken token a revocar
+     */
+    public void revoke(AuthToken authToken) {
+        revocationStore.revoke(authToken.tokenId(), authToken.expiresAt());
+    }
+
+    /**
+     * Revoca todos los tokens de un usuario emitidos hasta ahora.
+     * @param username nombre de usuario
+     */
+    public void revokeUser(String username) {
+        revocationStore.revokeUser(username, clock.instant().plusSeconds(ttlSeconds));
+    }
+
+    /**
+     * Tiempo de vida de los tokens emitidos.
+     * @return segundos hasta la expiración
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private static long nextTokenId() {
+        long tokenId;
+        do {
+            tokenId = ThreadLocalRandom.current().nextLong();
+        } while (tokenId == 0L);
+        return tokenId;
+    }
+}
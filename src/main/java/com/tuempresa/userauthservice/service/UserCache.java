@@ -0,0 +1,167 @@
+package com.tuempresa.userauthservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.UserCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de las credenciales de usuario, con clave el nombre de usuario normalizado.
+ * <p>
+ * Está acotada por tamaño y por tiempo desde la escritura. Cada clave guarda un futuro:
+ * la primera petición que no lo encuentra lo registra y hace la consulta en su propio hilo,
+ * y las concurrentes esperan ese mismo futuro en lugar de repetirla. La consulta se hace
+ * fuera de la sección atómica del mapa, de modo que un hilo virtual bloqueado en base de
+ * datos no retiene su hilo portador. Una invalidación concurrente elimina el futuro en
+ * curso, así que tras escribir en base de datos e invalidar no puede quedar en caché un
+ * valor anterior a la escritura. Solo se guardan usuarios existentes: un futuro que
+ * termina sin valor se descarta.
+ * <p>
+ * La invalidación solo afecta a la caché de este nodo. Si otro nodo desactiva un usuario o
+ * cambia su contraseña, este sigue aceptando las credenciales en caché hasta que caducan: por
+ * eso los usuarios activos caducan a los {@code auth.user-cache.active-ttl-seconds}, que es la
+ * ventana máxima en que un nodo puede servir un usuario activo desactivado en otro. Los usuarios
+ * inactivos, que se rechazan en el login, caducan a los {@code auth.user-cache.ttl-seconds}.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "users";
+
+    private final AsyncCache<String, UserCredentials> cache;
+
+    @Autowired
+    public UserCache(@Value("${auth.user-cache.maximum-size:100000}") long maximumSize,
+                     @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                     @Value("${auth.user-cache.active-ttl-seconds:5}") long activeTtlSeconds) {
+        this(maximumSize, ttlSeconds, activeTtlSeconds, Ticker.systemTicker());
+    }
+
+    UserCache(long maximumSize, long ttlSeconds, long activeTtlSeconds, Ticker ticker) {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long activeTtlNanos = Duration.ofSeconds(Math.min(activeTtlSeconds, ttlSeconds)).toNanos();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, UserCredentials>() {
+                @Override
+                public long expireAfterCreate(String username, UserCredentials credentials, long currentTime) {
+                    return Boolean.TRUE.equals(credentials.isActive()) ? activeTtlNanos : ttlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(String username, UserCredentials credentials,
+                                              long currentTime, long currentDuration) {
+                    return expireAfterCreate(username, credentials, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String username, UserCredentials credentials,
+                                            long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .ticker(ticker)
+            .recordStats()
+            .buildAsync();
+    }
+
+    /**
+     * Obtiene las credenciales de un usuario, cargándolas si no están en caché.
+     * @param username nombre de usuario tal como se recibió
+     * @param loader consulta a base de datos por nombre de usuario
+     * @return credenciales si el usuario existe
+     */
+    public Optional<UserCredentials> getCredentials(String username,
+                                                    Function<String, Optional<UserCredentials>> loader) {
+        CompletableFuture<UserCredentials> loading = new CompletableFuture<>();
+        CompletableFuture<UserCredentials> future =
+            cache.get(UsernameNormalizer.normalize(username), (key, executor) -> loading);
+
+        // La base de datos busca por el nombre normalizado: todas sus variantes comparten entrada
+        UserCredentials cached;
+        if (future == loading) {
+            try {
+                cached = loader.apply(username).orElse(null);
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+            loading.complete(cached);
+        } else {
+            cached = await(future);
+        }
+
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Variante sin bloqueo de {@link #getCredentials}: la consulta a base de datos solo se
+     * inicia dentro de la sección atómica y el resultado se entrega al completarse.
+     * @param username nombre de usuario tal como se recibió
+     * @param loader consulta asíncrona a base de datos por nombre de usuario
+     * @return futuro con las credenciales si el usuario existe
+     */
+    public CompletableFuture<Optional<UserCredentials>> getCredentialsAsync(
+            String username, Function<String, CompletableFuture<Optional<UserCredentials>>> loader) {
+        CompletableFuture<UserCredentials> future = cache.get(UsernameNormalizer.normalize(username),
+            (key, executor) -> loader.apply(username).thenApply(found -> found.orElse(null)));
+
+        return future.thenApply(Optional::ofNullable);
+    }
+
+    /**
+     * Descarta un usuario de la caché. Debe invocarse tras cada escritura del usuario.
+     * @param username nombre de usuario
+     */
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(UsernameNormalizer.normalize(username));
+    }
+
+    /**
+     * Descarta varios usuarios de la caché.
+     * @param usernames nombres de usuario
+     */
+    public void invalidateAll(Collection<String> usernames) {
+        cache.synchronous().invalidateAll(usernames.stream().map(UsernameNormalizer::normalize).toList());
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y expulsiones.
+     * @return estadísticas acumuladas
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private static UserCredentials await(CompletableFuture<UserCredentials> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
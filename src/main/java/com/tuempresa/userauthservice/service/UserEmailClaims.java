@@ -0,0 +1,249 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Unicidad global del email con la tabla de usuarios particionada.
+ * <p>
+ * Cada shard solo impide emails repetidos entre sus propios usuarios. Con el particionado
+ * activo, antes de insertar un usuario se reserva su email normalizado en la tabla
+ * {@code user_email_claims} del shard 0, cuya clave primaria es el email: de dos registros
+ * concurrentes con el mismo email en shards distintos solo uno obtiene la reserva. Si después
+ * falla la inserción del usuario, la reserva se libera.
+ * <p>
+ * Una caída entre la reserva y la inserción deja una reserva sin usuario. Pasados
+ * {@code auth.sharding.email-claim-timeout-seconds}, otro usuario puede quedarse con ella si el
+ * usuario que la reservó no existe. Ese plazo debe superar con holgura lo que tarda una inserción.
+ * Sin particionado no se hace nada: basta la restricción única de la tabla de usuarios.
+ */
+@Component
+public class UserEmailClaims implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEmailClaims.class);
+
+    static final String INSERT_SQL =
+        "INSERT INTO user_email_claims (email_normalized, username_normalized, created_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_SQL =
+        "SELECT username_normalized, created_at FROM user_email_claims WHERE email_normalized = ?";
+
+    private static final String TAKE_OVER_SQL =
+        "UPDATE user_email_claims SET username_normalized = ?, created_at = ? "
+            + "WHERE email_normalized = ? AND username_normalized = ? AND created_at = ?";
+
+    private static final String DELETE_SQL =
+        "DELETE FROM user_email_claims WHERE email_normalized = ? AND username_normalized = ?";
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private static final String BACKFILL_SQL = "SELECT email_normalized, username_normalized, created_at FROM users";
+
+    private static final String USER_EXISTS_SQL =
+        "SELECT COUNT(*) FROM users WHERE username_normalized = ? AND email_normalized = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Value("${auth.sharding.email-claim-timeout-seconds:600}")
+    private long claimTimeoutSeconds;
+
+    /**
+     * Rellena las reservas a partir de los usuarios existentes si la tabla está vacía, al activar
+     * el particionado por primera vez. Se ejecuta cuando todos los shards tienen ya su esquema y
+     * antes de que se acepten peticiones. Cada shard se lee con un cursor de solo avance y las
+     * reservas se insertan cada {@value #BACKFILL_BATCH_SIZE} usuarios, sin cargar la tabla
+     * entera en memoria.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!shards.isSharded()
+                || shards.onShard(0, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_email_claims", Long.class)) > 0) {
+            return;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        long[] total = {0};
+
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            shards.onShard(shard, () -> transaction.execute(status -> {
+                jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(BACKFILL_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(BACKFILL_BATCH_SIZE);
+                        return statement;
+                    },
+                    resultSet -> {
+                        Timestamp createdAt = resultSet.getTimestamp(3);
+                        batch.add(new Object[] {resultSet.getString(1), resultSet.getString(2),
+                            createdAt != null ? createdAt : now});
+                        total[0]++;
+                        if (batch.size() == BACKFILL_BATCH_SIZE) {
+                            flush(batch);
+                        }
+                    });
+                return null;
+            }));
+            flush(batch);
+        }
+        if (total[0] > 0) {
+            log.info("Reservas de email creadas para {} usuarios existentes", total[0]);
+        }
+    }
+
+    /**
+     * Inserta en el shard 0 las reservas acumuladas y vacía la lista.
+     */
+    private void flush(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            onShardZero(() -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Reserva el email de un usuario que se va a insertar.
+     * @param user usuario con sus columnas normalizadas
+     * @return true si el email queda reservado para el usuario
+     */
+    public boolean claim(User user) {
+        return !claimAll(List.of(user)).isEmpty();
+    }
+
+    /**
+     * Reserva los emails de varios usuarios con una sentencia por lotes; si alguno ya está
+     * reservado, los reintenta uno a uno.
+     * @param users usuarios con emails distintos entre sí
+     * @return usuarios cuyo email ha quedado reservado, en el orden recibido
+     */
+    public List<User> claimAll(List<User> users) {
+        if (!shards.isSharded() || users.isEmpty()) {
+            return users;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            onShardZero(() -> jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(),
+                (statement, user) -> bind(statement, user, now)));
+            return users;
+        } catch (DataIntegrityViolationException e) {
+            List<User> claimed = new ArrayList<>(users.size());
+            for (User user : users) {
+                if (claimOne(user)) {
+                    claimed.add(user);
+                }
+            }
+            return claimed;
+        }
+    }
+
+    /**
+     * Libera la reserva de un usuario que no se ha llegado a insertar.
+     * @param user usuario con sus columnas normalizadas
+     */
+    public void release(User user) {
+        releaseAll(List.of(user));
+    }
+
+    /**
+     * Libera las reservas de varios usuarios que no se han llegado a insertar.
+     * @param users usuarios con sus columnas normalizadas
+     */
+    public void releaseAll(List<User> users) {
+        if (!shards.isSharded() || users.isEmpty()) {
+            return;
+        }
+
+        onShardZero(() -> jdbcTemplate.batchUpdate(DELETE_SQL, users, users.size(), (statement, user) -> {
+            statement.setString(1, user.getEmailNormalized());
+            statement.setString(2, user.getUsernameNormalized());
+        }));
+    }
+
+    private boolean claimOne(User user) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            onShardZero(() -> jdbcTemplate.update(INSERT_SQL, statement -> bind(statement, user, now)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return takeOver(user, now);
+        }
+    }
+
+    /**
+     * Se queda con una reserva caducada cuyo usuario no llegó a insertarse. La actualización
+     * solo se aplica si la reserva no ha cambiado desde que se leyó.
+     */
+    private boolean takeOver(User user, Timestamp now) {
+        List<Object[]> current = onShardZero(() -> jdbcTemplate.query(SELECT_SQL,
+            (resultSet, row) -> new Object[] {resultSet.getString(1), resultSet.getTimestamp(2)},
+            user.getEmailNormalized()));
+        if (current.isEmpty()) {
+            // Liberada entre medias
+            return claimOne(user);
+        }
+
+        String owner = (String) current.get(0)[0];
+        Timestamp claimedAt = (Timestamp) current.get(0)[1];
+        if (claimedAt.toLocalDateTime().plusSeconds(claimTimeoutSeconds).isAfter(now.toLocalDateTime())) {
+            return false;
+        }
+        Long ownerUsers = shards.read(owner, () ->
+            jdbcTemplate.queryForObject(USER_EXISTS_SQL, Long.class, owner, user.getEmailNormalized()));
+        if (ownerUsers > 0) {
+            return false;
+        }
+
+        int updated = onShardZero(() -> jdbcTemplate.update(TAKE_OVER_SQL,
+            user.getUsernameNormalized(), now, user.getEmailNormalized(), owner, claimedAt));
+        if (updated == 1) {
+            log.info("Reserva de email caducada de '{}' reasignada a '{}'", owner, user.getUsernameNormalized());
+        }
+        return updated == 1;
+    }
+
+    /**
+     * Ejecuta la operación en el shard 0 en su propia transacción, independiente de la que
+     * pueda tener abierta el llamante en otro shard.
+     */
+    private <T> T onShardZero(Supplier<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return shards.onShard(0, () -> transaction.execute(status -> action.get()));
+    }
+
+    private static void bind(PreparedStatement statement, User user, Timestamp now) throws SQLException {
+        statement.setString(1, user.getEmailNormalized());
+        statement.setString(2, user.getUsernameNormalized());
+        statement.setTimestamp(3, now);
+    }
+}
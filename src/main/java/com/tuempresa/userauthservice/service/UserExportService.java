@@ -0,0 +1,254 @@
+package com.tuempresa.userauthservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Exportación de usuarios en formato NDJSON (un objeto JSON por línea) con memoria constante.
+ * <p>
+ * Los usuarios se leen con un cursor JDBC de solo avance y tamaño de fetch fijo, dentro de
+ * una transacción de solo lectura para que el driver no cargue el resultado completo, y cada
+ * fila se escribe directamente en la salida sin crear entidades ni DTOs. La salida se vuelca
+ * cada {@code fetchSize} filas, de modo que el consumidor recibe los datos mientras se leen.
+ * <p>
+ * Con la tabla particionada se abre un cursor por shard, con las consultas lanzadas en
+ * paralelo, y las filas se combinan en orden de id conforme llegan.
+ */
+@Service
+@Profile("!reactive")
+public class UserExportService {
+
+    private static final String EXPORT_SQL =
+        "SELECT id, username, email, created_at, is_active FROM users ORDER BY id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Value("${auth.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Escribe todos los usuarios en la salida, uno por línea.
+     * @param out salida de la respuesta
+     * @return número de usuarios exportados
+     * @throws IOException si falla la escritura
+     */
+    public long exportUsers(OutputStream out) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // La salida la cierra el contenedor, no el generador; las filas se separan con '\n'
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (shards.isSharded()) {
+                long rows = exportMerged(generator);
+                generator.flush();
+                return rows;
+            }
+            long[] rows = new long[1];
+
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                        EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                resultSet -> {
+                    writeRow(generator, resultSet);
+                    if (++rows[0] % fetchSize == 0) {
+                        flush(generator);
+                    }
+                }
+            ));
+
+            generator.flush();
+            return rows[0];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Combina los cursores de todos los shards en orden de id, con una fila por shard en memoria.
+     */
+    private long exportMerged(JsonGenerator generator) {
+        List<ShardCursor> cursors = new ArrayList<>(shards.getShardCount());
+        try {
+            shards.scatter(shard -> {
+                ShardCursor cursor = ShardCursor.open(shards.dataSourceOf(shard), fetchSize);
+                synchronized (cursors) {
+                    cursors.add(cursor);
+                }
+                return null;
+            });
+
+            PriorityQueue<ShardCursor> pending = new PriorityQueue<>(Comparator.comparingLong(ShardCursor::id));
+            for (ShardCursor cursor : cursors) {
+                if (cursor.next()) {
+                    pending.add(cursor);
+                }
+            }
+
+            long rows = 0;
+            while (!pending.isEmpty()) {
+                ShardCursor cursor = pending.poll();
+                writeRow(generator, cursor.resultSet);
+                if (++rows % fetchSize == 0) {
+                    flush(generator);
+                }
+                if (cursor.next()) {
+                    pending.add(cursor);
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Error al leer los usuarios de un shard", e);
+        } finally {
+            synchronized (cursors) {
+                cursors.forEach(ShardCursor::close);
+            }
+        }
+    }
+
+    /**
+     * Escribe una fila con el mismo formato JSON que {@code UserInfoDto}.
+     */
+    static void writeRow(JsonGenerator generator, ResultSet resultSet) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", resultSet.getLong("id"));
+            generator.writeStringField("username", resultSet.getString("username"));
+            generator.writeStringField("email", resultSet.getString("email"));
+
+            Timestamp createdAt = resultSet.getTimestamp("created_at");
+            if (createdAt != null) {
+                generator.writeStringField("createdAt",
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt.toLocalDateTime()));
+            } else {
+                generator.writeNullField("createdAt");
+            }
+
+            boolean active = resultSet.getBoolean("is_active");
+            if (resultSet.wasNull()) {
+                generator.writeNullField("isActive");
+            } else {
+                generator.writeBooleanField("isActive", active);
+            }
+
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cursor de solo avance sobre los usuarios de un shard, en su propia conexión de solo lectura.
+     */
+    private static final class ShardCursor {
+
+        private final Connection connection;
+
+        private final ResultSet resultSet;
+
+        private long id;
+
+        private ShardCursor(Connection connection, ResultSet resultSet) {
+            this.connection = connection;
+            this.resultSet = resultSet;
+        }
+
+        static ShardCursor open(DataSource dataSource, int fetchSize) {
+            Connection connection = null;
+            try {
+                connection = dataSource.getConnection();
+                connection.setReadOnly(true);
+                // Sin autocommit para que el driver no cargue el resultado completo
+                connection.setAutoCommit(false);
+                PreparedStatement statement = connection.prepareStatement(
+                    EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return new ShardCursor(connection, statement.executeQuery());
+            } catch (SQLException e) {
+                if (connection != null) {
+                    release(connection);
+                }
+                throw new DataAccessResourceFailureException("Error al abrir el cursor de un shard", e);
+            }
+        }
+
+        boolean next() throws SQLException {
+            if (!resultSet.next()) {
+                return false;
+            }
+            id = resultSet.getLong("id");
+            return true;
+        }
+
+        long id() {
+            return id;
+        }
+
+        void close() {
+            release(connection);
+        }
+
+        private static void release(Connection connection) {
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                connection.setReadOnly(false);
+            } catch (SQLException e) {
+                // La conexión se cierra igualmente
+            } finally {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // Nada más que liberar
+                }
+            }
+        }
+    }
+
+    private static void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
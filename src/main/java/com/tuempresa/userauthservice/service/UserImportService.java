@@ -0,0 +1,415 @@
+package com.tuempresa.userauthservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuempresa.userauthservice.dto.UserImportProgressDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UserImportCheckpoint;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.UserIdAllocator;
+import com.tuempresa.userauthservice.repository.UserImportCheckpointRepository;
+import com.tuempresa.userauthservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Importación de usuarios desde el IdP heredado con sus hashes BCrypt existentes.
+ * <p>
+ * El archivo (CSV con cabecera o NDJSON, con los campos {@code username}, {@code email} y
+ * {@code password}) se lee línea a línea en bloques de {@code auth.import.chunk-size} líneas,
+ * sin cargarlo en memoria. Los hashes {@code $2a$}/{@code $2b$} se guardan tal cual, sin
+ * volver a cifrar. En cada bloque los duplicados se descartan con consultas {@code IN} y los
+ * usuarios nuevos se insertan con una sentencia JDBC por lotes, en la misma transacción que
+ * actualiza el {@link UserImportCheckpoint} del archivo: si la importación se interrumpe, al
+ * relanzarla continúa en la primera línea no confirmada. Con la tabla particionada, cada
+ * shard distinto del 0 confirma sus usuarios del bloque antes que el shard 0, que guarda el
+ * punto de reanudación; si el bloque se repite, esos usuarios cuentan como omitidos.
+ */
+@Service
+@Profile("!reactive")
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[ab]\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final int MAX_USERNAME_LENGTH = 50;
+
+    /** Reintentos de un bloque cuando un registro concurrente ocupa un nombre o email. */
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private UserEmailClaims emailClaims;
+
+    @Value("${auth.import.directory:data/import}")
+    private String directory;
+
+    @Value("${auth.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Importa un archivo del directorio de importación, o lo reanuda desde su último bloque
+     * confirmado. Un archivo ya importado por completo no se vuelve a procesar. Si el tamaño o
+     * la fecha de modificación del archivo han cambiado desde el punto de reanudación, se
+     * importa desde el principio: los usuarios ya importados se omiten como duplicados.
+     * @param fileName nombre del archivo, con extensión {@code .csv}, {@code .ndjson} o {@code .jsonl}
+     * @return progreso final de la importación
+     * @throws IOException si falla la lectura del archivo
+     * @throws IllegalStateException si el archivo ya se está importando
+     * @throws RuntimeException si el archivo no existe o su formato no es válido
+     */
+    public UserImportProgressDto importUsers(String fileName) throws IOException {
+        Path file = resolve(fileName);
+        boolean csv = isCsv(fileName);
+
+        if (!running.add(fileName)) {
+            throw new IllegalStateException("La importación de este archivo ya está en curso");
+        }
+
+        try {
+            long fileSize = Files.size(file);
+            long fileModifiedMillis = Files.getLastModifiedTime(file).toMillis();
+            UserImportCheckpoint checkpoint = checkpointRepository.findById(fileName).orElse(null);
+            if (checkpoint != null && !checkpoint.isSameFile(fileSize, fileModifiedMillis)) {
+                log.info("El archivo {} ha cambiado desde su última importación; se importa desde el principio", fileName);
+                checkpoint = null;
+            }
+            if (checkpoint == null) {
+                checkpoint = new UserImportCheckpoint(fileName, fileSize, fileModifiedMillis);
+            }
+            if (checkpoint.isCompleted()) {
+                return toDto(checkpoint);
+            }
+
+            long resumeFrom = checkpoint.getLines();
+            long importedBefore = checkpoint.getImported();
+            long start = System.nanoTime();
+
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Function<String, ImportedUser> parser = csv ? csvParser(reader.readLine()) : this::parseJson;
+                List<ImportedUser> chunk = new ArrayList<>(chunkSize);
+                int rejected = 0;
+                long line = 0;
+                String text;
+
+                while ((text = reader.readLine()) != null) {
+                    if (++line <= resumeFrom) {
+                        continue;
+                    }
+
+                    if (!text.isBlank()) {
+                        ImportedUser user = parser.apply(text);
+                        if (user != null) {
+                            chunk.add(user);
+                        } else {
+                            rejected++;
+                        }
+                    }
+
+                    if ((line - resumeFrom) % chunkSize == 0) {
+                        checkpoint = commitChunk(checkpoint, chunk, rejected, line, false);
+                        chunk.clear();
+                        rejected = 0;
+                    }
+                }
+
+                checkpoint = commitChunk(checkpoint, chunk, rejected, line, true);
+            }
+
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            long imported = checkpoint.getImported() - importedBefore;
+            log.info("Importación de {} completada: {} usuarios en {} ms ({} usuarios/s)",
+                fileName, imported, elapsedMillis, imported * 1000 / elapsedMillis);
+            return toDto(checkpoint);
+        } finally {
+            running.remove(fileName);
+        }
+    }
+
+    /**
+     * Obtiene el progreso de la importación de un archivo.
+     * @param fileName nombre del archivo
+     * @return progreso confirmado, vacío si el archivo no se ha empezado a importar
+     */
+    public Optional<UserImportProgressDto> getProgress(String fileName) {
+        return checkpointRepository.findById(fileName).map(UserImportService::toDto);
+    }
+
+    /**
+     * Inserta los usuarios nuevos de un bloque y guarda el punto de reanudación en la misma
+     * transacción. Si un registro concurrente provoca un duplicado se repite el bloque, que
+     * en el siguiente intento ya lo descarta.
+     */
+    private UserImportCheckpoint commitChunk(UserImportCheckpoint checkpoint, List<ImportedUser> chunk,
+                                             int rejected, long line, boolean completed) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        for (int attempt = 1; ; attempt++) {
+            List<User> inserted = new ArrayList<>(chunk.size());
+            try {
+                UserImportCheckpoint saved = shards.writeBatch(() -> {
+                    List<ImportedUser> fresh = newUsers(chunk);
+                    List<Long> ids = userIdAllocator.allocate(fresh.size());
+                    List<User> candidates = new ArrayList<>(fresh.size());
+                    for (int i = 0; i < fresh.size(); i++) {
+                        candidates.add(fresh.get(i).toUser(ids.get(i)));
+                    }
+                    // Los emails que ya ha reservado un registro concurrente se omiten
+                    inserted.addAll(emailClaims.claimAll(candidates));
+
+                    Map<Integer, List<User>> byShard = shards.groupByShard(inserted, User::getUsername);
+                    byShard.forEach((shard, users) -> {
+                        if (shard != 0) {
+                            shards.onShard(shard, () -> {
+                                transaction.executeWithoutResult(status -> insert(users));
+                                return null;
+                            });
+                        }
+                    });
+                    return transaction.execute(status -> {
+                        insert(byShard.getOrDefault(0, List.of()));
+                        return checkpointRepository.save(checkpoint.advance(
+                            line, inserted.size(), chunk.size() - inserted.size(), rejected, completed));
+                    });
+                });
+
+                List<String> usernames = inserted.stream().map(User::getUsername).toList();
+                userCache.invalidateAll(usernames);
+                usernames.forEach(usernameFilter::add);
+                log.debug("Importación de {}: {} líneas confirmadas, {} usuarios importados",
+                    saved.getSource(), saved.getLines(), saved.getImported());
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                releaseUninserted(inserted);
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Bloque de importación repetido por un duplicado concurrente", e);
+            }
+        }
+    }
+
+    /**
+     * Libera las reservas de email de los usuarios de un bloque fallido que no llegaron a
+     * insertarse; los de shards que ya confirmaron conservan la suya.
+     */
+    private void releaseUninserted(List<User> users) {
+        if (!shards.isSharded() || users.isEmpty()) {
+            return;
+        }
+
+        Set<String> existingUsernames = new HashSet<>();
+        shards.groupByShard(users, User::getUsername).forEach((shard, values) -> {
+            List<String> usernames = values.stream().map(User::getUsernameNormalized).toList();
+            existingUsernames.addAll(shards.onShard(shard, () -> userRepository.findExistingUsernames(usernames)));
+        });
+        emailClaims.releaseAll(users.stream()
+            .filter(user -> !existingUsernames.contains(user.getUsernameNormalized()))
+            .toList());
+    }
+
+    private void insert(List<User> users) {
+        if (!users.isEmpty()) {
+            jdbcTemplate.batchUpdate(BulkRegistrationService.INSERT_SQL, users, users.size(),
+                BulkRegistrationService::bind);
+        }
+    }
+
+    /**
+     * Descarta los usuarios repetidos dentro del bloque y los que ya existen en la tabla, sin
+     * distinguir mayúsculas, con una consulta por columna para todo el bloque (por shard, en el
+     * caso de los nombres).
+     */
+    private List<ImportedUser> newUsers(List<ImportedUser> chunk) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<ImportedUser> unique = new ArrayList<>(chunk.size());
+
+        for (ImportedUser user : chunk) {
+            String username = UsernameNormalizer.normalize(user.username());
+            String email = UsernameNormalizer.normalizeEmail(user.email());
+            if (!usernames.contains(username) && !emails.contains(email)) {
+                usernames.add(username);
+                emails.add(email);
+                unique.add(user);
+            }
+        }
+
+        if (unique.isEmpty()) {
+            return unique;
+        }
+
+        Set<String> existingUsernames = new HashSet<>();
+        shards.groupByShard(usernames, Function.identity()).forEach((shard, values) ->
+            existingUsernames.addAll(shards.onShard(shard, () -> userRepository.findExistingUsernames(values))));
+        Set<String> existingEmails = new HashSet<>();
+        shards.scatter(shard -> userRepository.findExistingEmails(emails)).forEach(existingEmails::addAll);
+
+        return unique.stream()
+            .filter(user -> !existingUsernames.contains(UsernameNormalizer.normalize(user.username()))
+                && !existingEmails.contains(UsernameNormalizer.normalizeEmail(user.email())))
+            .toList();
+    }
+
+    private Path resolve(String fileName) {
+        Path base = Paths.get(directory).toAbsolutePath().normalize();
+        Path file = base.resolve(fileName).normalize();
+
+        // Solo se admiten archivos directamente dentro del directorio de importación
+        if (!base.equals(file.getParent())) {
+            throw new RuntimeException("Archivo de importación no válido");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new RuntimeException("Archivo de importación no encontrado");
+        }
+
+        return file;
+    }
+
+    private static boolean isCsv(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+
+        if (lower.endsWith(".csv")) {
+            return true;
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return false;
+        }
+        throw new RuntimeException("Formato de importación no soportado, use .csv, .ndjson o .jsonl");
+    }
+
+    /**
+     * Crea el lector de filas CSV a partir de la cabecera, que indica la posición de cada campo.
+     * Los valores no pueden contener comas; las comillas que los rodean se eliminan.
+     */
+    private static Function<String, ImportedUser> csvParser(String header) {
+        if (header == null) {
+            throw new RuntimeException("El archivo CSV no tiene cabecera");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(unquote(names[i]).toLowerCase(Locale.ROOT), i);
+        }
+
+        Integer username = columns.get("username");
+        Integer email = columns.get("email");
+        Integer password = columns.get("password");
+        if (username == null || email == null || password == null) {
+            throw new RuntimeException("La cabecera CSV debe incluir username, email y password");
+        }
+
+        int required = Math.max(username, Math.max(email, password));
+        return line -> {
+            String[] values = line.split(",", -1);
+            return values.length <= required
+                ? null
+                : ImportedUser.of(unquote(values[username]), unquote(values[email]), unquote(values[password]));
+        };
+    }
+
+    private ImportedUser parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return ImportedUser.of(node.path("username").asText(null), node.path("email").asText(null),
+                node.path("password").asText(null));
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    private static UserImportProgressDto toDto(UserImportCheckpoint checkpoint) {
+        return new UserImportProgressDto(checkpoint.getSource(), checkpoint.getLines(), checkpoint.getImported(),
+            checkpoint.getSkipped(), checkpoint.getRejected(), checkpoint.isCompleted(), checkpoint.getUpdatedAt());
+    }
+
+    /**
+     * Usuario leído del archivo con su hash BCrypt original.
+     */
+    private record ImportedUser(String username, String email, String passwordHash) {
+
+        /**
+         * Valida los campos de una fila.
+         * @return usuario, o null si falta algún campo o el hash no es BCrypt $2a$/$2b$
+         */
+        static ImportedUser of(String username, String email, String passwordHash) {
+            if (username == null || username.isBlank() || username.length() > MAX_USERNAME_LENGTH
+                || email == null || !email.contains("@")
+                || passwordHash == null || !BCRYPT_HASH.matcher(passwordHash).matches()) {
+                return null;
+            }
+            return new ImportedUser(username, email, passwordHash);
+        }
+
+        User toUser(Long id) {
+            User user = new User(username, passwordHash, email);
+            user.setId(id);
+            return user;
+        }
+    }
+}
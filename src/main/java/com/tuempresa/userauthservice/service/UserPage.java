@@ -0,0 +1,40 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+
+import java.util.List;
+
+/**
+ * Página de usuarios obtenida con paginación por clave.
+ * @param users usuarios de la página
+ * @param nextCursor cursor opaco de la página siguiente, null si es la última
+ */
+public record UserPage(List<UserInfoDto> users, String nextCursor) {
+
+    /**
+     * Tamaño de página efectivo.
+     * @param size tamaño solicitado
+     * @return tamaño entre 1 y {@value UserService#MAX_PAGE_SIZE}
+     */
+    static int limit(int size) {
+        return Math.max(1, Math.min(size, UserService.MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Construye la página a partir de una consulta que pidió un usuario de más.
+     * @param users hasta {@code limit + 1} usuarios en el orden de la paginación
+     * @param limit tamaño de página
+     * @param byCreatedAt si la página se ordena por fecha de creación
+     * @return página con el cursor de la siguiente si el usuario extra existe
+     */
+    static UserPage of(List<UserInfoDto> users, int limit, boolean byCreatedAt) {
+        if (users.size() <= limit) {
+            return new UserPage(users, null);
+        }
+
+        List<UserInfoDto> page = users.subList(0, limit);
+        UserInfoDto last = page.get(limit - 1);
+        return new UserPage(page,
+            new UserPageCursor(byCreatedAt ? last.getCreatedAt() : null, last.getId()).encode());
+    }
+}
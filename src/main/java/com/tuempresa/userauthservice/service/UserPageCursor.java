@@ -0,0 +1,67 @@
+package com.tuempresa.userauthservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de la paginación por clave: el último usuario devuelto.
+ * Se serializa en Base64 URL para que el cliente lo trate como un valor opaco.
+ * @param createdAt fecha de creación del último usuario, null si la página se ordena por id
+ * @param id id del último usuario
+ */
+record UserPageCursor(LocalDateTime createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Serializa el cursor.
+     * @return cursor opaco
+     */
+    String encode() {
+        String value = createdAt != null ? createdAt + String.valueOf(SEPARATOR) + id : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Interpreta el cursor de una petición y comprueba que corresponde al orden de sus filtros.
+     * @param cursor cursor opaco, null para la primera página
+     * @param byCreatedAt si la petición filtra por fecha de creación
+     * @return posición de la página anterior, null si no hay cursor
+     * @throws RuntimeException si el cursor no es válido para los filtros indicados
+     */
+    static UserPageCursor decode(String cursor, boolean byCreatedAt) {
+        if (cursor == null) {
+            return null;
+        }
+
+        UserPageCursor after = decode(cursor);
+        if ((after.createdAt() != null) != byCreatedAt) {
+            throw new RuntimeException("Cursor inválido");
+        }
+        return after;
+    }
+
+    /**
+     * Interpreta un cursor recibido del cliente.
+     * @param cursor cursor opaco
+     * @return posición de la página anterior
+     * @throws RuntimeException si el cursor no es válido
+     */
+    static UserPageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new UserPageCursor(null, Long.parseLong(value));
+            }
+            return new UserPageCursor(
+                LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+}
@@ -1,78 +1,183 @@
 package com.tuempresa.userauthservice.service;
 
+import com.tuempresa.userauthservice.dto.UserInfoDto;
 import com.tuempresa.userauthservice.dto.UserLoginDto;
 import com.tuempresa.userauthservice.dto.UserRegistrationDto;
 import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.UserCredentials;
 import com.tuempresa.userauthservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Servicio para la gestión de usuarios y autenticación.
  */
 @Service
+@Profile("!reactive")
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private static final int DEACTIVATION_BATCH_SIZE = 1000;
+
+    /** Tamaño máximo de página del listado de usuarios. */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<UserInfoDto> BY_ID = Comparator.comparing(UserInfoDto::getId);
+
+    private static final Comparator<UserInfoDto> BY_CREATED_AT =
+        Comparator.comparing(UserInfoDto::getCreatedAt).thenComparing(BY_ID);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private LoginAttemptCounter loginAttemptCounter;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private UserEmailClaims emailClaims;
+
     /**
      * Registra un nuevo usuario en el sistema.
+     * Se realiza un único INSERT y se delega la detección de duplicados, sin distinguir
+     * mayúsculas, en las restricciones únicas de {@code users.username_normalized} y
+     * {@code users.email_normalized}, evitando consultas previas y la carrera entre la
+     * verificación y la inserción. Con la tabla
+     * particionada, la restricción de email solo cubre el shard del usuario, y el email se
+     * reserva antes en {@link UserEmailClaims}.
      * @param registrationDto datos del usuario a registrar
-     * @return usuario registrado
-     * @throws RuntimeException si el usuario o email ya existen
+     * @return usuario registrado o motivo del rechazo si el usuario o email ya existen
+     * @throws HashingCapacityExceededException si el pool de hashing está saturado
      */
-    public User registerUser(UserRegistrationDto registrationDto) {
-        // Verificar si el usuario ya existe
-        if (userRepository.existsByUsername(registrationDto.getUsername())) {
-            throw new RuntimeException("El nombre de usuario ya está en uso");
-        }
-
-        // Verificar si el email ya existe
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new RuntimeException("El email ya está registrado");
-        }
-
+    public RegistrationResult registerUser(UserRegistrationDto registrationDto) {
         // Crear nuevo usuario
         User user = new User();
         user.setUsername(registrationDto.getUsername());
-        user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
+        user.setPassword(hashingExecutor.execute(() -> passwordEncoder.encode(registrationDto.getPassword())));
         user.setEmail(registrationDto.getEmail());
 
-        return userRepository.save(user);
+        if (!emailClaims.claim(user)) {
+            return RegistrationResult.Failure.EMAIL_TAKEN;
+        }
+
+        User saved;
+        try {
+            saved = shards.write(user.getUsername(), () -> userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            emailClaims.release(user);
+            return RegistrationResult.Failure.of(e);
+        }
+
+        userCache.invalidate(user.getUsername());
+        usernameFilter.add(user.getUsername());
+        readYourWrites.recordWrite(user.getUsername());
+        return new RegistrationResult.Registered(saved);
     }
 
     /**
      * Autentica un usuario con sus credenciales.
+     * Los nombres que {@link UsernameFilter} descarta no llegan a la base de datos; para el
+     * resto solo se consultan id, hash de contraseña y estado, sin cargar la entidad, y se
+     * sirven desde {@link UserCache} en los logins repetidos, leyendo de una réplica salvo
+     * que el usuario se haya escrito hace poco en este nodo. Los usuarios bloqueados por
+     * {@link LoginAttemptCounter} se rechazan antes de consultar o verificar la contraseña.
      * @param loginDto credenciales del usuario
-     * @return usuario autenticado
-     * @throws RuntimeException si las credenciales son inválidas
+     * @return usuario autenticado o motivo del rechazo
+     * @throws HashingCapacityExceededException si el pool de hashing está saturado
      */
-    public User authenticateUser(UserLoginDto loginDto) {
-        Optional<User> userOpt = userRepository.findByUsername(loginDto.getUsername());
+    public AuthResult authenticateUser(UserLoginDto loginDto) {
+        if (!usernameFilter.mightExist(loginDto.getUsername())) {
+            return AuthResult.Failure.USER_NOT_FOUND;
+        }
+
+        if (loginAttemptCounter.isLocked(loginDto.getUsername())) {
+            return AuthResult.Failure.LOCKED;
+        }
+
+        Optional<UserCredentials> credentialsOpt =
+            userCache.getCredentials(loginDto.getUsername(),
+                username -> shards.read(username,
+                    () -> readYourWrites.read(username,
+                        () -> userRepository.findCredentialsByUsername(UsernameNormalizer.normalize(username)))));
 
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("Usuario no encontrado");
+        if (credentialsOpt.isEmpty()) {
+            return AuthResult.Failure.USER_NOT_FOUND;
         }
 
-        User user = userOpt.get();
+        UserCredentials credentials = credentialsOpt.get();
+
+        if (!hashingExecutor.execute(() -> passwordEncoder.matches(loginDto.getPassword(), credentials.password()))) {
+            loginAttemptCounter.recordFailure(loginDto.getUsername());
+            return AuthResult.Failure.INVALID_CREDENTIALS;
+        }
 
-        if (!passwordEncoder.matches(loginDto.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Credenciales inválidas");
+        if (!Boolean.TRUE.equals(credentials.isActive())) {
+            return AuthResult.Failure.INACTIVE_USER;
         }
 
-        if (!user.getIsActive()) {
-            throw new RuntimeException("Usuario inactivo");
+        if (passwordEncoder.upgradeEncoding(credentials.password())) {
+            rehashPassword(credentials.id(), loginDto.getUsername(), loginDto.getPassword());
         }
 
-        return user;
+        loginAttemptCounter.recordSuccess(loginDto.getUsername());
+        return new AuthenticatedUser(credentials.id(), loginDto.getUsername());
+    }
+
+    /**
+     * Vuelve a generar el hash de la contraseña con el coste calibrado actual.
+     * Si el pool de hashing está saturado se pospone al siguiente login sin afectar a este.
+     * @param userId id del usuario autenticado
+     * @param username nombre de usuario
+     * @param rawPassword contraseña en claro ya verificada
+     */
+    private void rehashPassword(Long userId, String username, String rawPassword) {
+        try {
+            String hash = hashingExecutor.execute(() -> passwordEncoder.encode(rawPassword));
+            shards.write(username, () -> userRepository.updatePassword(userId, hash));
+            userCache.invalidate(username);
+            readYourWrites.recordWrite(username);
+        } catch (HashingCapacityExceededException e) {
+            log.debug("Rehash de contraseña pospuesto para {}: pool de hashing saturado", username);
+        }
     }
 
     /**
@@ -81,83 +186,120 @@ public class UserService {
      * @return Optional con el usuario si existe
      */
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return shards.read(username, () -> readYourWrites.read(username,
+            () -> userRepository.findByUsername(UsernameNormalizer.normalize(username))));
     }
 
     /**
-     * Obtiene la lista de todos los usuarios registrados.
-     * @return lista de usuarios
+     * Obtiene una página de usuarios con paginación por clave, cuyo coste no depende
+     * de la profundidad de la página. Con la tabla particionada se pide la página a todos los
+     * shards en paralelo y se combinan en el orden de la paginación.
+     * @param active filtro de estado, null para no filtrar
+     * @param createdFrom inicio inclusivo del rango de creación, null para no filtrar
+     * @param createdTo fin exclusivo del rango de creación, null para no filtrar
+     * @param cursor cursor devuelto por la página anterior, null para la primera
+     * @param size tamaño de página solicitado, limitado a {@value #MAX_PAGE_SIZE}
+     * @return página de usuarios con el cursor de la siguiente
+     * @throws RuntimeException si el cursor no es válido para los filtros indicados
      */
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public UserPage getUsersPage(Boolean active, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                 String cursor, int size) {
+        boolean byCreatedAt = createdFrom != null || createdTo != null;
+        UserPageCursor after = UserPageCursor.decode(cursor, byCreatedAt);
+        int limit = UserPage.limit(size);
+
+        // Se pide un usuario de más para saber si existe una página siguiente
+        List<List<UserInfoDto>> pages = shards.scatter(shard -> userRepository.findPage(active, createdFrom, createdTo,
+            after != null ? after.createdAt() : null, after != null ? after.id() : null, limit + 1));
+        List<UserInfoDto> users = pages.size() == 1 ? pages.get(0) : pages.stream()
+            .flatMap(List::stream)
+            .sorted(byCreatedAt ? BY_CREATED_AT : BY_ID)
+            .limit(limit + 1)
+            .toList();
+
+        return UserPage.of(users, limit, byCreatedAt);
     }
 
     /**
-     * Desactiva un usuario (logout lógico) usando un token.
+     * Cierra la sesión asociada a un token revocándolo en memoria, sin acceder a la base de datos.
      * @param token token de autenticación
      * @throws RuntimeException si el token es inválido
      */
     public void logoutUser(String token) {
-        // Validar que el token no esté vacío
-        if (token == null || token.trim().isEmpty()) {
-            throw new RuntimeException("Token inválido");
-        }
-
-        // Para tokens inválidos o mal formados, lanzar excepción
-        if (token.equals("token_invalido") || token.length() < 10) {
-            throw new RuntimeException("Token inválido");
-        }
+        AuthToken authToken = tokenService.verify(token)
+            .orElseThrow(() -> new RuntimeException("Token inválido"));
 
-        // Simular validación de token válido
-        if (token.equals("token_de_autenticacion")) {
-            String username = getUsernameFromToken(token);
-            Optional<User> userOpt = userRepository.findByUsername(username);
-
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                user.setIsActive(false);
-                userRepository.save(user);
-            }
-        } else {
-            throw new RuntimeException("Token inválido");
-        }
+        tokenService.revoke(authToken);
     }
 
     /**
-     * Desactiva un usuario (logout lógico) por nombre de usuario.
+     * Desactiva un usuario (logout lógico) por nombre de usuario con un único UPDATE.
      * @param username nombre de usuario
-     * @return true si se desactivó correctamente
+     * @return true si el usuario estaba activo y se desactivó
      */
     public boolean logoutUserByUsername(String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        int deactivated = shards.write(username,
+            () -> userRepository.deactivateByUsername(UsernameNormalizer.normalize(username)));
+        userCache.invalidate(username);
+        readYourWrites.recordWrite(username);
+        return deactivated > 0;
+    }
+
+    /**
+     * Desactiva varios usuarios (logout forzado) en sentencias UPDATE por lotes,
+     * para no superar el límite de parámetros de la cláusula IN, y revoca sus tokens y
+     * sesiones vigentes.
+     * @param usernames nombres de usuario
+     * @return número de usuarios desactivados
+     */
+    public int forceLogout(Collection<String> usernames) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(usernames));
+        int deactivated = 0;
 
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setIsActive(false);
-            userRepository.save(user);
-            return true;
+        for (int from = 0; from < distinct.size(); from += DEACTIVATION_BATCH_SIZE) {
+            int to = Math.min(from + DEACTIVATION_BATCH_SIZE, distinct.size());
+            List<String> batch = distinct.subList(from, to);
+            deactivated += shards.writeBatch(() -> deactivate(shards.groupByShard(batch, Function.identity())));
+            userCache.invalidateAll(batch);
+            batch.forEach(readYourWrites::recordWrite);
+            batch.forEach(this::revokeAccess);
         }
 
-        return false;
+        return deactivated;
+    }
+
+    private void revokeAccess(String username) {
+        tokenService.revokeUser(username);
+        sessionStore.invalidateUser(username);
+    }
+
+    private int deactivate(Map<Integer, List<String>> usernamesByShard) {
+        int deactivated = 0;
+        for (Map.Entry<Integer, List<String>> group : usernamesByShard.entrySet()) {
+            List<String> normalized = group.getValue().stream().map(UsernameNormalizer::normalize).toList();
+            deactivated += shards.onShard(group.getKey(), () -> userRepository.deactivateByUsernameIn(normalized));
+        }
+        return deactivated;
     }
 
     /**
-     * Extrae el nombre de usuario de un token (simulación simple).
+     * Extrae el nombre de usuario de un token firmado.
      * @param token token de autenticación
      * @return nombre de usuario
+     * @throws RuntimeException si el token es inválido o ha expirado
      */
     public String getUsernameFromToken(String token) {
-        // Simulación: siempre retorna un usuario fijo para pruebas
-        return "usuario123";
+        return tokenService.verify(token)
+            .map(AuthToken::username)
+            .orElseThrow(() -> new RuntimeException("Token inválido"));
     }
 
     /**
-     * Valida si el token es válido (simulación simple).
+     * Valida firma y expiración del token sin acceder a la base de datos.
      * @param token token de autenticación
      * @return true si es válido, false si no
      */
     public boolean isTokenValid(String token) {
-        // Simulación: solo el token "token_de_autenticacion" es válido
-        return "token_de_autenticacion".equals(token);
+        return tokenService.verify(token).isPresent();
     }
 }
@@ -0,0 +1,225 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserShardDto;
+import com.tuempresa.userauthservice.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Movimiento de grupos de usuarios entre shards.
+ * <p>
+ * Con las escrituras de usuarios de este nodo detenidas, se recorre cada shard por páginas de
+ * id y los usuarios de los grupos que salen se copian por lotes a su shard de destino. Después
+ * se cambia la asignación de los grupos y se borran del origen. Cada paso es repetible: si un
+ * movimiento se interrumpe, el siguiente borra las copias que quedaron en el shard que no
+ * corresponde y vuelve a copiar lo pendiente.
+ * <p>
+ * El movimiento solo detiene las escrituras del nodo que lo ejecuta; con varios nodos deben
+ * detenerse las escrituras del resto mientras dura.
+ */
+@Service
+@Profile("!reactive")
+public class UserShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserShardRebalancer.class);
+
+    private static final String PAGE_SQL = "SELECT id, username, password, email, created_at, is_active "
+        + "FROM users WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+    private static final String DELETE_SQL = "DELETE FROM users WHERE id = ?";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> {
+        User user = new User(resultSet.getString("username"), resultSet.getString("password"),
+            resultSet.getString("email"));
+        user.setId(resultSet.getLong("id"));
+        user.setCreatedAt(resultSet.getTimestamp("created_at").toLocalDateTime());
+        user.setIsActive(resultSet.getBoolean("is_active"));
+        return user;
+    };
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auth.sharding.move-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Resultado de un movimiento de grupos.
+     * @param movedBuckets grupos que han cambiado de shard
+     * @param movedUsers usuarios copiados a su nuevo shard
+     * @param removedCopies copias sobrantes de movimientos interrumpidos que se han borrado
+     */
+    public record Result(int movedBuckets, long movedUsers, long removedCopies) {
+    }
+
+    /**
+     * Reparto actual de grupos y usuarios por shard.
+     * @return un elemento por shard
+     */
+    public List<UserShardDto> getShards() {
+        int[] assignment = shards.getAssignment();
+        List<Long> users = shards.scatter(shard -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        List<UserShardDto> result = new ArrayList<>(users.size());
+
+        for (int shard = 0; shard < users.size(); shard++) {
+            int buckets = 0;
+            for (int owner : assignment) {
+                if (owner == shard) {
+                    buckets++;
+                }
+            }
+            result.add(new UserShardDto(shard, buckets, users.get(shard)));
+        }
+        return result;
+    }
+
+    /**
+     * Mueve los grupos cuyo shard no coincide con el reparto equilibrado del anillo de hash
+     * consistente, por ejemplo tras añadir un shard.
+     * @return grupos y usuarios movidos
+     */
+    public Result rebalance() {
+        int[] target = shards.targetAssignment();
+        Map<Integer, Integer> moves = new TreeMap<>();
+        for (int bucket = 0; bucket < target.length; bucket++) {
+            moves.put(bucket, target[bucket]);
+        }
+        return move(moves);
+    }
+
+    /**
+     * Mueve un grupo de usuarios a otro shard.
+     * @param bucket grupo a mover
+     * @param target shard de destino
+     * @return grupos y usuarios movidos
+     * @throws RuntimeException si el grupo o el shard no existen
+     */
+    public Result moveBucket(int bucket, int target) {
+        if (bucket < 0 || bucket >= shards.getBucketCount()) {
+            throw new RuntimeException("Grupo de usuarios inválido");
+        }
+        if (target < 0 || target >= shards.getShardCount()) {
+            throw new RuntimeException("Shard inválido");
+        }
+        return move(Map.of(bucket, target));
+    }
+
+    private Result move(Map<Integer, Integer> requested) {
+        if (!shards.isSharded()) {
+            return new Result(0, 0, 0);
+        }
+
+        return shards.exclusive(() -> {
+            int[] current = shards.getAssignment();
+            Map<Integer, Integer> moves = new TreeMap<>();
+            requested.forEach((bucket, target) -> {
+                if (current[bucket] != target) {
+                    moves.put(bucket, target);
+                }
+            });
+
+            long start = System.nanoTime();
+            Map<Integer, List<Long>> toDelete = new HashMap<>();
+            long movedUsers = 0;
+            long removedCopies = 0;
+
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                List<Long> moved = new ArrayList<>();
+                List<Long> stale = new ArrayList<>();
+                copyLeaving(shard, current, moves, moved, stale);
+                movedUsers += moved.size();
+                removedCopies += stale.size();
+                moved.addAll(stale);
+                toDelete.put(shard, moved);
+            }
+
+            if (!moves.isEmpty()) {
+                shards.assign(moves);
+            }
+            toDelete.forEach(this::delete);
+
+            log.info("{} grupos movidos entre shards: {} usuarios copiados y {} copias sobrantes borradas en {} ms",
+                moves.size(), movedUsers, removedCopies, (System.nanoTime() - start) / 1_000_000);
+            return new Result(moves.size(), movedUsers, removedCopies);
+        });
+    }
+
+    /**
+     * Recorre un shard y copia a su destino los usuarios de los grupos que salen de él.
+     * Anota también los usuarios que no pertenecen al shard ni van a pertenecerle, que
+     * son restos de un movimiento interrumpido.
+     */
+    private void copyLeaving(int shard, int[] current, Map<Integer, Integer> moves,
+                             List<Long> moved, List<Long> stale) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long lastId = 0;
+
+        while (true) {
+            long after = lastId;
+            List<User> page = shards.onShard(shard, () -> jdbcTemplate.query(PAGE_SQL, USER_ROW_MAPPER, after, batchSize));
+            if (page.isEmpty()) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).getId();
+
+            Map<Integer, List<User>> copies = new TreeMap<>();
+            for (User user : page) {
+                int bucket = shards.bucketOf(user.getUsername());
+                int owner = moves.getOrDefault(bucket, current[bucket]);
+                if (owner == shard) {
+                    continue;
+                }
+                if (current[bucket] == shard) {
+                    copies.computeIfAbsent(owner, target -> new ArrayList<>()).add(user);
+                    moved.add(user.getId());
+                } else {
+                    stale.add(user.getId());
+                }
+            }
+
+            // Se borran antes las copias que pudiera haber dejado un movimiento interrumpido
+            copies.forEach((target, users) -> shards.onShard(target, () -> {
+                transaction.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(DELETE_SQL, users, users.size(),
+                        (statement, user) -> statement.setLong(1, user.getId()));
+                    jdbcTemplate.batchUpdate(BulkRegistrationService.INSERT_SQL, users, users.size(),
+                        BulkRegistrationService::bind);
+                });
+                return null;
+            }));
+        }
+    }
+
+    private void delete(int shard, List<Long> ids) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            shards.onShard(shard, () -> {
+                transaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(DELETE_SQL, batch, batch.size(), (statement, id) -> statement.setLong(1, id)));
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.config.ShardRoutingDataSource;
+import com.tuempresa.userauthservice.model.UserShardAssignment;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import com.tuempresa.userauthservice.repository.UserRepository;
+import com.tuempresa.userauthservice.repository.UserShardAssignmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Reparto de los usuarios entre los shards configurados en {@code auth.sharding.urls}.
+ * <p>
+ * Cada nombre de usuario normalizado pertenece por hash a uno de {@code auth.sharding.buckets}
+ * grupos fijos, y cada grupo a un shard según la tabla {@code user_shard_assignments}. La
+ * asignación inicial coloca los grupos en un anillo de hash consistente, de modo que al añadir
+ * un shard el reequilibrado solo mueve la parte de los grupos que le corresponde. Mientras se
+ * mueven grupos se detienen las escrituras de usuarios de este nodo; las lecturas siguen en el
+ * shard de origen hasta que el grupo cambia de asignación.
+ * <p>
+ * Sin shards configurados todo se ejecuta en la base de datos única, sin bloqueos.
+ */
+@Component
+public class UserShardRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserShardRouter.class);
+
+    /** Puntos de cada shard en el anillo de hash consistente. */
+    private static final int VIRTUAL_NODES = 128;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private UserShardAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.sharding.buckets:1024}")
+    private int bucketCount;
+
+    /** Escrituras de usuarios (compartido) frente a movimientos de grupos (exclusivo). */
+    private final ReentrantReadWriteLock moveLock = new ReentrantReadWriteLock();
+
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile int[] assignment;
+
+    /**
+     * Carga la asignación de grupos o, la primera vez, la crea. Si el shard 0 ya tiene
+     * usuarios de antes del particionado, todos los grupos empiezan en él y el reequilibrado
+     * los reparte después.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!isSharded()) {
+            return;
+        }
+
+        if (!load()) {
+            boolean existingUsers = !onShard(0, () -> userRepository.findPage(null, null, null, null, null, 1)).isEmpty();
+            int[] initial = existingUsers ? new int[bucketCount] : ringAssignment(bucketCount, getShardCount());
+            List<UserShardAssignment> rows = new ArrayList<>(bucketCount);
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                rows.add(new UserShardAssignment(bucket, initial[bucket]));
+            }
+            onShard(0, () -> assignmentRepository.saveAll(rows));
+            assignment = initial;
+            log.info("Asignación de {} grupos de usuarios creada en {} shards", bucketCount,
+                existingUsers ? 1 : getShardCount());
+        }
+    }
+
+    /**
+     * Detiene el ejecutor de consultas en paralelo; las consultas en curso terminan antes de
+     * que se cierren los datasources.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scatterExecutor.close();
+    }
+
+    /**
+     * Vuelve a leer la asignación, por si otro nodo ha movido grupos.
+     */
+    @Scheduled(fixedDelayString = "${auth.sharding.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!isSharded()) {
+            return;
+        }
+
+        moveLock.readLock().lock();
+        try {
+            load();
+        } finally {
+            moveLock.readLock().unlock();
+        }
+    }
+
+    private boolean load() {
+        List<UserShardAssignment> saved = onShard(0, assignmentRepository::findAll);
+        if (saved.isEmpty()) {
+            return false;
+        }
+        if (saved.size() != bucketCount) {
+            throw new IllegalStateException("La asignación guardada tiene " + saved.size()
+                + " grupos y auth.sharding.buckets indica " + bucketCount);
+        }
+
+        int[] loaded = new int[bucketCount];
+        for (UserShardAssignment row : saved) {
+            if (row.getShard() >= getShardCount()) {
+                throw new IllegalStateException("El grupo " + row.getBucket() + " está en el shard "
+                    + row.getShard() + ", que no está configurado");
+            }
+            loaded[row.getBucket()] = row.getShard();
+        }
+        assignment = loaded;
+        return true;
+    }
+
+    public boolean isSharded() {
+        return shardRoutingDataSource != null;
+    }
+
+    public int getShardCount() {
+        return isSharded() ? shardRoutingDataSource.getShardCount() : 1;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Grupo de un nombre de usuario, según el hash de su forma normalizada.
+     * @param username nombre de usuario
+     * @return grupo entre 0 y {@code auth.sharding.buckets - 1}
+     */
+    public int bucketOf(String username) {
+        return (int) Math.floorMod(BloomFilter.hash64(UsernameNormalizer.normalize(username)), (long) bucketCount);
+    }
+
+    /**
+     * Shard que guarda un nombre de usuario.
+     * @param username nombre de usuario
+     * @return índice del shard, 0 sin particionado
+     */
+    public int shardOf(String username) {
+        return isSharded() ? assignment[bucketOf(username)] : 0;
+    }
+
+    /**
+     * Asignación actual de cada grupo a su shard.
+     * @return copia de la asignación, indexada por grupo
+     */
+    public int[] getAssignment() {
+        return isSharded() ? assignment.clone() : new int[bucketCount];
+    }
+
+    /**
+     * Asignación equilibrada para los shards configurados, según el anillo de hash consistente.
+     * @return shard de cada grupo
+     */
+    public int[] targetAssignment() {
+        return ringAssignment(bucketCount, getShardCount());
+    }
+
+    /**
+     * Ejecuta una operación con las conexiones dirigidas a un shard. Debe envolver la
+     * transacción completa.
+     * @param shard índice del shard
+     * @param action operación a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la operación
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return isSharded() ? ShardRoutingDataSource.on(shard, action) : action.get();
+    }
+
+    /**
+     * Lee de la base de datos del shard de un usuario.
+     * @param username nombre de usuario
+     * @param query lectura a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la lectura
+     */
+    public <T> T read(String username, Supplier<T> query) {
+        return onShard(shardOf(username), query);
+    }
+
+    /**
+     * Escribe en la base de datos del shard de un usuario, esperando a que termine el
+     * movimiento de grupos en curso si lo hay.
+     * @param username nombre de usuario
+     * @param action escritura a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de la escritura
+     */
+    public <T> T write(String username, Supplier<T> action) {
+        return writeBatch(() -> onShard(shardOf(username), action));
+    }
+
+    /**
+     * Ejecuta escrituras de varios usuarios sin que se muevan grupos entre medias; la
+     * operación elige el shard de cada una con {@link #onShard(int, Supplier)}.
+     * @param action escrituras a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado de las escrituras
+     */
+    public <T> T writeBatch(Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+
+        moveLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            moveLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta un movimiento de grupos con las escrituras de usuarios detenidas.
+     * @param action movimiento a ejecutar
+     * @param <T> tipo del resultado
+     * @return resultado del movimiento
+     */
+    <T> T exclusive(Supplier<T> action) {
+        moveLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            moveLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia el shard de varios grupos, una vez copiados sus usuarios. Solo se invoca dentro
+     * de {@link #exclusive(Supplier)}.
+     * @param moves shard de destino por grupo
+     */
+    void assign(Map<Integer, Integer> moves) {
+        List<UserShardAssignment> rows = new ArrayList<>(moves.size());
+        moves.forEach((bucket, shard) -> rows.add(new UserShardAssignment(bucket, shard)));
+        onShard(0, () -> assignmentRepository.saveAll(rows));
+
+        int[] next = assignment.clone();
+        moves.forEach((bucket, shard) -> next[bucket] = shard);
+        assignment = next;
+    }
+
+    /**
+     * Ejecuta una consulta en todos los shards en paralelo. Las consultas no deben escribir
+     * usuarios, porque pueden ejecutarse dentro de {@link #writeBatch(Supplier)}.
+     * @param query consulta a ejecutar, que recibe el índice del shard
+     * @param <T> tipo del resultado
+     * @return resultado de cada shard, en orden de shard
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        if (!isSharded()) {
+            return Collections.singletonList(query.apply(0));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(getShardCount());
+        for (int shard = 0; shard < getShardCount(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, () -> query.apply(target)), scatterExecutor));
+        }
+
+        // Se espera a todos los shards antes de propagar un error, para no dejar consultas en curso
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        return results;
+    }
+
+    /**
+     * Agrupa valores por el shard de su usuario.
+     * @param values valores a agrupar
+     * @param username nombre de usuario de cada valor
+     * @param <T> tipo de los valores
+     * @return valores de cada shard, en orden de shard y conservando el orden original
+     */
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> values, Function<T, String> username) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T value : values) {
+            groups.computeIfAbsent(shardOf(username.apply(value)), shard -> new ArrayList<>()).add(value);
+        }
+        return groups;
+    }
+
+    /**
+     * DataSource de un shard, para recorrer varios shards a la vez desde un mismo hilo.
+     * @param shard índice del shard
+     * @return DataSource del shard
+     */
+    DataSource dataSourceOf(int shard) {
+        return shardRoutingDataSource.getShard(shard);
+    }
+
+    /**
+     * Coloca cada grupo en el primer punto de shard que le sigue en el anillo.
+     */
+    static int[] ringAssignment(int buckets, int shards) {
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(BloomFilter.hash64("shard-" + shard + "#" + node), shard);
+            }
+        }
+
+        int[] placement = new int[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            Map.Entry<Long, Integer> owner = ring.ceilingEntry(BloomFilter.hash64("bucket-" + bucket));
+            placement[bucket] = (owner != null ? owner : ring.firstEntry()).getValue();
+        }
+        return placement;
+    }
+}
@@ -0,0 +1,271 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.config.ReplicaRoutingDataSource;
+import com.tuempresa.userauthservice.model.UsernameNormalizer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Filtro de Bloom de los nombres de usuario normalizados existentes, para descartar sin
+ * consultar la base de datos los logins de usuarios que no existen.
+ * <p>
+ * Se construye al arrancar leyendo la tabla de usuarios y se actualiza en cada registro de
+ * este nodo. Los registros de otros nodos se incorporan cada {@code auth.user-filter.sync-interval-ms}
+ * leyendo de la base de datos principal los usuarios creados desde la sincronización anterior,
+ * con un solapamiento de {@code auth.user-filter.sync-overlap-ms} para cubrir el desfase de
+ * relojes y las transacciones largas; ese intervalo es el tiempo máximo durante el que un usuario
+ * recién registrado en otro nodo recibe "Usuario no encontrado" en este. Los nombres escritos
+ * hace poco en este nodo ({@link ReadYourWritesTracker}) se consideran siempre posibles.
+ * <p>
+ * Hasta que termina la primera construcción, o si falla, todos los nombres se consideran
+ * posibles y la construcción se reintenta en la siguiente sincronización. Si las
+ * sincronizaciones fallan durante más de {@code auth.user-filter.max-staleness-ms} el filtro se
+ * descarta por la misma razón. Cada {@code auth.user-filter.rebuild-interval-ms} se reconstruye
+ * entero, dimensionado de nuevo según el número de usuarios actual; los registros que llegan
+ * durante la lectura se añaden también al filtro nuevo. Todas las lecturas van a la principal,
+ * nunca a una réplica que pueda ir retrasada.
+ */
+@Component
+public class UsernameFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private static final String USERNAMES_SQL = "SELECT username_normalized FROM users";
+
+    private static final String RECENT_USERNAMES_SQL = "SELECT username_normalized FROM users WHERE created_at >= ?";
+
+    private static final int FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Value("${auth.user-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${auth.user-filter.min-expected:10000}")
+    private long minExpected;
+
+    @Value("${auth.user-filter.sync-overlap-ms:60000}")
+    private long syncOverlapMillis;
+
+    @Value("${auth.user-filter.max-staleness-ms:60000}")
+    private long maxStalenessMillis;
+
+    private volatile BloomFilter current;
+
+    /** Inicio de la última lectura completada: los usuarios creados antes ya están en el filtro. */
+    private volatile LocalDateTime syncedFrom;
+
+    private volatile long syncedAtMillis;
+
+    private volatile BloomFilter building;
+
+    private final AtomicLong definiteMisses = new AtomicLong();
+
+    /** Serializa las reconstrucciones sin retener el hilo portador durante la lectura. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * Construye el filtro inicial una vez arrancada la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el filtro de nombres de usuario; se consultará siempre la base de datos", e);
+        }
+    }
+
+    /**
+     * Indica si el nombre de usuario puede existir.
+     * @param username nombre de usuario tal como se recibió
+     * @return false solo si seguro que no existe
+     */
+    public boolean mightExist(String username) {
+        BloomFilter filter = current;
+        if (filter == null || username == null) {
+            return true;
+        }
+        String normalized = UsernameNormalizer.normalize(username);
+        if (filter.mightContain(normalized) || readYourWrites.isRecentlyWritten(normalized)) {
+            return true;
+        }
+        definiteMisses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Añade un nombre de usuario recién registrado.
+     * @param username nombre de usuario
+     */
+    public void add(String username) {
+        String normalized = UsernameNormalizer.normalize(username);
+        // Se lee el filtro en construcción antes que el actual: si aún no existía, la lectura
+        // de la tabla empieza después de este registro y lo incluye
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(normalized);
+        }
+    }
+
+    /**
+     * Reconstruye el filtro con el tamaño adecuado al número de usuarios actual y lo
+     * sustituye de forma atómica. Con la tabla particionada se leen todos los shards en paralelo.
+     * @return filtro nuevo
+     */
+    @Scheduled(
+        fixedDelayString = "${auth.user-filter.rebuild-interval-ms:3600000}",
+        initialDelayString = "${auth.user-filter.rebuild-interval-ms:3600000}")
+    public BloomFilter rebuild() {
+        rebuildLock.lock();
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            long users = shards.scatter(shard -> ReplicaRoutingDataSource.onPrimary(
+                    () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class)))
+                .stream().mapToLong(Long::longValue).sum();
+            // Holgura para los registros posteriores antes de la siguiente reconstrucción
+            BloomFilter next = new BloomFilter(Math.max(minExpected, users * 2), falsePositiveRate);
+            building = next;
+            try {
+                readUsernames(next, USERNAMES_SQL);
+                current = next;
+                markSynced(started);
+            } finally {
+                building = null;
+            }
+
+            log.info("Filtro de nombres de usuario construido: {} usuarios, {} bits, {} hashes",
+                next.getInsertions(), next.getBitCount(), next.getHashCount());
+            return next;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Añade los usuarios creados en cualquier nodo desde la sincronización anterior. Si el
+     * filtro aún no existe, lo construye; si hay una reconstrucción en curso, no hace nada.
+     */
+    @Scheduled(
+        fixedDelayString = "${auth.user-filter.sync-interval-ms:1000}",
+        initialDelayString = "${auth.user-filter.sync-interval-ms:1000}")
+    public void sync() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            BloomFilter filter = current;
+            if (filter == null) {
+                rebuild();
+                return;
+            }
+            LocalDateTime started = LocalDateTime.now();
+            Timestamp since = Timestamp.valueOf(syncedFrom.minus(Duration.ofMillis(syncOverlapMillis)));
+            readUsernames(filter, RECENT_USERNAMES_SQL, since);
+            markSynced(started);
+        } catch (RuntimeException e) {
+            if (current != null && System.currentTimeMillis() - syncedAtMillis > maxStalenessMillis) {
+                current = null;
+                log.warn("El filtro de nombres de usuario lleva más de {} ms sin sincronizar; se descarta "
+                    + "hasta la siguiente construcción", maxStalenessMillis, e);
+            } else {
+                log.debug("No se pudo sincronizar el filtro de nombres de usuario", e);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Añade al filtro los nombres devueltos por la consulta en todos los shards, leyendo de
+     * la base de datos principal con un cursor de solo avance.
+     */
+    private void readUsernames(BloomFilter filter, String sql, Object... args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        shards.scatter(shard -> ReplicaRoutingDataSource.onPrimary(() -> {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.length; i++) {
+                        statement.setObject(i + 1, args[i]);
+                    }
+                    return statement;
+                },
+                resultSet -> {
+                    filter.put(resultSet.getString(1));
+                }
+            ));
+            return null;
+        }));
+    }
+
+    private void markSynced(LocalDateTime started) {
+        syncedFrom = started;
+        syncedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Tasa de falsos positivos estimada del filtro actual.
+     * @return probabilidad entre 0 y 1, o 1 si el filtro aún no está construido
+     */
+    public double estimatedFalsePositiveRate() {
+        BloomFilter filter = current;
+        return filter != null ? filter.estimatedFalsePositiveRate() : 1;
+    }
+
+    /**
+     * Logins descartados sin consultar la base de datos.
+     * @return número de descartes
+     */
+    public long getDefiniteMisses() {
+        return definiteMisses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.users.filter.false-positive-rate", this, UsernameFilter::estimatedFalsePositiveRate)
+            .description("Tasa de falsos positivos estimada del filtro de nombres de usuario")
+            .register(registry);
+        FunctionCounter.builder("auth.users.filter.misses", this, UsernameFilter::getDefiniteMisses)
+            .description("Logins de usuarios inexistentes resueltos sin consultar la base de datos")
+            .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+-- Migra users.id de IDENTITY a la secuencia users_seq con asignación pooled-lo (H2).
+-- Cada valor de la secuencia es el primer id de un bloque de auth.users.id.allocation-size ids,
+-- así que el INCREMENT BY debe coincidir con esa propiedad (50 por defecto).
+-- Con la base de datos en memoria el esquema lo crea Hibernate; este script es para bases de
+-- datos existentes y debe aplicarse con la aplicación detenida.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+-- El siguiente bloque empieza después del mayor id existente
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+
+-- Los ids los asigna la aplicación: la columna deja de generarlos
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
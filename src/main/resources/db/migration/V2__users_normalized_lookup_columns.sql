@@ -0,0 +1,28 @@
+-- Añade las columnas normalizadas de nombre de usuario y email, sobre las que se hacen las
+-- búsquedas sin distinguir mayúsculas, y mueve a ellas las restricciones únicas (H2).
+-- La aplicación las rellena al escribir con UsernameNormalizer (espacios, NFKC y minúsculas);
+-- aquí se calculan con TRIM y LOWER, que coinciden salvo en nombres con caracteres Unicode de
+-- compatibilidad, como letras de ancho completo.
+-- Con la base de datos en memoria el esquema lo crea Hibernate; este script es para bases de
+-- datos existentes y debe aplicarse con la aplicación detenida.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS username_normalized VARCHAR(255);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255);
+
+UPDATE users SET username_normalized = LOWER(TRIM(username)), email_normalized = LOWER(TRIM(email));
+
+ALTER TABLE users ALTER COLUMN username_normalized SET NOT NULL;
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+-- Los usuarios que solo se distinguen por mayúsculas impiden crear las restricciones; se
+-- localizan con:
+--   SELECT username_normalized, COUNT(*) FROM users GROUP BY username_normalized HAVING COUNT(*) > 1;
+--   SELECT email_normalized, COUNT(*) FROM users GROUP BY email_normalized HAVING COUNT(*) > 1;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_username;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uk_users_email;
+ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username_normalized);
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email_normalized);
+
+-- Índices secundarios del listado filtrado por estado o fecha de creación
+CREATE INDEX IF NOT EXISTS idx_users_active_id ON users (is_active, id);
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
@@ -0,0 +1,59 @@
+package com.tuempresa.userauthservice.config;
+
+import com.tuempresa.userauthservice.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * De Actuator solo el health es público; las métricas requieren el rol {@code ADMIN}.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:actuator-security",
+    "auth.admin.usernames=jefe"
+})
+@AutoConfigureMockMvc
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void health_sinToken_retorna200() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void metrics_sinToken_retorna401() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/auth.hashing.rejected"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metrics_usuarioSinRolAdmin_retorna403() throws Exception {
+        String token = tokenService.issue(null, "normal");
+
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void metrics_administrador_retorna200() throws Exception {
+        String token = tokenService.issue(null, "jefe");
+
+        mockMvc.perform(get("/actuator/metrics/auth.hashing.rejected").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,29 @@
+package com.tuempresa.userauthservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptStrengthCalibratorTest {
+
+    private final BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator();
+
+    @Test
+    void calibrate_objetivoMinimo_respetaCosteMinimo() {
+        assertEquals(10, calibrator.calibrate(Duration.ofNanos(1), 10, 16));
+    }
+
+    @Test
+    void calibrate_objetivoInalcanzable_respetaCosteMaximo() {
+        assertEquals(12, calibrator.calibrate(Duration.ofHours(1), 4, 12));
+    }
+
+    @Test
+    void calibrate_objetivoMayor_noReduceCoste() {
+        int rapido = calibrator.calibrate(Duration.ofMillis(5), 4, 20);
+        int lento = calibrator.calibrate(Duration.ofMillis(200), 4, 20);
+        assertTrue(lento >= rapido);
+    }
+}
@@ -0,0 +1,129 @@
+package com.tuempresa.userauthservice.config;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Enrutado entre dos bases de datos H2 que hacen de principal y réplica. La réplica no
+ * replica nada: recibe el esquema de la principal y los datos que inserta cada test, de
+ * modo que el origen de cada lectura se puede comprobar.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+    "auth.datasource.replica.urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL
+})
+class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private UserService userService;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(dataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+        String schema = tempDir.resolve("schema.sql").toString();
+        primary.execute("SCRIPT NODATA TO '" + schema + "'");
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM '" + schema + "'");
+    }
+
+    @Test
+    void findByUsername_transaccionDeSoloLectura_leeDeLaReplica() {
+        replica.update("INSERT INTO users (id, username, password, email, created_at, is_active, "
+                + "username_normalized, email_normalized) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            1_000_000L, "soloReplica", "hash", "soloReplica@email.com", Timestamp.valueOf(LocalDateTime.now()), true,
+            "soloreplica", "soloreplica@email.com");
+
+        assertTrue(userService.findByUsername("soloReplica").isPresent());
+        assertEquals(0, primary.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'soloReplica'", Integer.class));
+    }
+
+    @Test
+    void registerUser_lecturasPosteriores_vanALaPrincipal() {
+        RegistrationResult result = userService.registerUser(
+            new UserRegistrationDto("escrituraReciente", "contraseña123", "escrituraReciente@email.com"));
+
+        assertInstanceOf(RegistrationResult.Registered.class, result);
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'escrituraReciente'", Integer.class));
+        assertTrue(userService.findByUsername("escrituraReciente").isPresent());
+        assertInstanceOf(AuthenticatedUser.class,
+            userService.authenticateUser(new UserLoginDto("escrituraReciente", "contraseña123")));
+    }
+
+    @Test
+    void getConnection_replicaCaida_usaLaPrincipalHastaQueVuelva() throws SQLException {
+        assertEquals(1, replicaRoutingDataSource.getHealthyReplicaCount());
+
+        DataSource primaryDataSource = mock(DataSource.class);
+        DataSource replicaDataSource = mock(DataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        Connection replicaConnection = mock(Connection.class);
+        when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+        when(replicaDataSource.getConnection())
+            .thenThrow(new SQLException("Conexión rechazada"))
+            .thenReturn(replicaConnection);
+        when(replicaConnection.isValid(1)).thenReturn(true);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, List.of(replicaDataSource), 1);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertSame(primaryConnection, routing.getConnection());
+            assertEquals(0, routing.getHealthyReplicaCount());
+            // Mientras está caída no se le piden conexiones
+            assertSame(primaryConnection, routing.getConnection());
+            verify(replicaDataSource, times(1)).getConnection();
+
+            routing.checkReplicas();
+
+            assertEquals(1, routing.getHealthyReplicaCount());
+            assertSame(replicaConnection, routing.getConnection());
+            assertSame(primaryConnection, ReplicaRoutingDataSource.onPrimary(() -> {
+                try {
+                    return routing.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+}
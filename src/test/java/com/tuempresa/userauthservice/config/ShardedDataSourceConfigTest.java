@@ -0,0 +1,51 @@
+package com.tuempresa.userauthservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprobación al arrancar del escalonado de la secuencia de ids de cada shard, sobre una
+ * base de datos H2 preparada a mano como lo haría un script de migración.
+ */
+class ShardedDataSourceConfigTest {
+
+    private final JdbcTemplate jdbcTemplate =
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:sequence-check;DB_CLOSE_DELAY=-1"));
+
+    @Test
+    void verifySequence_escalonadoCorrecto_noFalla() {
+        createSequence(101, 800);
+
+        assertDoesNotThrow(() -> ShardedDataSourceConfig.verifySequence(jdbcTemplate, 2, 50, 16));
+        // Un inicio posterior de la misma clase de ids también es válido
+        createSequence(101 + 800 * 3, 800);
+        assertDoesNotThrow(() -> ShardedDataSourceConfig.verifySequence(jdbcTemplate, 2, 50, 16));
+    }
+
+    @Test
+    void verifySequence_sinEscalonar_fallaAlArrancar() {
+        createSequence(1, 50);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> ShardedDataSourceConfig.verifySequence(jdbcTemplate, 2, 50, 16));
+        assertTrue(exception.getMessage().contains("shard 2"));
+
+        createSequence(1, 800);
+        assertThrows(IllegalStateException.class, () -> ShardedDataSourceConfig.verifySequence(jdbcTemplate, 2, 50, 16));
+    }
+
+    @Test
+    void verifySequence_sinSecuencia_fallaAlArrancar() {
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS users_seq");
+
+        assertThrows(IllegalStateException.class, () -> ShardedDataSourceConfig.verifySequence(jdbcTemplate, 0, 50, 16));
+    }
+
+    private void createSequence(long start, long increment) {
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS users_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE users_seq START WITH " + start + " INCREMENT BY " + increment);
+    }
+}
@@ -1,18 +1,26 @@
 package com.tuempresa.userauthservice.controller;
 
+import com.tuempresa.userauthservice.config.SecurityConfig;
+import com.tuempresa.userauthservice.service.AuthRateLimiter;
+import com.tuempresa.userauthservice.service.ClientIpResolver;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
 import com.tuempresa.userauthservice.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.Mockito.doThrow;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, ClientIpResolver.class})
 class AuthControllerLogoutTest {
 
     @Autowired
@@ -21,6 +29,15 @@ class AuthControllerLogoutTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private SessionStore sessionStore;
+
+    @MockBean
+    private AuthRateLimiter rateLimiter;
+
     @Test
     void logout_tokenValido_ok() throws Exception {
         mockMvc.perform(post("/api/auth/logout")
@@ -34,6 +51,8 @@ class AuthControllerLogoutTest {
 
     @Test
     void logout_tokenInvalido_unauthorized() throws Exception {
+        doThrow(new RuntimeException("Token inválido")).when(userService).logoutUser("token_invalido");
+
         mockMvc.perform(post("/api/auth/logout")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
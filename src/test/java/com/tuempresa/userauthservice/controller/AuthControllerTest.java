@@ -1,27 +1,44 @@
 package com.tuempresa.userauthservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuempresa.userauthservice.config.SecurityConfig;
+import com.tuempresa.userauthservice.dto.UserInfoDto;
 import com.tuempresa.userauthservice.dto.UserLoginDto;
 import com.tuempresa.userauthservice.dto.UserRegistrationDto;
 import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.service.AuthRateLimiter;
+import com.tuempresa.userauthservice.service.AuthResult;
+import com.tuempresa.userauthservice.service.AuthSession;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.ClientIpResolver;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
+import com.tuempresa.userauthservice.service.UserPage;
 import com.tuempresa.userauthservice.service.UserService;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(AuthController.class)
+@WebMvcTest(controllers = AuthController.class, properties = "auth.rate-limit.trusted-proxies=127.0.0.1")
+@Import({SecurityConfig.class, ClientIpResolver.class})
 class AuthControllerTest {
 
     @Autowired
@@ -30,6 +47,15 @@ class AuthControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private SessionStore sessionStore;
+
+    @MockBean
+    private AuthRateLimiter rateLimiter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,7 +71,8 @@ class AuthControllerTest {
         user.setUsername("usuario123");
         user.setEmail("usuario@email.com");
 
-        when(userService.registerUser(any(UserRegistrationDto.class))).thenReturn(user);
+        when(userService.registerUser(any(UserRegistrationDto.class)))
+                .thenReturn(new RegistrationResult.Registered(user));
 
         mockMvc.perform(post("/api/auth/register")
                 .with(csrf())
@@ -53,7 +80,7 @@ class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(registrationDto)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.message").value("Registro exitoso"));
+                .andExpect(jsonPath("$.message").value("Usuario registrado exitosamente"));
 
         verify(userService).registerUser(any(UserRegistrationDto.class));
     }
@@ -67,7 +94,7 @@ class AuthControllerTest {
         registrationDto.setEmail("usuario@email.com");
 
         when(userService.registerUser(any(UserRegistrationDto.class)))
-                .thenThrow(new RuntimeException("Nombre de usuario ya registrado"));
+                .thenReturn(RegistrationResult.Failure.USERNAME_TAKEN);
 
         mockMvc.perform(post("/api/auth/register")
                 .with(csrf())
@@ -75,7 +102,7 @@ class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(registrationDto)))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.success").value(false))
-                .andExpect(jsonPath("$.message").value("Nombre de usuario ya registrado"));
+                .andExpect(jsonPath("$.message").value("El nombre de usuario ya está en uso"));
     }
 
     // TC003 - Registro con datos inválidos
@@ -101,11 +128,10 @@ class AuthControllerTest {
         loginDto.setUsername("usuario123");
         loginDto.setPassword("contraseña123");
 
-        User user = new User();
-        user.setUsername("usuario123");
-        user.setIsActive(true);
-
-        when(userService.authenticateUser(any(UserLoginDto.class))).thenReturn(user);
+        when(userService.authenticateUser(any(UserLoginDto.class)))
+                .thenReturn(new AuthenticatedUser(null, "usuario123"));
+        when(sessionStore.create(any(), eq("usuario123")))
+                .thenReturn(new AuthSession("sesion123", 1L, "usuario123", 0L, 0L));
 
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
@@ -126,7 +152,7 @@ class AuthControllerTest {
         loginDto.setPassword("contraseñaIncorrecta");
 
         when(userService.authenticateUser(any(UserLoginDto.class)))
-                .thenThrow(new RuntimeException("Credenciales inválidas"));
+                .thenReturn(AuthResult.Failure.INVALID_CREDENTIALS);
 
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
@@ -145,7 +171,7 @@ class AuthControllerTest {
         loginDto.setPassword("contraseña123");
 
         when(userService.authenticateUser(any(UserLoginDto.class)))
-                .thenThrow(new RuntimeException("Usuario no encontrado"));
+                .thenReturn(AuthResult.Failure.USER_NOT_FOUND);
 
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
@@ -198,12 +224,11 @@ class AuthControllerTest {
     // Test adicional para listar usuarios
     @Test
     void getUsers_usuariosExistentes_retorna200ConLista() throws Exception {
-        User user1 = new User();
-        user1.setUsername("usuario1");
-        User user2 = new User();
-        user2.setUsername("usuario2");
+        UserInfoDto user1 = new UserInfoDto(1L, "usuario1", "usuario1@ejemplo.com", null, true);
+        UserInfoDto user2 = new UserInfoDto(2L, "usuario2", "usuario2@ejemplo.com", null, true);
 
-        when(userService.getAllUsers()).thenReturn(Arrays.asList(user1, user2));
+        when(userService.getUsersPage(null, null, null, null, 50))
+                .thenReturn(new UserPage(Arrays.asList(user1, user2), null));
 
         mockMvc.perform(get("/api/auth/users")
                 .with(csrf()))
@@ -215,7 +240,8 @@ class AuthControllerTest {
 
     @Test
     void getUsers_sinUsuarios_retorna200ConArregloVacio() throws Exception {
-        when(userService.getAllUsers()).thenReturn(Collections.emptyList());
+        when(userService.getUsersPage(null, null, null, null, 50))
+                .thenReturn(new UserPage(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/auth/users")
                 .with(csrf()))
@@ -224,4 +250,115 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.data").isArray())
                 .andExpect(jsonPath("$.data.length()").value(0));
     }
+
+    @Test
+    void status_sesionActiva_retorna200ConUsuario() throws Exception {
+        when(sessionStore.find("sesion123"))
+                .thenReturn(Optional.of(new AuthSession("sesion123", 1L, "usuario123", 0L, 0L)));
+
+        mockMvc.perform(get("/api/auth/status")
+                .with(user("usuario123"))
+                .cookie(new Cookie("AUTH_SESSION", "sesion123")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Sesión activa"))
+                .andExpect(jsonPath("$.data").value("usuario123"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void status_sinSesion_retorna401ConCuerpoPrecalculado() throws Exception {
+        mockMvc.perform(get("/api/auth/status")
+                .with(user("usuario123")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().json("{\"success\": false, \"message\": \"No hay sesión activa\", \"data\": null}", true));
+    }
+
+    @Test
+    void getUsers_conMasPaginas_retornaCursorSiguiente() throws Exception {
+        UserInfoDto user1 = new UserInfoDto(1L, "usuario1", "usuario1@ejemplo.com", null, true);
+
+        when(userService.getUsersPage(true, null, null, "Mg", 1))
+                .thenReturn(new UserPage(Collections.singletonList(user1), "Mw"));
+
+        mockMvc.perform(get("/api/auth/users")
+                .param("active", "true")
+                .param("cursor", "Mg")
+                .param("size", "1")
+                .with(user("usuario123")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "Mw"))
+                .andExpect(jsonPath("$.data.length()").value(1));
+    }
+
+    @Test
+    void getUsers_cursorInvalido_retorna400() throws Exception {
+        when(userService.getUsersPage(null, null, null, "xx", 50))
+                .thenThrow(new RuntimeException("Cursor inválido"));
+
+        mockMvc.perform(get("/api/auth/users")
+                .param("cursor", "xx")
+                .with(user("usuario123")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor inválido"));
+    }
+
+    @Test
+    void login_limiteDeTasaSuperado_retorna429SinAutenticar() throws Exception {
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setUsername("usuario123");
+        loginDto.setPassword("contraseña123");
+
+        when(rateLimiter.tryAcquireLogin(eq("usuario123"), any())).thenReturn(1500L);
+
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void register_limiteDeTasaSuperado_retorna429SinRegistrar() throws Exception {
+        UserRegistrationDto registrationDto = new UserRegistrationDto();
+        registrationDto.setUsername("usuario123");
+        registrationDto.setPassword("contraseña123");
+        registrationDto.setEmail("usuario@email.com");
+
+        when(rateLimiter.tryAcquireRegister(eq("usuario123"), any())).thenReturn(60_000L);
+
+        mockMvc.perform(post("/api/auth/register")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registrationDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void login_desdeProxyDeConfianza_limitaPorIpDeXForwardedFor() throws Exception {
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setUsername("usuario123");
+        loginDto.setPassword("contraseña123");
+
+        when(rateLimiter.tryAcquireLogin(eq("usuario123"), eq("203.0.113.7"))).thenReturn(1500L);
+
+        // MockMvc conecta desde 127.0.0.1, declarado como proxy de confianza
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .header("X-Forwarded-For", "198.51.100.1, 203.0.113.7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginDto)))
+                .andExpect(status().isTooManyRequests());
+
+        verifyNoInteractions(userService);
+    }
 }
@@ -1,9 +1,18 @@
 package com.tuempresa.userauthservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuempresa.userauthservice.config.SecurityConfig;
 import com.tuempresa.userauthservice.dto.UserRegistrationDto;
 import com.tuempresa.userauthservice.dto.UserLoginDto;
 import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.service.AuthRateLimiter;
+import com.tuempresa.userauthservice.service.AuthResult;
+import com.tuempresa.userauthservice.service.AuthSession;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.ClientIpResolver;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
 import com.tuempresa.userauthservice.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +20,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -20,11 +30,18 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, ClientIpResolver.class})
 class AuthControllerTestExtra {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private UserService userService;
+    @MockBean
+    private TokenService tokenService;
+    @MockBean
+    private SessionStore sessionStore;
+    @MockBean
+    private AuthRateLimiter rateLimiter;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -53,14 +70,14 @@ class AuthControllerTestExtra {
     @Test
     void register_usuarioExistente_conflict() throws Exception {
         Mockito.when(userService.registerUser(any(UserRegistrationDto.class)))
-                .thenThrow(new RuntimeException("El nombre de usuario ya está en uso"));
+                .thenReturn(RegistrationResult.Failure.USERNAME_TAKEN);
         mockMvc.perform(post("/api/auth/register")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(registrationDto)))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.success").value(false))
-                .andExpect(jsonPath("$.message").value("Nombre de usuario ya registrado"));
+                .andExpect(jsonPath("$.message").value("El nombre de usuario ya está en uso"));
     }
 
     @Test
@@ -78,7 +95,10 @@ class AuthControllerTestExtra {
 
     @Test
     void login_exitoso_ok() throws Exception {
-        Mockito.when(userService.authenticateUser(any(UserLoginDto.class))).thenReturn(user);
+        Mockito.when(userService.authenticateUser(any(UserLoginDto.class)))
+                .thenReturn(new AuthenticatedUser(user.getId(), user.getUsername()));
+        Mockito.when(sessionStore.create(1L, "nuevoUsuario"))
+                .thenReturn(new AuthSession("sesion123", 1L, "nuevoUsuario", 0L, 0L));
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -91,7 +111,7 @@ class AuthControllerTestExtra {
     @Test
     void login_contrasenaIncorrecta_unauthorized() throws Exception {
         Mockito.when(userService.authenticateUser(any(UserLoginDto.class)))
-                .thenThrow(new RuntimeException("Credenciales inválidas"));
+                .thenReturn(AuthResult.Failure.INVALID_CREDENTIALS);
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -104,7 +124,7 @@ class AuthControllerTestExtra {
     @Test
     void login_usuarioNoExistente_notFound() throws Exception {
         Mockito.when(userService.authenticateUser(any(UserLoginDto.class)))
-                .thenThrow(new RuntimeException("Usuario no encontrado"));
+                .thenReturn(AuthResult.Failure.USER_NOT_FOUND);
         mockMvc.perform(post("/api/auth/login")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,236 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * API reactivo completo (perfil {@code reactive}) sobre Netty y H2 con R2DBC.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-api",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-api?options=DB_CLOSE_DELAY=-1",
+        "auth.rate-limit.login.ip.capacity=100000",
+        "auth.rate-limit.login.username.capacity=100000",
+        "auth.rate-limit.register.ip.capacity=100000",
+        "auth.admin.usernames=reactivoadmin"
+    }
+)
+@ActiveProfiles("reactive")
+class ReactiveAuthControllerTest {
+
+    private static final int IN_FLIGHT_REQUESTS = 5_000;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void login_usuarioRegistrado_retornaTokenValidoEnStatus() {
+        register("reactivo1", "reactivo1@email.com")
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.success").isEqualTo(true)
+            .jsonPath("$.data").isEqualTo("reactivo1");
+
+        LoginResponse login = webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new UserLoginDto("reactivo1", "contraseña123"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(HttpHeaders.SET_COOKIE)
+            .expectBody(LoginResponse.class)
+            .returnResult()
+            .getResponseBody();
+        assertEquals("Login exitoso", login.message());
+
+        webTestClient.get().uri("/api/auth/status")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + login.data().token())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Sesión activa")
+            .jsonPath("$.data").isEqualTo("reactivo1");
+    }
+
+    @Test
+    void register_usuarioDuplicado_retorna409() {
+        register("reactivo2", "reactivo2@email.com").expectStatus().isOk();
+
+        register("reactivo2", "otro@email.com")
+            .expectStatus().isEqualTo(409)
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("El nombre de usuario ya está en uso");
+
+        register("otroReactivo", "reactivo2@email.com")
+            .expectStatus().isEqualTo(409)
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("El email ya está registrado");
+    }
+
+    @Test
+    void login_credencialesInvalidas_retorna401Y404() {
+        register("reactivo3", "reactivo3@email.com").expectStatus().isOk();
+
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new UserLoginDto("reactivo3", "incorrecta"))
+            .exchange()
+            .expectStatus().isUnauthorized()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Credenciales inválidas");
+
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new UserLoginDto("noExiste", "contraseña123"))
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void logout_conToken_revocaElToken() {
+        register("reactivo4", "reactivo4@email.com").expectStatus().isOk();
+        String token = loginToken("reactivo4");
+
+        webTestClient.post().uri("/api/auth/logout")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Logout exitoso");
+
+        webTestClient.get().uri("/api/auth/status")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void actuator_soloHealthPublico_metricasParaAdministradores() {
+        register("reactivoadmin", "reactivoadmin@email.com").expectStatus().isOk();
+        register("reactivonormal", "reactivonormal@email.com").expectStatus().isOk();
+
+        webTestClient.get().uri("/actuator/health").exchange()
+            .expectStatus().isOk();
+        webTestClient.get().uri("/actuator/metrics").exchange()
+            .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/actuator/metrics")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + loginToken("reactivonormal"))
+            .exchange()
+            .expectStatus().isForbidden();
+        webTestClient.get().uri("/actuator/metrics")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + loginToken("reactivoadmin"))
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void listUsers_conCursor_recorreTodasLasPaginas() {
+        for (int i = 0; i < 3; i++) {
+            register("pagina" + i, "pagina" + i + "@email.com").expectStatus().isOk();
+        }
+
+        String cursor = webTestClient.get().uri("/api/auth/users?size=1&active=true")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.data.length()").isEqualTo(1)
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+
+        webTestClient.get().uri("/api/auth/users?size=200&active=true&cursor=" + cursor)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().doesNotExist("X-Next-Cursor");
+
+        webTestClient.get().uri("/api/auth/users?cursor=invalido!")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Cursor inválido");
+    }
+
+    /**
+     * Mantiene miles de peticiones en vuelo a la vez contra el servidor y comprueba que se
+     * atienden con los hilos del bucle de eventos, sin un hilo por petición. Se ejecuta con
+     * {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void listUsers_milesDePeticionesEnVuelo_pocosHilos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int threadsBefore = threads.getThreadCount();
+
+        ConnectionProvider connections = ConnectionProvider.builder("carga")
+            .maxConnections(IN_FLIGHT_REQUESTS)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        WebClient client = WebClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 30_000)))
+            .build();
+
+        long start = System.nanoTime();
+        Long ok = Flux.range(0, IN_FLIGHT_REQUESTS)
+            .flatMap(i -> client.get().uri("/api/auth/users?size=10").retrieve().toBodilessEntity(),
+                IN_FLIGHT_REQUESTS)
+            .filter(response -> response.getStatusCode().is2xxSuccessful())
+            .count()
+            .block(Duration.ofMinutes(2));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        connections.dispose();
+
+        System.out.printf("%d peticiones concurrentes en %d ms; hilos: %d antes, pico %d%n",
+            IN_FLIGHT_REQUESTS, elapsedMillis, threadsBefore, threads.getPeakThreadCount());
+        assertEquals(IN_FLIGHT_REQUESTS, ok.longValue());
+        assertTrue(threads.getPeakThreadCount() - threadsBefore < IN_FLIGHT_REQUESTS / 10);
+    }
+
+    private WebTestClient.ResponseSpec register(String username, String email) {
+        return webTestClient.post().uri("/api/auth/register")
+            .bodyValue(new UserRegistrationDto(username, "contraseña123", email))
+            .exchange();
+    }
+
+    private String loginToken(String username) {
+        return webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new UserLoginDto(username, "contraseña123"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(LoginResponse.class)
+            .returnResult()
+            .getResponseBody()
+            .data()
+            .token();
+    }
+
+    private record LoginResponse(boolean success, String message, TokenData data) {
+    }
+
+    private record TokenData(String token) {
+    }
+}
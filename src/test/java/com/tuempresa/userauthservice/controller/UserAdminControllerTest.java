@@ -0,0 +1,287 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tuempresa.userauthservice.config.SecurityConfig;
+import com.tuempresa.userauthservice.dto.BulkRegistrationDto;
+import com.tuempresa.userauthservice.dto.BulkRegistrationItemDto;
+import com.tuempresa.userauthservice.dto.ForceLogoutDto;
+import com.tuempresa.userauthservice.dto.UserImportProgressDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.dto.UserShardDto;
+import com.tuempresa.userauthservice.service.BloomFilter;
+import com.tuempresa.userauthservice.service.BulkRegistrationService;
+import com.tuempresa.userauthservice.service.HashingCapacityExceededException;
+import com.tuempresa.userauthservice.service.TokenService;
+import com.tuempresa.userauthservice.service.UserExportService;
+import com.tuempresa.userauthservice.service.UserImportService;
+import com.tuempresa.userauthservice.service.UserShardRebalancer;
+import com.tuempresa.userauthservice.service.UserService;
+import com.tuempresa.userauthservice.service.UsernameFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UserAdminController.class)
+@Import(SecurityConfig.class)
+class UserAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UsernameFilter usernameFilter;
+
+    @MockBean
+    private BulkRegistrationService bulkRegistrationService;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserShardRebalancer userShardRebalancer;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void forceLogout_listaValida_retorna200ConDesactivados() throws Exception {
+        when(userService.forceLogout(List.of("usuario1", "usuario2"))).thenReturn(2);
+
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ForceLogoutDto(List.of("usuario1", "usuario2")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data").value(2));
+    }
+
+    @Test
+    void forceLogout_listaVacia_retorna400() throws Exception {
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ForceLogoutDto(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void forceLogout_nombreNuloOVacio_retorna400() throws Exception {
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"usernames\": [\"usuario1\", null, \" \"]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void forceLogout_demasiadosUsuarios_retorna400() throws Exception {
+        List<String> usernames = IntStream.rangeClosed(0, ForceLogoutDto.MAX_USERS)
+            .mapToObj(i -> "usuario" + i)
+            .toList();
+
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ForceLogoutDto(usernames))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void forceLogout_sinAutenticar_retorna401() throws Exception {
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ForceLogoutDto(List.of("usuario1")))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void forceLogout_usuarioSinRolAdmin_retorna403() throws Exception {
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .with(csrf())
+                .with(user("usuario1"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ForceLogoutDto(List.of("usuario2")))))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void bulkRegister_loteValido_retornaResultadoPorUsuario() throws Exception {
+        List<UserRegistrationDto> users = List.of(
+            new UserRegistrationDto("usuario1", "contraseña123", "usuario1@email.com"),
+            new UserRegistrationDto("usuario2", "contraseña123", "usuario2@email.com"));
+        when(bulkRegistrationService.registerUsers(any())).thenReturn(List.of(
+            new BulkRegistrationItemDto(0, "usuario1", BulkRegistrationItemDto.REGISTERED, "Usuario registrado exitosamente"),
+            new BulkRegistrationItemDto(1, "usuario2", "EMAIL_TAKEN", "El email ya está registrado")));
+
+        mockMvc.perform(post("/api/admin/users/bulk-register")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BulkRegistrationDto(users))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("1 de 2 usuarios registrados"))
+                .andExpect(jsonPath("$.data[0].status").value("REGISTERED"))
+                .andExpect(jsonPath("$.data[1].status").value("EMAIL_TAKEN"));
+    }
+
+    @Test
+    void bulkRegister_usuarioInvalido_retorna400() throws Exception {
+        mockMvc.perform(post("/api/admin/users/bulk-register")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BulkRegistrationDto(List.of(
+                    new UserRegistrationDto("ab", "contraseña123", "no-es-email"))))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bulkRegistrationService);
+    }
+
+    @Test
+    void bulkRegister_poolSaturado_retorna503ConRetryAfter() throws Exception {
+        when(bulkRegistrationService.registerUsers(any())).thenThrow(new HashingCapacityExceededException(2));
+
+        mockMvc.perform(post("/api/admin/users/bulk-register")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BulkRegistrationDto(List.of(
+                    new UserRegistrationDto("usuario1", "contraseña123", "usuario1@email.com"))))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void importUsers_archivoValido_retornaProgresoFinal() throws Exception {
+        when(userImportService.importUsers("legacy.csv")).thenReturn(
+            new UserImportProgressDto("legacy.csv", 3, 2, 1, 0, true, LocalDateTime.now()));
+
+        mockMvc.perform(post("/api/admin/users/import")
+                .param("file", "legacy.csv")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.imported").value(2))
+                .andExpect(jsonPath("$.data.completed").value(true));
+    }
+
+    @Test
+    void importUsers_importacionEnCurso_retorna409() throws Exception {
+        when(userImportService.importUsers("legacy.csv"))
+            .thenThrow(new IllegalStateException("La importación de este archivo ya está en curso"));
+
+        mockMvc.perform(post("/api/admin/users/import")
+                .param("file", "legacy.csv")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getImportProgress_archivoSinImportar_retorna404() throws Exception {
+        when(userImportService.getProgress("otro.csv")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/admin/users/import")
+                .param("file", "otro.csv")
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportUsers_autenticado_retornaNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(userExportService).exportUsers(any());
+
+        mockMvc.perform(get("/api/admin/users/export")
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void rebuildUsernameFilter_autenticado_retornaUsuariosIncluidos() throws Exception {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("usuario1");
+        filter.put("usuario2");
+        when(usernameFilter.rebuild()).thenReturn(filter);
+
+        mockMvc.perform(post("/api/admin/users/username-filter/rebuild")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data").value(2));
+    }
+
+    @Test
+    void rebalanceShards_autenticado_retornaMovidosYReparto() throws Exception {
+        when(userShardRebalancer.rebalance()).thenReturn(new UserShardRebalancer.Result(3, 120, 0));
+        when(userShardRebalancer.getShards()).thenReturn(List.of(
+            new UserShardDto(0, 6, 300), new UserShardDto(1, 4, 200)));
+
+        mockMvc.perform(post("/api/admin/users/shards/rebalance")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("3 grupos movidos, 120 usuarios"))
+                .andExpect(jsonPath("$.data[1].buckets").value(4));
+    }
+
+    @Test
+    void moveBucket_shardInexistente_retorna400() throws Exception {
+        when(userShardRebalancer.moveBucket(7, 5)).thenThrow(new RuntimeException("Shard inválido"));
+
+        mockMvc.perform(post("/api/admin/users/shards/buckets/7/move")
+                .param("target", "5")
+                .with(csrf())
+                .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Shard inválido"));
+    }
+}
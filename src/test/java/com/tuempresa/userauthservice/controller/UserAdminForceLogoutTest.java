@@ -0,0 +1,72 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.service.AuthSession;
+import com.tuempresa.userauthservice.service.SessionStore;
+import com.tuempresa.userauthservice.service.TokenService;
+import com.tuempresa.userauthservice.service.UserService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * El logout forzado corta el acceso en el momento: los tokens y sesiones emitidos antes
+ * dejan de aceptarse, también en los endpoints de administración.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:force-logout",
+    "auth.admin.usernames=jefe,cortado"
+})
+@AutoConfigureMockMvc
+class UserAdminForceLogoutTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Test
+    void forceLogout_usuarioConTokenYSesion_dejanDeAceptarse() throws Exception {
+        userService.registerUser(new UserRegistrationDto("cortado", "contraseña123", "cortado@email.com"));
+        String adminToken = tokenService.issue(null, "jefe");
+        String token = tokenService.issue(null, "cortado");
+        AuthSession session = sessionStore.create(null, "cortado");
+
+        mockMvc.perform(get("/api/auth/status").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/users/shards").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/admin/users/force-logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"usernames\": [\"Cortado\"]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data").value(1));
+
+        mockMvc.perform(get("/api/auth/status").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/status").cookie(new Cookie("AUTH_SESSION", session.getId())))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/users/shards").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/users/shards").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,244 @@
+package com.tuempresa.userauthservice.controller;
+
+import com.tuempresa.userauthservice.UserAuthServiceApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga que compara el modo de hilos de plataforma de Tomcat con el de hilos
+ * virtuales ({@code auth.threads.virtual}).
+ * <p>
+ * Se ejecuta con {@code mvn test -Pbenchmark}. Arranca la aplicación completa en cada modo
+ * y lanza {@value #CLIENTS} clientes concurrentes en bucle cerrado: la mayoría de las
+ * peticiones listan usuarios (espera a base de datos) y {@value #LOGIN_PERCENT}% son logins
+ * (hashing en el pool acotado). Los resultados se imprimen y se escriben en
+ * {@code target/benchmarks/virtual-threads.md}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CLIENTS = 1_000;
+
+    private static final int LOGIN_PERCENT = 5;
+
+    private static final int SEEDED_USERS = 200;
+
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+
+    private static final Duration MEASURED = Duration.ofSeconds(30);
+
+    private static final String PASSWORD = "contraseña123";
+
+    private static final Path REPORT = Path.of("target", "benchmarks", "virtual-threads.md");
+
+    @Test
+    void cargaMixta_hilosDePlataformaFrenteAVirtuales_publicaResultados() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        String report = String.join(System.lineSeparator(),
+            "| Modo | Peticiones/s | p50 (ms) | p99 (ms) | Máx (ms) | 503 | Errores |",
+            "|------|-------------:|---------:|---------:|---------:|----:|--------:|",
+            platform.row("Hilos de plataforma"),
+            virtual.row("Hilos virtuales"),
+            "",
+            String.format(Locale.ROOT, "%d clientes, %d%% logins, %d s medidos, %d CPUs, Java %s",
+                CLIENTS, LOGIN_PERCENT, MEASURED.toSeconds(),
+                Runtime.getRuntime().availableProcessors(), Runtime.version()),
+            "");
+        System.out.println(report);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+
+        assertTrue(platform.requests() > 0);
+        assertTrue(virtual.requests() > 0);
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    /**
+     * Arranca la aplicación en el modo indicado, la calienta y mide la carga mixta.
+     */
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = startApplication(virtualThreads)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+            for (int i = 0; i < SEEDED_USERS; i++) {
+                HttpResponse<String> response = send(client, post(baseUrl + "/api/auth/register",
+                    "{\"username\":\"carga" + i + "\",\"password\":\"" + PASSWORD
+                        + "\",\"email\":\"carga" + i + "@ejemplo.com\"}"));
+                assertEquals(200, response.statusCode(), response.body());
+            }
+
+            load(client, baseUrl, WARMUP);
+            return load(client, baseUrl, MEASURED);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(boolean virtualThreads) {
+        // Como argumentos de línea de comandos: las propiedades por defecto del builder
+        // quedan por debajo de application.properties
+        return new SpringApplicationBuilder(UserAuthServiceApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:carga-" + UUID.randomUUID(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.tuempresa=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--auth.threads.virtual=" + virtualThreads,
+                // Coste de BCrypt fijo para que ambos modos hagan el mismo trabajo
+                "--auth.password.min-strength=10",
+                "--auth.password.max-strength=10",
+                // Todos los clientes comparten IP: el límite de tasa no debe intervenir
+                "--auth.rate-limit.login.ip.capacity=1000000000",
+                "--auth.rate-limit.login.username.capacity=1000000000",
+                "--auth.rate-limit.register.ip.capacity=1000000000",
+                "--auth.rate-limit.register.username.capacity=1000000000");
+    }
+
+    /**
+     * Lanza los clientes durante el tiempo indicado.
+     */
+    private static Result load(HttpClient client, String baseUrl, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<ClientStats>> futures = new ArrayList<>(CLIENTS);
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> runClient(client, baseUrl, deadline)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<ClientStats> stats = new ArrayList<>(CLIENTS);
+        for (Future<ClientStats> future : futures) {
+            stats.add(future.get());
+        }
+        return Result.of(stats, elapsed);
+    }
+
+    /**
+     * Un cliente que encadena peticiones hasta el plazo, guardando la latencia de cada una.
+     */
+    private static ClientStats runClient(HttpClient client, String baseUrl, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ClientStats stats = new ClientStats();
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = random.nextInt(100) < LOGIN_PERCENT
+                ? post(baseUrl + "/api/auth/login",
+                    "{\"username\":\"carga" + random.nextInt(SEEDED_USERS) + "\",\"password\":\"" + PASSWORD + "\"}")
+                : HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/users?size=20")).GET().build();
+
+            long sent = System.nanoTime();
+            try {
+                int status = send(client, request).statusCode();
+                if (status == 200) {
+                    stats.record(System.nanoTime() - sent);
+                } else if (status == 503) {
+                    // Pool de hashing saturado: rechazo esperado bajo carga, no un error
+                    stats.unavailable++;
+                } else {
+                    stats.errors++;
+                }
+            } catch (IOException e) {
+                stats.errors++;
+            }
+        }
+        return stats;
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Petición interrumpida", e);
+        }
+    }
+
+    private static final class ClientStats {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long unavailable;
+
+        private long errors;
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private record Result(long requests, double throughput, double p50Millis, double p99Millis,
+                          double maxMillis, long unavailable, long errors) {
+
+        static Result of(List<ClientStats> stats, long elapsedNanos) {
+            int total = stats.stream().mapToInt(s -> s.count).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            for (ClientStats s : stats) {
+                System.arraycopy(s.latencies, 0, all, offset, s.count);
+                offset += s.count;
+            }
+            Arrays.sort(all);
+
+            return new Result(total,
+                total * 1e9 / elapsedNanos,
+                percentile(all, 0.50),
+                percentile(all, 0.99),
+                total > 0 ? all[total - 1] / 1e6 : 0,
+                stats.stream().mapToLong(s -> s.unavailable).sum(),
+                stats.stream().mapToLong(s -> s.errors).sum());
+        }
+
+        String row(String mode) {
+            return String.format(Locale.ROOT, "| %s | %.0f | %.1f | %.1f | %.1f | %d | %d |",
+                mode, throughput, p50Millis, p99Millis, maxMillis, unavailable, errors);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
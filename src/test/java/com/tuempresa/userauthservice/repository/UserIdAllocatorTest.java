@@ -0,0 +1,44 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los ids reservados por JDBC y los asignados por Hibernate salen de la misma secuencia
+ * pooled-lo sin solaparse.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-ids")
+class UserIdAllocatorTest {
+
+    @Autowired
+    private UserIdAllocator userIdAllocator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void allocate_variosBloques_noSolapaConIdsDeHibernate() {
+        User first = userRepository.save(new User("secuencia1", "hash", "secuencia1@email.com"));
+        User second = userRepository.save(new User("secuencia2", "hash", "secuencia2@email.com"));
+
+        List<Long> allocated = userIdAllocator.allocate(120);
+        User third = userRepository.save(new User("secuencia3", "hash", "secuencia3@email.com"));
+
+        Set<Long> distinct = new HashSet<>(allocated);
+        assertEquals(120, distinct.size());
+        // Hibernate sigue consumiendo su bloque sin volver a la secuencia
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(second.getId() + 1, third.getId());
+        assertFalse(distinct.contains(first.getId()));
+        assertFalse(distinct.contains(second.getId()));
+        assertFalse(distinct.contains(third.getId()));
+    }
+}
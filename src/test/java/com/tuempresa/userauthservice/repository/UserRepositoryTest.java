@@ -0,0 +1,66 @@
+package com.tuempresa.userauthservice.repository;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.service.AuthenticatedUser;
+import com.tuempresa.userauthservice.service.RegistrationResult;
+import com.tuempresa.userauthservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Búsquedas sin distinguir mayúsculas sobre las columnas normalizadas de H2.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-lookups")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void save_nombreYEmailConMayusculas_guardaOriginalYNormalizado() {
+        userRepository.save(new User(" Mayusculas ", "hash", "Mayusculas@Email.com"));
+
+        User user = userRepository.findByUsername("mayusculas").orElseThrow();
+
+        assertEquals(" Mayusculas ", user.getUsername());
+        assertEquals("mayusculas", user.getUsernameNormalized());
+        assertEquals("mayusculas@email.com", user.getEmailNormalized());
+        assertTrue(userRepository.existsByEmail("mayusculas@email.com"));
+        assertEquals(List.of("mayusculas"), userRepository.findExistingUsernames(List.of("mayusculas", "otro")));
+    }
+
+    @Test
+    void registerUser_varianteDeMayusculas_rechazaYAutenticaSinDistinguir() {
+        userService.registerUser(new UserRegistrationDto("Bob", "contraseña123", "bob@email.com"));
+
+        assertEquals(RegistrationResult.Failure.USERNAME_TAKEN,
+            userService.registerUser(new UserRegistrationDto("bob", "contraseña123", "otro-bob@email.com")));
+        assertEquals(RegistrationResult.Failure.EMAIL_TAKEN,
+            userService.registerUser(new UserRegistrationDto("bobby", "contraseña123", "BOB@email.com")));
+        assertInstanceOf(AuthenticatedUser.class, userService.authenticateUser(new UserLoginDto("BOB", "contraseña123")));
+        assertTrue(userService.findByUsername("bOb").isPresent());
+    }
+
+    @Test
+    void findCredentialsByUsername_columnaNormalizada_usaElIndiceUnico() {
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT id, password, is_active FROM users WHERE username_normalized = 'bob'", String.class);
+
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains(User.UK_USERNAME.toUpperCase(Locale.ROOT)), plan);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rendimiento del login de usuarios inexistentes, el caso dominante durante un ataque de
+ * relleno de credenciales, devolviendo el rechazo como resultado frente a lanzarlo como
+ * excepción y capturarlo en el llamador, como se hacía antes de {@link AuthResult}.
+ * <p>
+ * Se ejecuta con {@code mvn test -Pbenchmark}. Ambas variantes se invocan con la misma
+ * profundidad de pila que una petición atendida por el contenedor, ya que el coste de
+ * capturar la traza crece con ella.
+ */
+@Tag("benchmark")
+class AuthFailureBenchmarkTest {
+
+    private static final int STACK_DEPTH = 150;
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private UserService userService;
+
+    private final UserLoginDto unknownUser = new UserLoginDto("desconocido", "contraseña123");
+
+    @BeforeEach
+    void setUp() {
+        UsernameFilter usernameFilter = new UsernameFilter();
+        ReflectionTestUtils.setField(usernameFilter, "current", new BloomFilter(1_000, 0.01));
+        ReflectionTestUtils.setField(usernameFilter, "readYourWrites", new ReadYourWritesTracker(5_000));
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "usernameFilter", usernameFilter);
+    }
+
+    @Test
+    void authenticateUser_usuariosInexistentes_resultadoSuperaAExcepcion() {
+        Supplier<String> result = () -> {
+            AuthResult outcome = userService.authenticateUser(unknownUser);
+            return outcome instanceof AuthResult.Failure failure ? failure.getMessage() : null;
+        };
+        Supplier<String> exception = () -> {
+            try {
+                AuthResult outcome = userService.authenticateUser(unknownUser);
+                throw new RuntimeException(((AuthResult.Failure) outcome).getMessage());
+            } catch (RuntimeException e) {
+                return e.getMessage();
+            }
+        };
+
+        measure(result, WARMUP_ITERATIONS);
+        measure(exception, WARMUP_ITERATIONS);
+        double resultOps = measure(result, MEASURED_ITERATIONS);
+        double exceptionOps = measure(exception, MEASURED_ITERATIONS);
+
+        System.out.printf("Login de usuario inexistente: resultado %.0f ops/s, excepción %.0f ops/s (x%.1f)%n",
+            resultOps, exceptionOps, resultOps / exceptionOps);
+        assertTrue(resultOps > exceptionOps);
+    }
+
+    /**
+     * Ejecuta la operación el número de veces indicado a la profundidad de pila configurada.
+     * @return operaciones por segundo
+     */
+    private static double measure(Supplier<String> operation, int iterations) {
+        long start = System.nanoTime();
+        int checksum = atDepth(STACK_DEPTH, () -> {
+            int sum = 0;
+            for (int i = 0; i < iterations; i++) {
+                sum += operation.get().length();
+            }
+            return sum;
+        });
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals((long) iterations * "Usuario no encontrado".length(), checksum);
+        return iterations * 1e9 / elapsed;
+    }
+
+    private static int atDepth(int depth, Supplier<Integer> body) {
+        return depth == 0 ? body.get() : atDepth(depth - 1, body);
+    }
+}
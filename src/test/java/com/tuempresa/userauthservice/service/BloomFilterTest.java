@@ -0,0 +1,54 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_elementosAnadidos_siempreTrue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("usuario" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("usuario" + i));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    void mightContain_elementosAusentes_falsosPositivosDentroDelObjetivo() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("usuario" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("desconocido" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "Falsos positivos: " + falsePositives);
+        assertTrue(filter.estimatedFalsePositiveRate() <= 0.011);
+    }
+
+    @Test
+    void estimatedFalsePositiveRate_superadosLosEsperados_aumenta() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.put("usuario" + i);
+        }
+
+        assertTrue(filter.estimatedFalsePositiveRate() > 0.1);
+    }
+
+    @Test
+    void constructor_tasaInvalida_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1_000, 1.0));
+    }
+}
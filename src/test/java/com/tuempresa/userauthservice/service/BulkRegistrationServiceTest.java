@@ -0,0 +1,160 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.BulkRegistrationItemDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.repository.UserIdAllocator;
+import com.tuempresa.userauthservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkRegistrationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Mock
+    private UserIdAllocator userIdAllocator;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private UserShardRouter shards = new UserShardRouter();
+
+    @Mock
+    private UserEmailClaims emailClaims;
+
+    @InjectMocks
+    private BulkRegistrationService bulkRegistrationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkRegistrationService, "batchSize", 2);
+        // El pool de hashing se ejecuta en línea para los tests unitarios
+        lenient().when(hashingExecutor.executeAll(any())).thenAnswer(invocation ->
+            invocation.<List<Supplier<String>>>getArgument(0).stream().map(Supplier::get).toList());
+        lenient().when(passwordEncoder.encode(any())).thenReturn("hash");
+        lenient().when(userIdAllocator.allocate(anyInt())).thenAnswer(invocation ->
+            LongStream.rangeClosed(1, invocation.<Integer>getArgument(0)).boxed().toList());
+        lenient().when(emailClaims.claimAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerUsers_duplicadosEnPeticionYExistentes_soloInsertaLosNuevos() {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of("existente"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("usado@email.com"));
+
+        List<BulkRegistrationItemDto> results = bulkRegistrationService.registerUsers(List.of(
+            registration("nuevo1", "nuevo1@email.com"),
+            registration("nuevo1", "otro@email.com"),
+            registration("existente", "existente@email.com"),
+            registration("nuevo2", "usado@email.com"),
+            registration("nuevo3", "nuevo3@email.com"),
+            registration("nuevo4", "nuevo4@email.com")));
+
+        assertEquals(List.of("REGISTERED", "DUPLICATE_IN_REQUEST", "USERNAME_TAKEN", "EMAIL_TAKEN",
+            "REGISTERED", "REGISTERED"), results.stream().map(BulkRegistrationItemDto::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(BulkRegistrationItemDto::getIndex).toList());
+        // Tres usuarios nuevos en lotes de dos: dos sentencias por lotes
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(BulkRegistrationService.INSERT_SQL), anyCollection(),
+            anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(usernameFilter).add("nuevo1");
+        verify(usernameFilter).add("nuevo3");
+        verify(usernameFilter).add("nuevo4");
+        verify(usernameFilter, never()).add("existente");
+    }
+
+    @Test
+    void registerUsers_variantesDeMayusculas_comparaNombresYEmailsNormalizados() {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of("existente"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("usado@email.com"));
+
+        List<BulkRegistrationItemDto> results = bulkRegistrationService.registerUsers(List.of(
+            registration("Nuevo1", "nuevo1@email.com"),
+            registration("nuevo1", "otro@email.com"),
+            registration("otro", "NUEVO1@email.com"),
+            registration("EXISTENTE", "existente@email.com"),
+            registration("nuevo2", "Usado@Email.com")));
+
+        assertEquals(List.of("REGISTERED", "DUPLICATE_IN_REQUEST", "DUPLICATE_IN_REQUEST", "USERNAME_TAKEN",
+            "EMAIL_TAKEN"), results.stream().map(BulkRegistrationItemDto::getStatus).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerUsers_conflictoConcurrenteEnLote_reintentaFilaAFila() {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(eq(BulkRegistrationService.INSERT_SQL), anyCollection(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class)))
+            .thenThrow(new DuplicateKeyException("duplicado"));
+        when(jdbcTemplate.update(eq(BulkRegistrationService.INSERT_SQL), any(PreparedStatementSetter.class)))
+            .thenReturn(1)
+            .thenThrow(new DuplicateKeyException("could not execute statement", new RuntimeException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\"")));
+
+        List<BulkRegistrationItemDto> results = bulkRegistrationService.registerUsers(List.of(
+            registration("nuevo1", "nuevo1@email.com"),
+            registration("nuevo2", "tomado@email.com")));
+
+        assertEquals(List.of("REGISTERED", "EMAIL_TAKEN"),
+            results.stream().map(BulkRegistrationItemDto::getStatus).toList());
+        verify(usernameFilter).add("nuevo1");
+        verify(usernameFilter, never()).add("nuevo2");
+    }
+
+    @Test
+    void registerUsers_poolDeHashingSaturado_noInserta() {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        doThrow(new HashingCapacityExceededException(1)).when(hashingExecutor).executeAll(any());
+
+        assertThrows(HashingCapacityExceededException.class, () -> bulkRegistrationService.registerUsers(
+            List.of(registration("nuevo1", "nuevo1@email.com"))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static UserRegistrationDto registration(String username, String email) {
+        return new UserRegistrationDto(username, "contraseña123", email);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.5", "fd00::/8"));
+
+    @Test
+    void resolve_conexionDirecta_ignoraXForwardedFor() {
+        assertEquals("203.0.113.7", resolver.resolve("203.0.113.7", List.of("198.51.100.1")));
+    }
+
+    @Test
+    void resolve_proxyDeConfianza_usaPrimeraIpNoConfiable() {
+        // El cliente antepone una IP falsa; el proxy añade la IP real a la derecha
+        assertEquals("203.0.113.7",
+            resolver.resolve("10.1.2.3", List.of("198.51.100.1, 203.0.113.7", "192.168.1.5")));
+    }
+
+    @Test
+    void resolve_todosLosSaltosDeConfianza_usaElPrimero() {
+        assertEquals("10.0.0.9", resolver.resolve("10.1.2.3", List.of("10.0.0.9, 192.168.1.5")));
+    }
+
+    @Test
+    void resolve_proxyIpv6SinCabecera_usaIpDeConexion() {
+        assertEquals("fd00::1", resolver.resolve("fd00::1", null));
+        assertEquals("2001:db8::1", resolver.resolve("fd12::1", List.of("2001:db8::1")));
+    }
+
+    @Test
+    void resolve_sinProxiesConfigurados_usaIpDeConexion() {
+        ClientIpResolver withoutProxies = new ClientIpResolver(List.of());
+
+        assertEquals("10.1.2.3", withoutProxies.resolve("10.1.2.3", List.of("198.51.100.1")));
+    }
+
+    @Test
+    void constructor_rangoInvalido_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("proxy.interno")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(List.of("10.0.0.0/33")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.UserAuthServiceApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dos nodos de la aplicación comparten una base de datos H2 en fichero: los fallos
+ * registrados en cada uno se combinan en la tabla compartida y ambos acaban bloqueando
+ * al usuario tras su siguiente escritura.
+ */
+class LoginAttemptCounterClusterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConfigurableApplicationContext nodeA;
+
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:file:" + tempDir.resolve("cluster").toAbsolutePath();
+        nodeA = startNode(url);
+        nodeB = startNode(url);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void flush_fallosRepartidosEntreNodos_convergenEnBloqueo() {
+        LoginAttemptCounter counterA = nodeA.getBean(LoginAttemptCounter.class);
+        LoginAttemptCounter counterB = nodeB.getBean(LoginAttemptCounter.class);
+
+        for (int i = 0; i < 3; i++) {
+            counterA.recordFailure("victima");
+        }
+        for (int i = 0; i < 2; i++) {
+            counterB.recordFailure("victima");
+        }
+        // Ningún nodo alcanza el máximo (5) por sí solo
+        assertFalse(counterA.isLocked("victima"));
+        assertFalse(counterB.isLocked("victima"));
+
+        counterA.flush();
+        counterB.flush();
+        assertTrue(counterB.isLocked("victima"));
+
+        counterA.flush();
+        assertTrue(counterA.isLocked("victima"));
+        assertFalse(counterA.isLocked("otroUsuario"));
+    }
+
+    @Test
+    void flush_loginCorrectoEnOtroNodo_desbloqueaEnAmbos() {
+        LoginAttemptCounter counterA = nodeA.getBean(LoginAttemptCounter.class);
+        LoginAttemptCounter counterB = nodeB.getBean(LoginAttemptCounter.class);
+
+        for (int i = 0; i < 5; i++) {
+            counterA.recordFailure("victima");
+        }
+        counterA.flush();
+        counterB.flush();
+        assertTrue(counterB.isLocked("victima"));
+
+        counterB.recordSuccess("victima");
+        assertFalse(counterB.isLocked("victima"));
+
+        counterB.flush();
+        counterA.flush();
+        assertFalse(counterA.isLocked("victima"));
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        // Como argumentos de línea de comandos: las propiedades por defecto del builder
+        // quedan por debajo de application.properties
+        return new SpringApplicationBuilder(UserAuthServiceApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.jpa.show-sql=false",
+                "--auth.login-attempts.max-failures=5",
+                // Las escrituras se lanzan desde el test
+                "--auth.login-attempts.flush-interval-ms=3600000");
+    }
+}
@@ -0,0 +1,159 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MappedFileSessionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private Clock clock;
+
+    private Path logPath;
+
+    private MappedFileSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        logPath = tempDir.resolve("sessions.log");
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void reinicio_sesionesVigentes_seRestauran() {
+        AuthSession session = store.create(1L, "usuario123");
+        AuthSession anonymous = store.create(null, "otroUsuario");
+
+        store = reopen();
+
+        AuthSession restored = store.find(session.getId()).orElseThrow();
+        assertEquals(1L, restored.getUserId());
+        assertEquals("usuario123", restored.getUsername());
+        assertEquals(session.getCreatedAtMillis(), restored.getCreatedAtMillis());
+        assertNull(store.find(anonymous.getId()).orElseThrow().getUserId());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void reinicio_sesionInvalidada_noSeRestaura() {
+        AuthSession session = store.create(1L, "usuario123");
+        store.invalidate(session.getId());
+
+        store = reopen();
+
+        assertTrue(store.find(session.getId()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void reinicio_sesionesDeUsuarioInvalidadas_noSeRestauran() {
+        AuthSession session = store.create(1L, "usuario123");
+        AuthSession other = store.create(2L, "otroUsuario");
+        assertEquals(1, store.invalidateUser("Usuario123"));
+
+        store = reopen();
+
+        assertTrue(store.find(session.getId()).isEmpty());
+        assertTrue(store.find(other.getId()).isPresent());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void reinicio_sesionExpirada_noSeRestaura() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        now.addAndGet(61_000);
+        store = reopen();
+
+        assertTrue(store.find(session.getId()).isEmpty());
+    }
+
+    @Test
+    void reinicio_accesoPersistido_conservaExpiracionRenovada() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        now.addAndGet(50_000);
+        assertTrue(store.find(session.getId()).isPresent());
+
+        now.addAndGet(50_000);
+        store = reopen();
+
+        assertTrue(store.find(session.getId()).isPresent());
+    }
+
+    @Test
+    void compactIfNeeded_registroCrecido_conservaSoloSesionesVigentes() {
+        AuthSession kept = store.create(1L, "usuario123");
+        for (int i = 0; i < 30; i++) {
+            store.invalidate(store.create((long) i, "usuario" + i).getId());
+        }
+        int before = store.getLogBytes();
+
+        store.compactIfNeeded();
+
+        assertEquals(1, store.getCompactionCount());
+        assertTrue(store.getLogBytes() < before);
+        store = reopen();
+        assertTrue(store.find(kept.getId()).isPresent());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void append_ficheroLleno_compactaYAmplia() {
+        for (int i = 0; i < 20_000; i++) {
+            store.create((long) i, "usuario" + i);
+        }
+
+        assertTrue(store.getCompactionCount() > 0);
+        store = reopen();
+        assertEquals(20_000, store.size());
+    }
+
+    @Test
+    void reinicio_registroTruncado_ignoraRegistroIncompleto() throws IOException {
+        AuthSession session = store.create(1L, "usuario123");
+        int end = store.getLogBytes();
+        store.close();
+
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            // Cabecera de un registro cuya carga no coincide con su CRC
+            channel.write(ByteBuffer.allocate(12).putInt(4).putInt(12345).putInt(-1).flip(), end);
+        }
+        store = open();
+
+        assertTrue(store.find(session.getId()).isPresent());
+        assertEquals(1, store.size());
+    }
+
+    private MappedFileSessionStore open() {
+        return new MappedFileSessionStore(new ShardedSessionStore(60, 4, 1000, clock), logPath, 4096, 10_000, clock);
+    }
+
+    private MappedFileSessionStore reopen() {
+        store.close();
+        return open();
+    }
+}
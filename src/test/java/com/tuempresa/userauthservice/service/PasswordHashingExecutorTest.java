@@ -0,0 +1,109 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1, 2);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void execute_conCapacidad_retornaResultado() {
+        assertEquals("hash", hashingExecutor.execute(() -> "hash"));
+        assertEquals(0, hashingExecutor.getRejectedCount());
+    }
+
+    @Test
+    void execute_poolYColaLlenos_rechazaInmediatamente() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Un hilo ocupa el pool y otra tarea ocupa la única posición de la cola
+        callers.submit(() -> hashingExecutor.execute(() -> await(release)));
+        waitUntil(() -> hashingExecutor.getActiveCount() == 1);
+        callers.submit(() -> hashingExecutor.execute(() -> await(release)));
+        waitUntil(() -> hashingExecutor.getQueueDepth() == 1);
+
+        HashingCapacityExceededException exception = assertThrows(HashingCapacityExceededException.class,
+            () -> hashingExecutor.execute(() -> "hash"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, hashingExecutor.getRejectedCount());
+
+        release.countDown();
+    }
+
+    @Test
+    void execute_tareaFalla_propagaExcepcionOriginal() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> hashingExecutor.execute(() -> {
+                throw new IllegalArgumentException("hash inválido");
+            }));
+        assertEquals("hash inválido", exception.getMessage());
+    }
+
+    @Test
+    void executeAll_masTareasQueCapacidad_noRechazaYConservaOrden() {
+        List<Supplier<Integer>> tasks = IntStream.range(0, 50)
+            .<Supplier<Integer>>mapToObj(i -> () -> i * 2)
+            .toList();
+
+        List<Integer> results = hashingExecutor.executeAll(tasks);
+
+        assertEquals(IntStream.range(0, 50).map(i -> i * 2).boxed().toList(), results);
+        assertEquals(0, hashingExecutor.getRejectedCount());
+    }
+
+    @Test
+    void submit_poolYColaLlenos_rechazaSinBloquear() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = hashingExecutor.submit(() -> await(release));
+        waitUntil(() -> hashingExecutor.getActiveCount() == 1);
+        CompletableFuture<Boolean> queued = hashingExecutor.submit(() -> await(release));
+
+        assertThrows(HashingCapacityExceededException.class, () -> hashingExecutor.submit(() -> "hash"));
+        assertEquals(1, hashingExecutor.getRejectedCount());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static Boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condición no alcanzada a tiempo");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
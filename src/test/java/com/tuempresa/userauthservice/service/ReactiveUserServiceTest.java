@@ -0,0 +1,117 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.repository.ReactiveUserRepository;
+import com.tuempresa.userauthservice.repository.UserCredentials;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private SessionStore sessionStore;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, 60, 60);
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private LoginAttemptCounter loginAttemptCounter;
+
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        // El pool de hashing se ejecuta en línea para los tests unitarios
+        lenient().when(hashingExecutor.submit(any())).thenAnswer(invocation ->
+            CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+        lenient().when(usernameFilter.mightExist(any())).thenReturn(true);
+    }
+
+    @Test
+    void registerUser_emailExistente_retornaRechazo() {
+        when(passwordEncoder.encode("contraseña123")).thenReturn("contraseña_encriptada");
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.error(new DataIntegrityViolationException(
+            "could not execute statement",
+            new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\""))));
+
+        StepVerifier.create(userService.registerUser(
+                new UserRegistrationDto("nuevoUsuario", "contraseña123", "email@existente.com")))
+            .expectNext(RegistrationResult.Failure.EMAIL_TAKEN)
+            .verifyComplete();
+        verify(usernameFilter, never()).add(any());
+    }
+
+    @Test
+    void authenticateUser_credencialesValidas_registraExitoYCachea() {
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Mono.just(new UserCredentials(1L, "hash", true)));
+        when(passwordEncoder.matches("contraseña123", "hash")).thenReturn(true);
+
+        UserLoginDto loginDto = new UserLoginDto("usuario123", "contraseña123");
+        StepVerifier.create(userService.authenticateUser(loginDto))
+            .expectNext(new AuthenticatedUser(1L, "usuario123"))
+            .verifyComplete();
+        StepVerifier.create(userService.authenticateUser(loginDto))
+            .expectNext(new AuthenticatedUser(1L, "usuario123"))
+            .verifyComplete();
+
+        verify(userRepository, times(1)).findCredentialsByUsername("usuario123");
+        verify(loginAttemptCounter, times(2)).recordSuccess("usuario123");
+    }
+
+    @Test
+    void authenticateUser_usuarioBloqueado_noConsultaBaseDeDatos() {
+        when(loginAttemptCounter.isLocked("usuario123")).thenReturn(true);
+
+        StepVerifier.create(userService.authenticateUser(new UserLoginDto("usuario123", "contraseña123")))
+            .expectNext(AuthResult.Failure.LOCKED)
+            .verifyComplete();
+        verifyNoInteractions(userRepository, hashingExecutor);
+    }
+
+    @Test
+    void authenticateUser_poolDeHashingSaturado_emiteError() {
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Mono.just(new UserCredentials(1L, "hash", true)));
+        doThrow(new HashingCapacityExceededException(1)).when(hashingExecutor).submit(any());
+
+        StepVerifier.create(userService.authenticateUser(new UserLoginDto("usuario123", "contraseña123")))
+            .expectError(HashingCapacityExceededException.class)
+            .verify();
+        verify(loginAttemptCounter, never()).recordFailure(any());
+    }
+}
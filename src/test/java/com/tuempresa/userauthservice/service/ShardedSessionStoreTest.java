@@ -0,0 +1,90 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedSessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private ShardedSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        store = new ShardedSessionStore(60, 16, 1000, clock);
+    }
+
+    @Test
+    void create_sesionNueva_seEncuentraPorId() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        assertTrue(store.find(session.getId()).isPresent());
+        assertEquals("usuario123", store.find(session.getId()).get().getUsername());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void invalidate_sesionExistente_dejaDeEncontrarse() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        assertTrue(store.invalidate(session.getId()).isPresent());
+        assertTrue(store.find(session.getId()).isEmpty());
+        assertTrue(store.invalidate(session.getId()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void invalidateUser_variasSesiones_invalidaSoloLasDelUsuario() {
+        AuthSession first = store.create(1L, "usuario123");
+        AuthSession second = store.create(1L, "Usuario123");
+        AuthSession other = store.create(2L, "otro");
+
+        assertEquals(2, store.invalidateUser("USUARIO123"));
+        assertTrue(store.find(first.getId()).isEmpty());
+        assertTrue(store.find(second.getId()).isEmpty());
+        assertTrue(store.find(other.getId()).isPresent());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void expireSessions_sinActividad_eliminaSesion() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        now.addAndGet(61_000);
+        store.expireSessions();
+
+        assertTrue(store.find(session.getId()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expireSessions_conActividad_renuevaExpiracion() {
+        AuthSession session = store.create(1L, "usuario123");
+
+        now.addAndGet(50_000);
+        assertTrue(store.find(session.getId()).isPresent());
+
+        now.addAndGet(20_000);
+        store.expireSessions();
+        assertTrue(store.find(session.getId()).isPresent());
+
+        now.addAndGet(61_000);
+        store.expireSessions();
+        assertTrue(store.find(session.getId()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void find_idDesconocidoONulo_retornaVacio() {
+        assertTrue(store.find("desconocido").isEmpty());
+        assertTrue(store.find(null).isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private Clock clock;
+
+    private TokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        // 3 peticiones en ráfaga, un token nuevo cada segundo
+        limiter = new TokenBucketLimiter(3, 3_000, 4, 64, clock);
+    }
+
+    @Test
+    void tryAcquire_rafagaAgotada_rechazaConTiempoDeEspera() {
+        assertEquals(0, limiter.tryAcquire("usuario123"));
+        assertEquals(0, limiter.tryAcquire("usuario123"));
+        assertEquals(0, limiter.tryAcquire("usuario123"));
+
+        assertEquals(1_000, limiter.tryAcquire("usuario123"));
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void tryAcquire_tiempoTranscurrido_rellenaTokens() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("usuario123");
+        }
+
+        now.addAndGet(1_000);
+
+        assertEquals(0, limiter.tryAcquire("usuario123"));
+        assertTrue(limiter.tryAcquire("usuario123") > 0);
+    }
+
+    @Test
+    void tryAcquire_clavesDistintas_cubosIndependientes() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("usuario123");
+        }
+
+        assertTrue(limiter.tryAcquire("usuario123") > 0);
+        assertEquals(0, limiter.tryAcquire("otroUsuario"));
+    }
+
+    @Test
+    void evictIdle_cubosLlenos_seDesalojan() {
+        limiter.tryAcquire("usuario123");
+        limiter.tryAcquire("otroUsuario");
+        assertEquals(2, limiter.size());
+
+        now.addAndGet(3_000);
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_particionLlenaDeCubosActivos_usaCuboDeDesbordamiento() {
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("usuario" + i);
+        }
+
+        assertTrue(limiter.size() <= 64);
+        // Las claves sin cubo propio comparten un cubo por partición, que ya está agotado
+        int rejected = 0;
+        for (int i = 1_000; i < 1_100; i++) {
+            if (limiter.tryAcquire("usuario" + i) > 0) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationStoreTest {
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-09-30T10:30:00Z"));
+
+    private final TokenRevocationStore store = new TokenRevocationStore(300, new MutableClock(now));
+
+    @Test
+    void revoke_tokenVigente_quedaRevocado() {
+        Instant expiresAt = now.get().plusSeconds(3600);
+
+        store.revoke(42L, expiresAt);
+
+        assertTrue(store.isRevoked(42L, expiresAt));
+        assertFalse(store.isRevoked(43L, expiresAt));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void revoke_muchosTokens_conservaTodos() {
+        Instant expiresAt = now.get().plusSeconds(3600);
+
+        for (long tokenId = -50_000; tokenId <= 50_000; tokenId++) {
+            store.revoke(tokenId, expiresAt);
+        }
+
+        assertEquals(100_001, store.size());
+        assertTrue(store.isRevoked(0L, expiresAt));
+        assertTrue(store.isRevoked(-50_000L, expiresAt));
+        assertTrue(store.isRevoked(50_000L, expiresAt));
+        assertFalse(store.isRevoked(50_001L, expiresAt));
+    }
+
+    @Test
+    void purgeExpired_franjaVencida_seDescartaCompleta() {
+        Instant shortLived = now.get().plusSeconds(60);
+        Instant longLived = now.get().plusSeconds(3600);
+        store.revoke(1L, shortLived);
+        store.revoke(2L, longLived);
+
+        now.set(now.get().plusSeconds(900));
+        store.purgeExpired();
+
+        assertEquals(1, store.bucketCount());
+        assertFalse(store.isRevoked(1L, shortLived));
+        assertTrue(store.isRevoked(2L, longLived));
+    }
+
+    @Test
+    void revokeUser_tokensEmitidosAntes_quedanRevocadosHastaExpirar() {
+        Instant issuedBefore = now.get().minusSeconds(10);
+        store.revokeUser("Usuario123", now.get().plusSeconds(3600));
+
+        assertTrue(store.isUserRevoked("usuario123", issuedBefore));
+        assertTrue(store.isUserRevoked("usuario123", now.get()));
+        assertFalse(store.isUserRevoked("usuario123", now.get().plusSeconds(1)));
+        assertFalse(store.isUserRevoked("otro", issuedBefore));
+
+        now.set(now.get().plusSeconds(3600));
+        store.purgeExpired();
+
+        assertEquals(0, store.userCount());
+        assertFalse(store.isUserRevoked("usuario123", issuedBefore));
+    }
+
+    @Test
+    void revoke_tokenYaExpirado_noOcupaMemoria() {
+        store.revoke(1L, now.get().minusSeconds(1));
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.bucketCount());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final AtomicReference<Instant> instant;
+
+        MutableClock(AtomicReference<Instant> instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant.get();
+        }
+    }
+}
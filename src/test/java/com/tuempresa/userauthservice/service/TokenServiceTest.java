@@ -0,0 +1,130 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String KEY_1 = Base64.getEncoder().encodeToString("clave-de-pruebas-numero-uno-32-bytes".getBytes());
+
+    private static final String KEY_2 = Base64.getEncoder().encodeToString("clave-de-pruebas-numero-dos-32-bytes".getBytes());
+
+    private final Instant now = Instant.parse("2025-09-30T10:30:00Z");
+
+    private final TokenRevocationStore revocationStore = new TokenRevocationStore(300, clockAt(now));
+
+    @Test
+    void verify_tokenEmitido_retornaDatosDelUsuario() {
+        TokenService tokenService = new TokenService(new SigningKeyRing("k1:" + KEY_1, "k1"), revocationStore, 3600, clockAt(now));
+
+        String token = tokenService.issue(7L, "usuario123");
+        Optional<AuthToken> authToken = tokenService.verify(token);
+
+        assertTrue(authToken.isPresent());
+        assertEquals(7L, authToken.get().userId());
+        assertEquals("usuario123", authToken.get().username());
+        assertEquals(now.plusSeconds(3600), authToken.get().expiresAt());
+        assertNotEquals(0L, authToken.get().tokenId());
+    }
+
+    @Test
+    void verify_firmaAlterada_retornaVacio() {
+        TokenService tokenService = new TokenService(new SigningKeyRing("k1:" + KEY_1, "k1"), revocationStore, 3600, clockAt(now));
+
+        String token = tokenService.issue(7L, "usuario123");
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA";
+
+        assertTrue(tokenService.verify(tampered).isEmpty());
+        assertTrue(tokenService.verify("token_de_autenticacion").isEmpty());
+        assertTrue(tokenService.verify(null).isEmpty());
+    }
+
+    @Test
+    void verify_tokenExpirado_retornaVacio() {
+        SigningKeyRing keyRing = new SigningKeyRing("k1:" + KEY_1, "k1");
+        String token = new TokenService(keyRing, revocationStore, 60, clockAt(now)).issue(7L, "usuario123");
+
+        TokenService later = new TokenService(keyRing, revocationStore, 60, clockAt(now.plus(Duration.ofMinutes(2))));
+
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_usuarioRevocado_rechazaTokensAnteriores() {
+        SigningKeyRing keyRing = new SigningKeyRing("k1:" + KEY_1, "k1");
+        TokenService tokenService = new TokenService(keyRing, revocationStore, 3600, clockAt(now));
+        String token = tokenService.issue(7L, "usuario123");
+        String otherToken = tokenService.issue(8L, "otro");
+
+        tokenService.revokeUser("USUARIO123");
+
+        assertTrue(tokenService.verify(token).isEmpty());
+        assertTrue(tokenService.verify(otherToken).isPresent());
+        String later = new TokenService(keyRing, revocationStore, 3600, clockAt(now.plusSeconds(1))).issue(7L, "usuario123");
+        assertTrue(tokenService.verify(later).isPresent());
+    }
+
+    @Test
+    void verify_rotacionDeClaves_aceptaTokensDeClaveAnterior() {
+        SigningKeyRing keyRing = new SigningKeyRing("k1:" + KEY_1 + ",k2:" + KEY_2, "k1");
+        TokenService tokenService = new TokenService(keyRing, revocationStore, 3600, clockAt(now));
+        String oldToken = tokenService.issue(7L, "usuario123");
+
+        keyRing.addKey("k2", Base64.getDecoder().decode(KEY_2), true);
+        String newToken = tokenService.issue(7L, "usuario123");
+
+        assertTrue(newToken.startsWith("k2."));
+        assertTrue(tokenService.verify(oldToken).isPresent());
+
+        keyRing.removeKey("k1");
+        assertTrue(tokenService.verify(oldToken).isEmpty());
+        assertTrue(tokenService.verify(newToken).isPresent());
+    }
+
+    @Test
+    void verify_tokenRevocado_retornaVacio() {
+        TokenService tokenService = new TokenService(new SigningKeyRing("k1:" + KEY_1, "k1"), revocationStore, 3600, clockAt(now));
+
+        String token = tokenService.issue(7L, "usuario123");
+        tokenService.revoke(tokenService.verify(token).orElseThrow());
+
+        assertTrue(tokenService.verify(token).isEmpty());
+        assertTrue(tokenService.verify(tokenService.issue(7L, "usuario123")).isPresent());
+    }
+
+    @Test
+    void verify_hilosVirtualesConcurrentes_firmasIndependientes() throws Exception {
+        TokenService tokenService = new TokenService(new SigningKeyRing("k1:" + KEY_1, "k1"), revocationStore, 3600, clockAt(now));
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String username = "usuario" + i;
+            tasks.add(() -> tokenService.verify(tokenService.issue(7L, username))
+                .map(authToken -> authToken.username().equals(username))
+                .orElse(false));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        }
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.repository.UserCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caducidad de la caché de credenciales con un reloj controlado desde el test.
+ */
+class UserCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final UserCache userCache = new UserCache(100, 300, 5, nanos::get);
+
+    @Test
+    void getCredentials_usuarioActivo_caducaTrasActiveTtl() {
+        AtomicInteger loads = new AtomicInteger();
+        UserCredentials active = new UserCredentials(1L, "hash", true);
+
+        userCache.getCredentials("activo", username -> load(loads, active));
+        advance(Duration.ofSeconds(4));
+        userCache.getCredentials("Activo", username -> load(loads, active));
+        assertEquals(1, loads.get());
+
+        // Pasada la ventana se vuelve a leer, y se ve una desactivación hecha en otro nodo
+        advance(Duration.ofSeconds(2));
+        Optional<UserCredentials> reloaded = userCache.getCredentials("activo",
+            username -> load(loads, new UserCredentials(1L, "hash", false)));
+
+        assertEquals(2, loads.get());
+        assertFalse(reloaded.orElseThrow().isActive());
+    }
+
+    @Test
+    void getCredentials_usuarioInactivo_caducaTrasTtl() {
+        AtomicInteger loads = new AtomicInteger();
+        UserCredentials inactive = new UserCredentials(2L, "hash", false);
+
+        userCache.getCredentials("inactivo", username -> load(loads, inactive));
+        advance(Duration.ofSeconds(299));
+        userCache.getCredentials("inactivo", username -> load(loads, inactive));
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofSeconds(2));
+        userCache.getCredentials("inactivo", username -> load(loads, inactive));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_usuarioEnCache_vuelveALeer() {
+        AtomicInteger loads = new AtomicInteger();
+        UserCredentials active = new UserCredentials(3L, "hash", true);
+
+        userCache.getCredentials("invalidado", username -> load(loads, active));
+        userCache.invalidate("INVALIDADO");
+        userCache.getCredentials("invalidado", username -> load(loads, active));
+
+        assertEquals(2, loads.get());
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static Optional<UserCredentials> load(AtomicInteger loads, UserCredentials credentials) {
+        loads.incrementAndGet();
+        return Optional.of(credentials);
+    }
+}
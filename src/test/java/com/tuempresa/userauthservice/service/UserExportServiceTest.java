@@ -0,0 +1,86 @@
+package com.tuempresa.userauthservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Spy
+    private UserShardRouter shards = new UserShardRouter();
+
+    @InjectMocks
+    private UserExportService userExportService;
+
+    @Test
+    void exportUsers_variasFilas_escribeUnaLineaPorUsuario() throws Exception {
+        ReflectionTestUtils.setField(userExportService, "fetchSize", 2);
+        when(resultSet.getLong("id")).thenReturn(1L, 2L, 3L);
+        when(resultSet.getString("username")).thenReturn("usuario1", "usuario2", "usuario3");
+        when(resultSet.getString("email")).thenReturn("u1@ejemplo.com", "u2@ejemplo.com", "u3@ejemplo.com");
+        when(resultSet.getTimestamp("created_at"))
+            .thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 9, 30, 10, 30)), null, null);
+        when(resultSet.getBoolean("is_active")).thenReturn(true, false, true);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = userExportService.exportUsers(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":1,\"username\":\"usuario1\",\"email\":\"u1@ejemplo.com\","
+            + "\"createdAt\":\"2025-09-30T10:30:00\",\"isActive\":true}", lines[0]);
+        assertEquals("{\"id\":2,\"username\":\"usuario2\",\"email\":\"u2@ejemplo.com\","
+            + "\"createdAt\":null,\"isActive\":false}", lines[1]);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportUsers_sinUsuarios_noEscribeNada() throws Exception {
+        ReflectionTestUtils.setField(userExportService, "fetchSize", 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, userExportService.exportUsers(out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.dto.UserImportProgressDto;
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.model.UserImportCheckpoint;
+import com.tuempresa.userauthservice.repository.UserImportCheckpointRepository;
+import com.tuempresa.userauthservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Importación de archivos reales sobre H2 con bloques pequeños, para cubrir varios bloques
+ * y la reanudación.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:import",
+    "auth.import.chunk-size=2"
+})
+class UserImportServiceTest {
+
+    private static final String PASSWORD = "contraseña123";
+
+    private static final String HASH = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserImportCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userImportService, "directory", tempDir.toString());
+    }
+
+    @Test
+    void importUsers_csvConHashesExistentes_importaYPermiteLogin() throws Exception {
+        userRepository.save(new User("existenteCsv", HASH, "existenteCsv@email.com"));
+        Files.write(tempDir.resolve("legacy.csv"), List.of(
+            "email,username,password",
+            "importado1@email.com,importado1," + HASH,
+            "importado2@email.com,\"importado2\"," + HASH,
+            "sinhash@email.com,sinHash,contraseñaEnClaro",
+            "otro@email.com,importado1," + HASH,
+            "existenteCsv@email.com,existenteCsv," + HASH
+        ), StandardCharsets.UTF_8);
+
+        UserImportProgressDto progress = userImportService.importUsers("legacy.csv");
+
+        assertTrue(progress.isCompleted());
+        assertEquals(5, progress.getLines());
+        assertEquals(2, progress.getImported());
+        assertEquals(2, progress.getSkipped());
+        assertEquals(1, progress.getRejected());
+        assertEquals(HASH, userRepository.findByUsername("importado2").orElseThrow().getPassword());
+        assertInstanceOf(AuthenticatedUser.class,
+            userService.authenticateUser(new UserLoginDto("importado1", PASSWORD)));
+
+        // Un archivo completado no se vuelve a procesar
+        UserImportProgressDto again = userImportService.importUsers("legacy.csv");
+        assertEquals(2, again.getImported());
+        assertEquals(5, again.getLines());
+    }
+
+    @Test
+    void importUsers_conPuntoDeReanudacion_continuaEnLaSiguienteLinea() throws Exception {
+        Path file = Files.write(tempDir.resolve("reanudar.ndjson"), List.of(
+            json("reanudado1"), json("reanudado2"), json("reanudado3"), json("reanudado4"), json("reanudado5")
+        ), StandardCharsets.UTF_8);
+        checkpointRepository.save(checkpointOf(file).advance(2, 2, 0, 0, false));
+
+        UserImportProgressDto progress = userImportService.importUsers("reanudar.ndjson");
+
+        assertEquals(5, progress.getLines());
+        assertEquals(5, progress.getImported());
+        assertTrue(userRepository.findByUsername("reanudado2").isEmpty());
+        assertTrue(userRepository.findByUsername("reanudado3").isPresent());
+        assertTrue(userRepository.findByUsername("reanudado5").isPresent());
+        assertEquals(progress.getImported(), userImportService.getProgress("reanudar.ndjson").orElseThrow().getImported());
+    }
+
+    @Test
+    void importUsers_archivoCambiadoTrasElPuntoDeReanudacion_importaDesdeElPrincipio() throws Exception {
+        Path file = Files.write(tempDir.resolve("cambiado.ndjson"), List.of(json("cambiado1"), json("cambiado2")),
+            StandardCharsets.UTF_8);
+        assertTrue(userImportService.importUsers("cambiado.ndjson").isCompleted());
+
+        // Se sustituye por otro contenido con más líneas y otra fecha de modificación
+        Files.write(file, List.of(json("nuevo1"), json("nuevo2"), json("cambiado1"), json("nuevo3")),
+            StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        UserImportProgressDto progress = userImportService.importUsers("cambiado.ndjson");
+
+        assertTrue(progress.isCompleted());
+        assertEquals(4, progress.getLines());
+        assertEquals(3, progress.getImported());
+        assertEquals(1, progress.getSkipped());
+        assertTrue(userRepository.findByUsername("nuevo1").isPresent());
+        assertTrue(userRepository.findByUsername("nuevo3").isPresent());
+    }
+
+    @Test
+    void importUsers_archivoFueraDelDirectorio_rechaza() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> userImportService.importUsers("../legacy.csv"));
+
+        assertEquals("Archivo de importación no válido", exception.getMessage());
+    }
+
+    /**
+     * Importa 200000 usuarios en bloques de 1000 y publica el rendimiento.
+     * Se ejecuta con {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void importUsers_archivoGrande_rendimiento() throws Exception {
+        ReflectionTestUtils.setField(userImportService, "chunkSize", 1000);
+        int rows = 200_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(tempDir.resolve("grande.ndjson"), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(json("masivo" + i));
+                writer.newLine();
+            }
+        }
+
+        long start = System.nanoTime();
+        UserImportProgressDto progress = userImportService.importUsers("grande.ndjson");
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        ReflectionTestUtils.setField(userImportService, "chunkSize", 2);
+
+        System.out.printf("%d usuarios importados en %d ms (%d usuarios/s)%n",
+            progress.getImported(), elapsedMillis, progress.getImported() * 1000 / elapsedMillis);
+        assertEquals(rows, progress.getImported());
+    }
+
+    private static UserImportCheckpoint checkpointOf(Path file) throws IOException {
+        return new UserImportCheckpoint(file.getFileName().toString(), Files.size(file),
+            Files.getLastModifiedTime(file).toMillis());
+    }
+
+    private static String json(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@email.com\",\"password\":\"" + HASH + "\"}";
+    }
+}
@@ -1,18 +1,27 @@
 package com.tuempresa.userauthservice.service;
 
+import com.tuempresa.userauthservice.dto.UserInfoDto;
 import com.tuempresa.userauthservice.dto.UserLoginDto;
 import com.tuempresa.userauthservice.dto.UserRegistrationDto;
 import com.tuempresa.userauthservice.model.User;
+import com.tuempresa.userauthservice.repository.UserCredentials;
 import com.tuempresa.userauthservice.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,9 +36,45 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private SessionStore sessionStore;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, 60, 60);
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private LoginAttemptCounter loginAttemptCounter;
+
+    @Spy
+    private ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(5000);
+
+    @Spy
+    private UserShardRouter shards = new UserShardRouter();
+
+    @Mock
+    private UserEmailClaims emailClaims;
+
     @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    void setUp() {
+        // El pool de hashing se ejecuta en línea para los tests unitarios
+        lenient().when(hashingExecutor.execute(any())).thenAnswer(invocation ->
+            invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(usernameFilter.mightExist(any())).thenReturn(true);
+        lenient().when(emailClaims.claim(any())).thenReturn(true);
+    }
+
     // TC001 - Registro exitoso
     @Test
     void registerUser_datosValidos_registroExitoso() {
@@ -39,61 +84,61 @@ class UserServiceTest {
         registrationDto.setPassword("contraseña123");
         registrationDto.setEmail("usuario@email.com");
 
-        when(userRepository.existsByUsername("usuario123")).thenReturn(false);
-        when(userRepository.existsByEmail("usuario@email.com")).thenReturn(false);
         when(passwordEncoder.encode("contraseña123")).thenReturn("contraseña_encriptada");
 
         User savedUser = new User();
         savedUser.setUsername("usuario123");
         savedUser.setEmail("usuario@email.com");
         savedUser.setPassword("contraseña_encriptada");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
 
         // Act
-        User result = userService.registerUser(registrationDto);
+        RegistrationResult result = userService.registerUser(registrationDto);
 
         // Assert
-        assertNotNull(result);
-        assertEquals("usuario123", result.getUsername());
-        assertEquals("usuario@email.com", result.getEmail());
-        verify(userRepository).save(any(User.class));
+        User registered = assertInstanceOf(RegistrationResult.Registered.class, result).user();
+        assertEquals("usuario123", registered.getUsername());
+        assertEquals("usuario@email.com", registered.getEmail());
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
+        verify(usernameFilter).add("usuario123");
     }
 
     // TC002 - Registro con nombre de usuario existente
     @Test
-    void registerUser_usuarioExistente_lanzaExcepcion() {
+    void registerUser_usuarioExistente_retornaRechazo() {
         // Arrange
         UserRegistrationDto registrationDto = new UserRegistrationDto();
         registrationDto.setUsername("usuarioExistente");
         registrationDto.setPassword("contraseña123");
         registrationDto.setEmail("usuario@email.com");
 
-        when(userRepository.existsByUsername("usuarioExistente")).thenReturn(true);
+        when(passwordEncoder.encode("contraseña123")).thenReturn("contraseña_encriptada");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+            "could not execute statement",
+            new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_USERS_USERNAME_INDEX_4 ON PUBLIC.USERS(USERNAME)\"")));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> userService.registerUser(registrationDto));
-        assertEquals("El nombre de usuario ya está en uso", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals(RegistrationResult.Failure.USERNAME_TAKEN, userService.registerUser(registrationDto));
     }
 
     // TC003 - Registro con datos inválidos (se valida en el controlador, pero test de cobertura)
     @Test
-    void registerUser_emailExistente_lanzaExcepcion() {
+    void registerUser_emailExistente_retornaRechazo() {
         // Arrange
         UserRegistrationDto registrationDto = new UserRegistrationDto();
         registrationDto.setUsername("nuevoUsuario");
         registrationDto.setPassword("contraseña123");
         registrationDto.setEmail("email@existente.com");
 
-        when(userRepository.existsByUsername("nuevoUsuario")).thenReturn(false);
-        when(userRepository.existsByEmail("email@existente.com")).thenReturn(true);
+        when(passwordEncoder.encode("contraseña123")).thenReturn("contraseña_encriptada");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+            "could not execute statement",
+            new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\"")));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> userService.registerUser(registrationDto));
-        assertEquals("El email ya está registrado", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals(RegistrationResult.Failure.EMAIL_TAKEN, userService.registerUser(registrationDto));
     }
 
     // TC004 - Login exitoso
@@ -104,78 +149,66 @@ class UserServiceTest {
         loginDto.setUsername("usuario123");
         loginDto.setPassword("contraseña123");
 
-        User user = new User();
-        user.setUsername("usuario123");
-        user.setPassword("contraseña_encriptada");
-        user.setIsActive(true);
-
-        when(userRepository.findByUsername("usuario123")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
         when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
 
         // Act
-        User result = userService.authenticateUser(loginDto);
+        AuthResult result = userService.authenticateUser(loginDto);
 
         // Assert
-        assertNotNull(result);
-        assertEquals("usuario123", result.getUsername());
-        assertTrue(result.getIsActive());
+        AuthenticatedUser user = assertInstanceOf(AuthenticatedUser.class, result);
+        assertEquals(1L, user.id());
+        assertEquals("usuario123", user.username());
+        verify(userRepository, never()).findByUsername(any());
     }
 
     // TC005 - Login con contraseña incorrecta
     @Test
-    void authenticateUser_contraseñaIncorrecta_lanzaExcepcion() {
+    void authenticateUser_contraseñaIncorrecta_retornaRechazo() {
         // Arrange
         UserLoginDto loginDto = new UserLoginDto();
         loginDto.setUsername("usuario123");
         loginDto.setPassword("contraseñaIncorrecta");
 
-        User user = new User();
-        user.setUsername("usuario123");
-        user.setPassword("contraseña_encriptada");
-        user.setIsActive(true);
-
-        when(userRepository.findByUsername("usuario123")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
         when(passwordEncoder.matches("contraseñaIncorrecta", "contraseña_encriptada")).thenReturn(false);
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> userService.authenticateUser(loginDto));
-        assertEquals("Credenciales inválidas", exception.getMessage());
+        assertEquals(AuthResult.Failure.INVALID_CREDENTIALS, userService.authenticateUser(loginDto));
     }
 
     // TC006 - Login con usuario inexistente
     @Test
-    void authenticateUser_usuarioInexistente_lanzaExcepcion() {
+    void authenticateUser_usuarioInexistente_retornaRechazo() {
         // Arrange
         UserLoginDto loginDto = new UserLoginDto();
         loginDto.setUsername("usuarioInexistente");
         loginDto.setPassword("contraseña123");
 
-        when(userRepository.findByUsername("usuarioInexistente")).thenReturn(Optional.empty());
+        // El repositorio recibe el nombre normalizado
+        when(userRepository.findCredentialsByUsername("usuarioinexistente")).thenReturn(Optional.empty());
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> userService.authenticateUser(loginDto));
-        assertEquals("Usuario no encontrado", exception.getMessage());
+        assertEquals(AuthResult.Failure.USER_NOT_FOUND, userService.authenticateUser(loginDto));
     }
 
     // TC007 - Logout exitoso
     @Test
-    void logoutUser_tokenValido_desactivaUsuario() {
+    void logoutUser_tokenValido_revocaToken() {
         // Arrange
         String token = "token_de_autenticacion";
-        User user = new User();
-        user.setUsername("usuario123");
-        user.setIsActive(true);
+        AuthToken authToken = new AuthToken(42L, 1L, "usuario123", Instant.now(), Instant.now().plusSeconds(3600));
 
-        when(userRepository.findByUsername("usuario123")).thenReturn(Optional.of(user));
+        when(tokenService.verify(token)).thenReturn(Optional.of(authToken));
 
         // Act
         userService.logoutUser(token);
 
         // Assert
-        assertFalse(user.getIsActive());
-        verify(userRepository).save(user);
+        verify(tokenService).revoke(authToken);
+        verifyNoInteractions(userRepository);
     }
 
     // TC008 - Logout con token inválido
@@ -188,7 +221,7 @@ class UserServiceTest {
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> userService.logoutUser(token));
         assertEquals("Token inválido", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(tokenService, never()).revoke(any());
     }
 
     // TC009 - Logout sin token
@@ -201,7 +234,7 @@ class UserServiceTest {
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> userService.logoutUser(token));
         assertEquals("Token inválido", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(tokenService, never()).revoke(any());
     }
 
     @Test
@@ -213,27 +246,267 @@ class UserServiceTest {
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> userService.logoutUser(token));
         assertEquals("Token inválido", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(tokenService, never()).revoke(any());
     }
 
     @Test
-    void authenticateUser_usuarioInactivo_lanzaExcepcion() {
+    void authenticateUser_usuarioInactivo_retornaRechazo() {
         // Arrange
         UserLoginDto loginDto = new UserLoginDto();
         loginDto.setUsername("usuario123");
         loginDto.setPassword("contraseña123");
 
-        User user = new User();
-        user.setUsername("usuario123");
-        user.setPassword("contraseña_encriptada");
-        user.setIsActive(false);
-
-        when(userRepository.findByUsername("usuario123")).thenReturn(Optional.of(user));
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", false)));
         when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        assertEquals(AuthResult.Failure.INACTIVE_USER, userService.authenticateUser(loginDto));
+    }
+
+    @Test
+    void authenticateUser_poolHashingSaturado_lanzaExcepcionDeCapacidad() {
+        // Arrange
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setUsername("usuario123");
+        loginDto.setPassword("contraseña123");
+
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
+        doThrow(new HashingCapacityExceededException(1)).when(hashingExecutor).execute(any());
+
+        // Act & Assert
+        HashingCapacityExceededException exception = assertThrows(HashingCapacityExceededException.class,
             () -> userService.authenticateUser(loginDto));
-        assertEquals("Usuario inactivo", exception.getMessage());
+        assertEquals(1, exception.getRetryAfterSeconds());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void authenticateUser_hashConCosteInferior_rehashConUpdate() {
+        // Arrange
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setUsername("usuario123");
+        loginDto.setPassword("contraseña123");
+
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "hash_coste_bajo", true)));
+        when(passwordEncoder.matches("contraseña123", "hash_coste_bajo")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hash_coste_bajo")).thenReturn(true);
+        when(passwordEncoder.encode("contraseña123")).thenReturn("hash_coste_calibrado");
+
+        // Act
+        userService.authenticateUser(loginDto);
+
+        // Assert
+        verify(userRepository).updatePassword(1L, "hash_coste_calibrado");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void authenticateUser_hashActualizado_noRehash() {
+        // Arrange
+        UserLoginDto loginDto = new UserLoginDto();
+        loginDto.setUsername("usuario123");
+        loginDto.setPassword("contraseña123");
+
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "hash_coste_calibrado", true)));
+        when(passwordEncoder.matches("contraseña123", "hash_coste_calibrado")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hash_coste_calibrado")).thenReturn(false);
+
+        // Act
+        userService.authenticateUser(loginDto);
+
+        // Assert
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    void logoutUserByUsername_usuarioActivo_desactivaSinCargarEntidad() {
+        when(userRepository.deactivateByUsername("usuario123")).thenReturn(1);
+
+        assertTrue(userService.logoutUserByUsername("usuario123"));
+
+        verify(userRepository, never()).findByUsername(any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void logoutUserByUsername_usuarioInexistente_retornaFalse() {
+        when(userRepository.deactivateByUsername("noexiste")).thenReturn(0);
+
+        assertFalse(userService.logoutUserByUsername("noExiste"));
+    }
+
+    @Test
+    void forceLogout_listaGrande_desactivaPorLotesSinDuplicados() {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            usernames.add("usuario" + i);
+        }
+        usernames.add("usuario0");
+        when(userRepository.deactivateByUsernameIn(anyCollection()))
+            .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).size());
+
+        int deactivated = userService.forceLogout(usernames);
+
+        assertEquals(2500, deactivated);
+        verify(userRepository, times(3)).deactivateByUsernameIn(anyCollection());
+        verify(tokenService).revokeUser("usuario0");
+        verify(tokenService, times(2500)).revokeUser(any());
+        verify(sessionStore, times(2500)).invalidateUser(any());
+    }
+
+    @Test
+    void getUsersPage_hayMasResultados_retornaCursorDelUltimo() {
+        when(userRepository.findPage(null, null, null, null, null, 3))
+            .thenReturn(List.of(userInfo(1L), userInfo(2L), userInfo(3L)));
+
+        UserPage page = userService.getUsersPage(null, null, null, null, 2);
+
+        assertEquals(2, page.users().size());
+        assertNotNull(page.nextCursor());
+        assertEquals(new UserPageCursor(null, 2L), UserPageCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getUsersPage_ultimaPagina_sinCursor() {
+        when(userRepository.findPage(true, null, null, null, 5L, 3))
+            .thenReturn(List.of(userInfo(6L)));
+
+        UserPage page = userService.getUsersPage(true, null, null, new UserPageCursor(null, 5L).encode(), 2);
+
+        assertEquals(1, page.users().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getUsersPage_filtroFecha_paginaPorFechaEId() {
+        LocalDateTime from = LocalDateTime.of(2025, 9, 1, 0, 0);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 2, 10, 30);
+        String cursor = new UserPageCursor(createdAt, 7L).encode();
+
+        userService.getUsersPage(null, from, null, cursor, 10);
+
+        verify(userRepository).findPage(null, from, null, createdAt, 7L, 11);
+    }
+
+    @Test
+    void getUsersPage_tamanoExcesivo_seLimita() {
+        userService.getUsersPage(null, null, null, null, 10_000);
+
+        verify(userRepository).findPage(null, null, null, null, null, UserService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getUsersPage_cursorDeOtroOrden_lanzaExcepcion() {
+        String cursor = new UserPageCursor(null, 7L).encode();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> userService.getUsersPage(null, LocalDateTime.of(2025, 9, 1, 0, 0), null, cursor, 10));
+
+        assertEquals("Cursor inválido", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersPage_cursorMalformado_lanzaExcepcion() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> userService.getUsersPage(null, null, null, "%%%", 10));
+
+        assertEquals("Cursor inválido", exception.getMessage());
+    }
+
+    private static UserInfoDto userInfo(Long id) {
+        return new UserInfoDto(id, "usuario" + id, "usuario" + id + "@ejemplo.com", LocalDateTime.now(), true);
+    }
+
+    @Test
+    void authenticateUser_loginRepetido_usaCacheSinConsultarBaseDeDatos() {
+        UserLoginDto loginDto = new UserLoginDto("usuario123", "contraseña123");
+
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
+        when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
+
+        userService.authenticateUser(loginDto);
+        userService.authenticateUser(loginDto);
+
+        verify(userRepository, times(1)).findCredentialsByUsername("usuario123");
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void logoutUserByUsername_usuarioEnCache_invalidaAntesDelSiguienteLogin() {
+        UserLoginDto loginDto = new UserLoginDto("usuario123", "contraseña123");
+
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", false)));
+        when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
+
+        userService.authenticateUser(loginDto);
+        userService.logoutUserByUsername("usuario123");
+
+        assertEquals(AuthResult.Failure.INACTIVE_USER, userService.authenticateUser(loginDto));
+        verify(userRepository, times(2)).findCredentialsByUsername("usuario123");
+    }
+
+    @Test
+    void authenticateUser_varianteDeMayusculas_autenticaDesdeLaCache() {
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
+        when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
+
+        userService.authenticateUser(new UserLoginDto("usuario123", "contraseña123"));
+
+        assertInstanceOf(AuthenticatedUser.class,
+            userService.authenticateUser(new UserLoginDto(" Usuario123", "contraseña123")));
+        verify(userRepository, times(1)).findCredentialsByUsername("usuario123");
+    }
+
+    @Test
+    void authenticateUser_descartadoPorFiltro_noConsultaBaseDeDatos() {
+        when(usernameFilter.mightExist("desconocido")).thenReturn(false);
+
+        assertEquals(AuthResult.Failure.USER_NOT_FOUND,
+            userService.authenticateUser(new UserLoginDto("desconocido", "contraseña123")));
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void authenticateUser_usuarioBloqueado_rechazaSinVerificarContraseña() {
+        when(loginAttemptCounter.isLocked("usuario123")).thenReturn(true);
+
+        assertEquals(AuthResult.Failure.LOCKED,
+            userService.authenticateUser(new UserLoginDto("usuario123", "contraseña123")));
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void authenticateUser_contraseñaIncorrecta_registraFallo() {
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
+        when(passwordEncoder.matches("incorrecta", "contraseña_encriptada")).thenReturn(false);
+
+        userService.authenticateUser(new UserLoginDto("usuario123", "incorrecta"));
+
+        verify(loginAttemptCounter).recordFailure("usuario123");
+        verify(loginAttemptCounter, never()).recordSuccess(any());
+    }
+
+    @Test
+    void authenticateUser_loginCorrecto_reiniciaContador() {
+        when(userRepository.findCredentialsByUsername("usuario123"))
+            .thenReturn(Optional.of(new UserCredentials(1L, "contraseña_encriptada", true)));
+        when(passwordEncoder.matches("contraseña123", "contraseña_encriptada")).thenReturn(true);
+
+        userService.authenticateUser(new UserLoginDto("usuario123", "contraseña123"));
+
+        verify(loginAttemptCounter).recordSuccess("usuario123");
+        verify(loginAttemptCounter, never()).recordFailure(any());
     }
 }
@@ -0,0 +1,221 @@
+package com.tuempresa.userauthservice.service;
+
+import com.tuempresa.userauthservice.config.ShardRoutingDataSource;
+import com.tuempresa.userauthservice.dto.UserInfoDto;
+import com.tuempresa.userauthservice.dto.UserLoginDto;
+import com.tuempresa.userauthservice.dto.UserRegistrationDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Particionado sobre tres bases de datos H2 en memoria: el registro, la unicidad global del
+ * email, la lectura, la paginación, la exportación y el movimiento de grupos se comprueban
+ * contra la base de datos de cada shard.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+    "auth.sharding.urls=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+    "auth.sharding.buckets=64"
+})
+class UserShardRouterTest {
+
+    private static final String PASSWORD = "contraseña123";
+
+    @Autowired
+    private UserShardRouter shards;
+
+    @Autowired
+    private UserShardRebalancer rebalancer;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserEmailClaims emailClaims;
+
+    @Test
+    void ringAssignment_anadirShard_soloMueveGruposAlNuevo() {
+        int[] three = UserShardRouter.ringAssignment(1024, 3);
+        int[] four = UserShardRouter.ringAssignment(1024, 4);
+
+        for (int bucket = 0; bucket < three.length; bucket++) {
+            assertTrue(four[bucket] == three[bucket] || four[bucket] == 3);
+        }
+        for (int shard = 0; shard < 4; shard++) {
+            int target = shard;
+            assertTrue(Arrays.stream(four).filter(owner -> owner == target).count() > 1024 / 8);
+        }
+    }
+
+    @Test
+    void registerUser_variosUsuarios_guardaCadaUnoEnSuShard() {
+        for (int i = 0; i < 12; i++) {
+            String username = "repartido" + i;
+            assertInstanceOf(RegistrationResult.Registered.class,
+                userService.registerUser(new UserRegistrationDto(username, PASSWORD, username + "@email.com")));
+
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                assertEquals(shard == shards.shardOf(username) ? 1 : 0, countOn(shard, username));
+            }
+        }
+
+        assertInstanceOf(AuthenticatedUser.class, userService.authenticateUser(new UserLoginDto("repartido7", PASSWORD)));
+        RegistrationResult duplicate = userService.registerUser(
+            new UserRegistrationDto("otroNombre", PASSWORD, "repartido3@email.com"));
+        assertEquals(RegistrationResult.Failure.EMAIL_TAKEN, duplicate);
+    }
+
+    @Test
+    void registerUser_mismoEmailEnParaleloEnVariosShards_soloRegistraUno() throws Exception {
+        List<String> usernames = IntStream.range(0, 12).mapToObj(i -> "concurrente" + i).toList();
+        assertTrue(usernames.stream().map(shards::shardOf).distinct().count() > 1);
+
+        List<RegistrationResult> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<RegistrationResult>> futures = new ArrayList<>();
+            for (String username : usernames) {
+                futures.add(executor.submit(() ->
+                    userService.registerUser(new UserRegistrationDto(username, PASSWORD, "Compartido@email.com"))));
+            }
+            for (Future<RegistrationResult> future : futures) {
+                results.add(future.get());
+            }
+        }
+
+        assertEquals(1, results.stream().filter(RegistrationResult.Registered.class::isInstance).count());
+        assertEquals(11, results.stream().filter(RegistrationResult.Failure.EMAIL_TAKEN::equals).count());
+        int registered = 0;
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            registered += new JdbcTemplate(shardRoutingDataSource.getShard(shard)).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email_normalized = 'compartido@email.com'", Integer.class);
+        }
+        assertEquals(1, registered);
+    }
+
+    @Test
+    void registerUser_reservaDeEmail_seLiberaSiFallaYCaducaSinUsuario() {
+        userService.registerUser(new UserRegistrationDto("reservado", PASSWORD, "reservado@email.com"));
+        assertEquals(RegistrationResult.Failure.USERNAME_TAKEN,
+            userService.registerUser(new UserRegistrationDto("Reservado", PASSWORD, "liberado@email.com")));
+        assertInstanceOf(RegistrationResult.Registered.class,
+            userService.registerUser(new UserRegistrationDto("liberado", PASSWORD, "liberado@email.com")));
+
+        // Reservas sin usuario de un registro interrumpido: la reciente se respeta y la caducada no
+        JdbcTemplate shardZero = new JdbcTemplate(shardRoutingDataSource.getShard(0));
+        String insertClaim = "INSERT INTO user_email_claims (email_normalized, username_normalized, created_at) VALUES (?, ?, ?)";
+        shardZero.update(insertClaim, "huerfano@email.com", "caido", Timestamp.valueOf(LocalDateTime.now()));
+        shardZero.update(insertClaim, "caducado@email.com", "caido", Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+
+        assertEquals(RegistrationResult.Failure.EMAIL_TAKEN,
+            userService.registerUser(new UserRegistrationDto("huerfano", PASSWORD, "huerfano@email.com")));
+        assertInstanceOf(RegistrationResult.Registered.class,
+            userService.registerUser(new UserRegistrationDto("caducado", PASSWORD, "caducado@email.com")));
+        assertEquals("caducado", shardZero.queryForObject(
+            "SELECT username_normalized FROM user_email_claims WHERE email_normalized = 'caducado@email.com'", String.class));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_tablaDeReservasVacia_reservaLosEmailsExistentesPorLotes() {
+        for (int i = 0; i < 1500; i++) {
+            String username = "existente" + i;
+            new JdbcTemplate(shardRoutingDataSource.getShard(shards.shardOf(username))).update(
+                "INSERT INTO users (id, username, password, email, created_at, is_active, username_normalized, email_normalized) "
+                    + "VALUES (?, ?, 'hash', ?, ?, TRUE, ?, ?)",
+                5_000_000L + i, username, username + "@email.com", Timestamp.valueOf(LocalDateTime.now()),
+                username, username + "@email.com");
+        }
+        JdbcTemplate shardZero = new JdbcTemplate(shardRoutingDataSource.getShard(0));
+        shardZero.update("DELETE FROM user_email_claims");
+
+        emailClaims.afterSingletonsInstantiated();
+
+        int users = 0;
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            users += new JdbcTemplate(shardRoutingDataSource.getShard(shard))
+                .queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+        }
+        assertEquals(users, shardZero.queryForObject("SELECT COUNT(*) FROM user_email_claims", Integer.class));
+        assertEquals(RegistrationResult.Failure.EMAIL_TAKEN,
+            userService.registerUser(new UserRegistrationDto("otroExistente", PASSWORD, "existente1499@email.com")));
+    }
+
+    @Test
+    void getUsersPage_variosShards_combinaEnOrdenDeIdYExporta() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            userService.registerUser(new UserRegistrationDto("paginado" + i, PASSWORD, "paginado" + i + "@email.com"));
+        }
+
+        UserPage first = userService.getUsersPage(null, null, null, null, 4);
+        UserPage second = userService.getUsersPage(null, null, null, first.nextCursor(), 4);
+
+        List<Long> ids = Stream.concat(first.users().stream(), second.users().stream())
+            .map(UserInfoDto::getId)
+            .toList();
+        assertEquals(8, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = userExportService.exportUsers(out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(exported, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"paginado9\"")));
+    }
+
+    @Test
+    void moveBucket_otroShard_mueveLosUsuariosDelGrupo() {
+        userService.registerUser(new UserRegistrationDto("movido", PASSWORD, "movido@email.com"));
+        int bucket = shards.bucketOf("movido");
+        int source = shards.shardOf("movido");
+        int target = (source + 1) % shards.getShardCount();
+
+        UserShardRebalancer.Result result = rebalancer.moveBucket(bucket, target);
+
+        assertEquals(1, result.movedBuckets());
+        assertTrue(result.movedUsers() >= 1);
+        assertEquals(target, shards.shardOf("movido"));
+        assertEquals(0, countOn(source, "movido"));
+        assertEquals(1, countOn(target, "movido"));
+        assertInstanceOf(AuthenticatedUser.class, userService.authenticateUser(new UserLoginDto("movido", PASSWORD)));
+
+        // El reequilibrado devuelve el grupo a su sitio en el anillo
+        rebalancer.rebalance();
+
+        assertArrayEquals(shards.targetAssignment(), shards.getAssignment());
+        assertEquals(1, countOn(shards.shardOf("movido"), "movido"));
+    }
+
+    @Test
+    void moveBucket_shardInexistente_lanzaExcepcion() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> rebalancer.moveBucket(0, 3));
+
+        assertEquals("Shard inválido", exception.getMessage());
+    }
+
+    private int countOn(int shard, String username) {
+        return new JdbcTemplate(shardRoutingDataSource.getShard(shard))
+            .queryForObject("SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, username);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tuempresa.userauthservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sincronización del filtro de nombres de usuario con los registros hechos en otros nodos,
+ * que se simulan insertando directamente en la tabla compartida.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:username-filter",
+    // Las sincronizaciones se lanzan desde el test
+    "auth.user-filter.sync-interval-ms=3600000"
+})
+class UsernameFilterTest {
+
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sync_usuarioRegistradoEnOtroNodo_pasaAPosible() {
+        usernameFilter.rebuild();
+        insertFromOtherNode(900_001L, "OtroNodo");
+
+        assertFalse(usernameFilter.mightExist("otronodo"));
+
+        usernameFilter.sync();
+
+        assertTrue(usernameFilter.mightExist("otronodo"));
+        assertFalse(usernameFilter.mightExist("nadie"));
+    }
+
+    @Test
+    void mightExist_escritoHacePocoEnEsteNodo_esPosibleAunqueNoEsteEnElFiltro() {
+        usernameFilter.rebuild();
+
+        readYourWrites.recordWrite("Reciente");
+
+        assertTrue(usernameFilter.mightExist("reciente"));
+    }
+
+    private void insertFromOtherNode(long id, String username) {
+        jdbcTemplate.update(
+            "INSERT INTO users (id, username, password, email, created_at, is_active, username_normalized, email_normalized) "
+                + "VALUES (?, ?, 'hash', ?, ?, TRUE, ?, ?)",
+            id, username, username + "@email.com", Timestamp.valueOf(LocalDateTime.now()),
+            username.toLowerCase(), username.toLowerCase() + "@email.com");
+    }
+}